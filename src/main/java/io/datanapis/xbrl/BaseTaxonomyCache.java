@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl;
+
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A cache of read-only base taxonomies shared across filings. A filing's taxonomy is split into the standard
+ * taxonomies it imports (us-gaap, dei, srt etc.) and its own extension. The standard part is identified by the set
+ * of standard schemas the extension references and is read once per distinct set. Every filing referencing the same
+ * set shares the same base, and only the extension schema, its linkbases and its role types are read per filing.
+ * <p>
+ * Optionally, base taxonomies are persisted as snapshots (see {@link DtsSnapshot}) in a folder so that they
+ * survive across runs.
+ */
+public class BaseTaxonomyCache {
+    private static final Logger log = LoggerFactory.getLogger(BaseTaxonomyCache.class);
+
+    public static final List<String> STANDARD_PREFIXES = List.of(
+            "http://xbrl.fasb.org/", "https://xbrl.fasb.org/",
+            "http://xbrl.sec.gov/", "https://xbrl.sec.gov/",
+            "http://www.xbrl.org/", "https://www.xbrl.org/",
+            "http://xbrl.us/", "https://xbrl.us/");
+
+    private final List<String> prefixes;
+    private final Path snapshotFolder;
+    private final Map<String,DiscoverableTaxonomySet> taxonomies = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public BaseTaxonomyCache() {
+        this(STANDARD_PREFIXES, null);
+    }
+
+    public BaseTaxonomyCache(Path snapshotFolder) {
+        this(STANDARD_PREFIXES, snapshotFolder);
+    }
+
+    /**
+     * @param prefixes Urls starting with any of these prefixes are considered part of the standard taxonomies
+     * @param snapshotFolder An optional folder to persist base taxonomies in
+     */
+    public BaseTaxonomyCache(Collection<String> prefixes, Path snapshotFolder) {
+        this.prefixes = List.copyOf(prefixes);
+        this.snapshotFolder = snapshotFolder;
+    }
+
+    public boolean isStandard(String absolutePath) {
+        for (String prefix : prefixes) {
+            if (absolutePath.startsWith(prefix))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the base taxonomy for the standard schemas in roots, building it if required.
+     *
+     * @param roots The standard schemas referenced by a filing
+     * @param builder Builds the base taxonomy from roots
+     * @return The shared base taxonomy
+     */
+    DiscoverableTaxonomySet get(Collection<String> roots, Function<List<String>,DiscoverableTaxonomySet> builder) {
+        List<String> sorted = new ArrayList<>(roots);
+        Collections.sort(sorted);
+        String key = String.join("\n", sorted);
+
+        DiscoverableTaxonomySet dts = taxonomies.get(key);
+        if (dts != null) {
+            hits.incrementAndGet();
+            return dts;
+        }
+
+        return taxonomies.computeIfAbsent(key, k -> {
+            misses.incrementAndGet();
+            return load(k, sorted, builder);
+        });
+    }
+
+    private DiscoverableTaxonomySet load(String key, List<String> roots, Function<List<String>,DiscoverableTaxonomySet> builder) {
+        Path snapshot = null;
+        if (snapshotFolder != null) {
+            String name = "base-" + Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString().substring(0, 16);
+            snapshot = DtsSnapshot.pathOf(snapshotFolder, name);
+            DiscoverableTaxonomySet dts = DtsSnapshot.read(snapshot, key);
+            if (dts != null)
+                return dts;
+        }
+
+        log.info("Building base taxonomy from [{}]", roots);
+        DiscoverableTaxonomySet dts = builder.apply(roots);
+        if (snapshot != null) {
+            try {
+                DtsSnapshot.write(dts, key, snapshot);
+            } catch (IOException e) {
+                log.info("Unable to write base taxonomy snapshot [{}]: [{}]", snapshot, e.toString());
+            }
+        }
+
+        return dts;
+    }
+
+    public int size() {
+        return taxonomies.size();
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public void clear() {
+        taxonomies.clear();
+    }
+}
@@ -21,11 +21,20 @@ import io.datanapis.xbrl.model.arc.FromToArc;
 import io.datanapis.xbrl.model.arc.LabelArc;
 import io.datanapis.xbrl.model.arc.ReferenceArc;
 import io.datanapis.xbrl.model.link.*;
+import io.datanapis.xbrl.utils.Utils;
 import org.dom4j.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -52,8 +61,22 @@ public class DiscoverableTaxonomySet {
      * global map.
      */
     private final LabelLinkMap labelLinkMap = new LabelLinkMap();
+    /*
+     * When built through a BaseTaxonomyCache, the standard taxonomies (us-gaap, dei, srt etc.) live in a shared,
+     * read-only base and this taxonomy is a thin overlay holding just the filing's extension schema, its linkbases and
+     * its role types. Lookups check the overlay first and fall through to the base. Anything in the base that the filing
+     * modifies (e.g. a relabeled concept or a role type the filing attaches links to) is copied into the overlay first.
+     */
+    private DiscoverableTaxonomySet base = null;
+    /* The ids of the axes and members used by the instances of this taxonomy, see DimensionSignature */
+    private final ConceptIds conceptIds = new ConceptIds();
+    /* The absolute paths of the schemas and linkbases this taxonomy was read from, in the order they were ingested */
+    private final List<String> documents = new ArrayList<>();
 
     public void clear() {
+        base = null;
+        conceptIds.clear();
+        documents.clear();
         namespaces.clear();
         roleTypes.clear();
         arcroleTypes.clear();
@@ -65,6 +88,25 @@ public class DiscoverableTaxonomySet {
         keyConceptMap.clear();
     }
 
+    /**
+     * @return The ids of the axes and members of this taxonomy. An overlay has ids of its own, separate from its base
+     */
+    public ConceptIds getConceptIds() {
+        return conceptIds;
+    }
+
+    /**
+     * @return The absolute paths of the documents this taxonomy was read from. An overlay lists its own documents only
+     */
+    public List<String> getDocuments() {
+        return Collections.unmodifiableList(documents);
+    }
+
+    void setDocuments(Collection<String> documents) {
+        this.documents.clear();
+        this.documents.addAll(documents);
+    }
+
     public void addNamespace(Namespace namespace) {
         if (Objects.isNull(namespace.getPrefix()))
             return;
@@ -72,13 +114,30 @@ public class DiscoverableTaxonomySet {
         namespaces.putIfAbsent(namespace.getPrefix(), namespace);
     }
 
+    /**
+     * Returns the shared base taxonomy of this taxonomy
+     *
+     * @return The shared base or null if this taxonomy is not layered
+     */
+    public DiscoverableTaxonomySet getBase() {
+        return base;
+    }
+
     public RoleType getRoleType(String roleURI) {
-        return roleTypes.computeIfAbsent(roleURI, RoleType::createDynamic);
+        RoleType roleType = roleTypes.get(roleURI);
+        if (roleType == null) {
+            /* Links get attached to the returned roleType. Never hand out a roleType that belongs to the base */
+            RoleType baseRoleType = (base != null) ? base.roleTypes.get(roleURI) : null;
+            roleType = (baseRoleType != null) ? RoleType.copyOf(baseRoleType) : RoleType.createDynamic(roleURI);
+            roleTypes.put(roleURI, roleType);
+        }
+
+        return roleType;
     }
 
     public Collection<RoleType> getReportableRoleTypes() {
         List<RoleType> roles = new ArrayList<>();
-        for (RoleType roleType : roleTypes.values()) {
+        for (RoleType roleType : getAllRoleTypes()) {
             if (roleType.isReportable())
                 roles.add(roleType);
         }
@@ -87,33 +146,74 @@ public class DiscoverableTaxonomySet {
     }
 
     public Collection<RoleType> getAllRoleTypes() {
-        return roleTypes.values();
+        if (base == null)
+            return roleTypes.values();
+
+        return merge(roleTypes, base.roleTypes);
     }
 
     public ArcroleType getArcRoleType(String arcroleURI) {
-        return arcroleTypes.computeIfAbsent(arcroleURI, ArcroleType::createDynamic);
+        ArcroleType arcroleType = arcroleTypes.get(arcroleURI);
+        if (arcroleType == null && base != null) {
+            arcroleType = base.arcroleTypes.get(arcroleURI);
+        }
+        if (arcroleType == null) {
+            arcroleType = arcroleTypes.computeIfAbsent(arcroleURI, ArcroleType::createDynamic);
+        }
+
+        return arcroleType;
     }
 
     public Collection<ArcroleType> getAllArcRoleTypes() {
-        return arcroleTypes.values();
+        if (base == null)
+            return arcroleTypes.values();
+
+        return merge(arcroleTypes, base.arcroleTypes);
     }
 
     public Concept getConcept(Namespace namespace, String name) {
         QName qName = new QName(name, namespace);
-        return nameConceptMap.getOrDefault(qName, null);
+        return getConcept(qName);
     }
 
     public Concept getConcept(QName qName) {
-        return nameConceptMap.getOrDefault(qName, null);
+        Concept concept = nameConceptMap.get(qName);
+        if (concept == null && base != null) {
+            concept = base.getConcept(qName);
+        }
+
+        return concept;
     }
 
     public Concept getConcept(String href) {
-        return keyConceptMap.getOrDefault(href, null);
+        Concept concept = keyConceptMap.get(href);
+        if (concept == null && base != null) {
+            concept = base.getConcept(href);
+        }
+
+        return concept;
+    }
+
+    /**
+     * Returns the concept identified by href, copying it from the base into this taxonomy if necessary.
+     * Callers are expected to modify the returned concept.
+     */
+    private Concept getConceptForUpdate(String href) {
+        Concept concept = keyConceptMap.get(href);
+        if (concept == null && base != null) {
+            Concept baseConcept = base.getConcept(href);
+            if (baseConcept != null) {
+                concept = Concept.copyOf(baseConcept);
+                putConcept(concept);
+            }
+        }
+
+        return concept;
     }
 
     public Collection<Concept> getMatchingConcepts(Pattern pattern) {
         Collection<Concept> matchingConcepts = new ArrayList<>();
-        for (Concept concept : nameConceptMap.values()) {
+        for (Concept concept : getAllConcepts()) {
             Matcher matcher = pattern.matcher(concept.getName());
             if (matcher.matches()) {
                 matchingConcepts.add(concept);
@@ -123,6 +223,19 @@ public class DiscoverableTaxonomySet {
         return matchingConcepts;
     }
 
+    /* Values in overlay, followed by the values in base that are not shadowed by the overlay */
+    private static <K,V> Collection<V> merge(Map<K,V> overlay, Map<K,V> base) {
+        List<V> values = new ArrayList<>(overlay.size() + base.size());
+        values.addAll(overlay.values());
+        for (Map.Entry<K,V> entry : base.entrySet()) {
+            if (!overlay.containsKey(entry.getKey())) {
+                values.add(entry.getValue());
+            }
+        }
+
+        return values;
+    }
+
     private void putConcept(Concept concept) {
         QName qName = new QName(concept.getName(), concept.getNamespace());
         nameConceptMap.put(qName, concept);
@@ -130,7 +243,10 @@ public class DiscoverableTaxonomySet {
     }
 
     public Collection<Concept> getAllConcepts() {
-        return nameConceptMap.values();
+        if (base == null)
+            return nameConceptMap.values();
+
+        return merge(nameConceptMap, base.nameConceptMap);
     }
 
     public Collection<Concept> asConcepts(List<String> names) {
@@ -143,11 +259,13 @@ public class DiscoverableTaxonomySet {
             String prefix = name.substring(0, i);
             String conceptName = name.substring(i + 1);
             Namespace namespace = namespaces.get(prefix);
+            if (Objects.isNull(namespace) && Objects.nonNull(base))
+                namespace = base.namespaces.get(prefix);
             if (Objects.isNull(namespace))
                 continue;
 
             QName qName = new QName(conceptName, namespace);
-            Concept concept = nameConceptMap.get(qName);
+            Concept concept = getConcept(qName);
             if (Objects.nonNull(concept))
                 concepts.add(concept);
         }
@@ -160,7 +278,12 @@ public class DiscoverableTaxonomySet {
     }
 
     public LabelLink getLabelLink(String href) {
-        return labelLinkMap.get(href);
+        LabelLink labelLink = labelLinkMap.get(href);
+        if (labelLink == null && base != null) {
+            labelLink = base.getLabelLink(href);
+        }
+
+        return labelLink;
     }
 
     public static class Statistics {
@@ -171,16 +294,18 @@ public class DiscoverableTaxonomySet {
         public final Map<String,Integer> uriConceptCount;
 
         private Statistics(DiscoverableTaxonomySet taxonomy) {
-            this.nOfRoleTypes = taxonomy.roleTypes.size();
-            this.nOfArcroleTypes = taxonomy.arcroleTypes.size();
-            this.nOfConcepts = taxonomy.keyConceptMap.size();
+            this.nOfRoleTypes = taxonomy.getAllRoleTypes().size();
+            this.nOfArcroleTypes = taxonomy.getAllArcRoleTypes().size();
 
             Collection<RoleType> reportableRoleTypes = taxonomy.getReportableRoleTypes();
             this.nOfReportableRoleTypes = reportableRoleTypes.size();
 
+            Collection<Concept> concepts = taxonomy.getAllConcepts();
+            this.nOfConcepts = concepts.size();
+
             Counter<String> namespaceCount = new Counter<>();
-            for (Map.Entry<QName,Concept> entry : taxonomy.nameConceptMap.entrySet()) {
-                namespaceCount.add(entry.getKey().getNamespaceURI());
+            for (Concept concept : concepts) {
+                namespaceCount.add(concept.getNamespace().getURI());
             }
             this.uriConceptCount = new ImmutableMap.Builder<String,Integer>().putAll(namespaceCount.map()).build();
         }
@@ -205,15 +330,58 @@ public class DiscoverableTaxonomySet {
         }
     }
 
-    static DiscoverableTaxonomySet fromElement(XbrlReader.Resolver resolver, Element element) {
+    static DiscoverableTaxonomySet fromElement(XbrlReader.Resolver resolver, Element element, BaseTaxonomyCache baseTaxonomies) {
         DiscoverableTaxonomySet dts = new DiscoverableTaxonomySet();
-        dts.read(resolver, element);
+        dts.read(resolver, element, baseTaxonomies);
         return dts;
     }
 
     static DiscoverableTaxonomySet fromPath(XbrlReader.Resolver resolver, String path) {
         DiscoverableTaxonomySet dts = new DiscoverableTaxonomySet();
-        dts.read(resolver, path);
+        dts.read(resolver, path, null);
+        return dts;
+    }
+
+    /**
+     * Build a base taxonomy from the standard schemas in roots. The base will be shared across filings and therefore
+     * must not be modified once built.
+     */
+    static DiscoverableTaxonomySet baseOf(XbrlReader.Resolver resolver, List<String> roots) {
+        DiscoverableTaxonomySet dts = new DiscoverableTaxonomySet();
+        List<SchemaLocation> todo = new ArrayList<>();
+        for (String root : roots) {
+            todo.add(new SchemaLocation(root));
+        }
+        dts.ingest(resolver, "", dts.collect(resolver, todo, null, null));
+        return dts;
+    }
+
+    /**
+     * Write the compiled state of this taxonomy to out. The namespaces, role types, arcrole types, concepts and
+     * label links are written using a single stream so that shared references (e.g. the concepts, labels and arcs
+     * hanging off role types) are preserved. See {@link DtsSnapshot}.
+     *
+     * @param out The stream to write to
+     * @throws IOException If there is an error writing the stream
+     */
+    void writeCompiled(ObjectOutputStream out) throws IOException {
+        out.writeObject(new HashMap<>(namespaces));
+        out.writeObject(roleTypes);
+        out.writeObject(arcroleTypes);
+        out.writeObject(nameConceptMap);
+        out.writeObject(keyConceptMap);
+        out.writeObject(labelLinkMap);
+    }
+
+    @SuppressWarnings("unchecked")
+    static DiscoverableTaxonomySet readCompiled(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        DiscoverableTaxonomySet dts = new DiscoverableTaxonomySet();
+        dts.namespaces.putAll((Map<String,Namespace>)in.readObject());
+        dts.roleTypes.putAll((UriRoleTypeMap)in.readObject());
+        dts.arcroleTypes.putAll((UriArcroleTypeMap)in.readObject());
+        dts.nameConceptMap.putAll((NameConceptMap)in.readObject());
+        dts.keyConceptMap.putAll((KeyConceptMap)in.readObject());
+        dts.labelLinkMap.putAll((LabelLinkMap)in.readObject());
         return dts;
     }
 
@@ -247,10 +415,26 @@ public class DiscoverableTaxonomySet {
      * @return A collection of urls in the order in which the urls need to be traversed
      */
     private Collection<SchemaLocation> collect(XbrlReader.Resolver resolver, String fromPath) {
-        Deque<SchemaLocation> todo = new ArrayDeque<>();
+        return collect(resolver, List.of(new SchemaLocation(resolver.getAbsolutePath(fromPath))), null, null);
+    }
+
+    /**
+     * Collect all the urls reachable from roots in the order in which they need to be traversed. Urls that match
+     * isBase are not traversed, instead they are added to frontier. This allows the standard taxonomies to be
+     * read once into a shared base (see {@link BaseTaxonomyCache}).
+     *
+     * @param resolver A mechanism to resolve relative urls to the right absolute urls
+     * @param roots The paths of the documents that need to be walked
+     * @param isBase An optional predicate identifying urls that belong to the base
+     * @param frontier Receives the base urls that were encountered, if isBase is not null
+     * @return A collection of urls in the order in which the urls need to be traversed
+     */
+    private Collection<SchemaLocation> collect(XbrlReader.Resolver resolver, Collection<SchemaLocation> roots,
+                                               Predicate<String> isBase, Collection<String> frontier) {
+        DiscoveryQueue todo = new DiscoveryQueue(resolver, isBase);
+        todo.addAll(roots);
         Collection<SchemaLocation> collection = new ArrayList<>();
 
-        todo.push(new SchemaLocation(resolver.getAbsolutePath(fromPath)));
         final Set<String> visited = new HashSet<>();
 
         while (!todo.isEmpty()) {
@@ -260,10 +444,15 @@ public class DiscoverableTaxonomySet {
 
             // Order of URLs is important in visited. Hence, visited is a Collection
             visited.add(url.getFile());
+            if (isBase != null && isBase.test(url.absolutePath)) {
+                frontier.add(url.absolutePath);
+                continue;
+            }
             collection.add(url);
 
             try {
-                Element linkedElement = resolver.getRootElement(url.absolutePath);
+                Utils.checkInterrupted();
+                Element linkedElement = todo.getRootElement(url);
                 for (Element child : linkedElement.elements()) {
                     String childName = child.getName();
                     if (childName.equals(TagNames.IMPORT_TAG)) {
@@ -323,6 +512,7 @@ public class DiscoverableTaxonomySet {
                     }
                 }
             } catch (Exception e) {
+                todo.cancel();
                 throw new RuntimeException(e);
             }
         }
@@ -330,6 +520,83 @@ public class DiscoverableTaxonomySet {
         return collection;
     }
 
+    /**
+     * The queue of documents still to be visited by collect(). When the resolver provides an executor, a document is
+     * fetched and parsed on the executor as soon as it is queued, so that documents discovered together are read
+     * concurrently while collect() still visits them in queue order. Only the first location queued for a file is
+     * fetched since later ones are never visited, and neither are locations that belong to the base.
+     * <p>
+     * A document whose fetch has not started when collect() reaches it is fetched by collect() itself. This keeps a
+     * small or busy executor (e.g. the one the instance itself is being read on) from deadlocking the walk.
+     */
+    private static class DiscoveryQueue {
+        private final XbrlReader.Resolver resolver;
+        private final Executor executor;
+        private final Predicate<String> isBase;
+        private final Deque<SchemaLocation> todo = new ArrayDeque<>();
+        private final Set<String> requested = new HashSet<>();
+        private final Map<String,FutureTask<Element>> fetches = new HashMap<>();
+
+        private DiscoveryQueue(XbrlReader.Resolver resolver, Predicate<String> isBase) {
+            this.resolver = resolver;
+            this.executor = resolver.getExecutor();
+            this.isBase = isBase;
+        }
+
+        private boolean isEmpty() {
+            return todo.isEmpty();
+        }
+
+        private SchemaLocation pop() {
+            return todo.pop();
+        }
+
+        private void addAll(Collection<SchemaLocation> urls) {
+            for (SchemaLocation url : urls) {
+                add(url);
+            }
+        }
+
+        private void add(SchemaLocation url) {
+            todo.add(url);
+            if (executor == null || !requested.add(url.getFile()))
+                return;
+            if (isBase != null && isBase.test(url.absolutePath))
+                return;
+
+            FutureTask<Element> fetch = new FutureTask<>(() -> resolver.getRootElement(url.absolutePath));
+            fetches.put(url.absolutePath, fetch);
+            try {
+                executor.execute(fetch);
+            } catch (RejectedExecutionException e) {
+                /* Fetched by getRootElement() instead */
+            }
+        }
+
+        private Element getRootElement(SchemaLocation url) throws Exception {
+            FutureTask<Element> fetch = fetches.remove(url.absolutePath);
+            if (fetch == null)
+                return resolver.getRootElement(url.absolutePath);
+
+            /* Runs the fetch here unless the executor has already started it */
+            fetch.run();
+            try {
+                return fetch.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception cause)
+                    throw cause;
+                throw e;
+            }
+        }
+
+        private void cancel() {
+            for (FutureTask<Element> fetch : fetches.values()) {
+                fetch.cancel(false);
+            }
+            fetches.clear();
+        }
+    }
+
     /**
      * Returns true if url matches the rootHref defined in the primary xsd. Used to identify all roleTypes
      * that should be reported.
@@ -489,11 +756,11 @@ public class DiscoverableTaxonomySet {
      * @param resolver A mechanism to resolve relative urls to the right absolute urls
      * @param element The root element of the document that needs to be walked
      */
-    private void read(XbrlReader.Resolver resolver, Element element) {
+    private void read(XbrlReader.Resolver resolver, Element element, BaseTaxonomyCache baseTaxonomies) {
         String elementName = element.getName();
         assert elementName.equals(TagNames.SCHEMA_REF_TAG);
         String rootSchema = element.attributeValue(TagNames.HREF_TAG);
-        read(resolver, rootSchema);
+        read(resolver, rootSchema, baseTaxonomies);
     }
 
     /**
@@ -501,21 +768,42 @@ public class DiscoverableTaxonomySet {
      *
      * @param resolver A mechanism to resolve relative urls to the right absolute urls
      * @param rootSchema path to the root document from where the walk begins
+     * @param baseTaxonomies An optional cache of shared base taxonomies
      */
-    private void read(XbrlReader.Resolver resolver, String rootSchema) {
+    private void read(XbrlReader.Resolver resolver, String rootSchema, BaseTaxonomyCache baseTaxonomies) {
+        if (baseTaxonomies == null) {
+            ingest(resolver, rootSchema, collect(resolver, rootSchema));
+            return;
+        }
+
+        List<String> frontier = new ArrayList<>();
+        Collection<SchemaLocation> todo = collect(resolver, List.of(new SchemaLocation(resolver.getAbsolutePath(rootSchema))),
+                baseTaxonomies::isStandard, frontier);
+        if (!frontier.isEmpty()) {
+            this.base = baseTaxonomies.get(frontier, roots -> baseOf(resolver, roots));
+        }
+        ingest(resolver, rootSchema, todo);
+    }
+
+    private void ingest(XbrlReader.Resolver resolver, String rootSchema, Collection<SchemaLocation> todo) {
         final List<LabelLink> labelLinks = new ArrayList<>();
         final List<ReferenceLink> referenceLinks = new ArrayList<>();
-        final Collection<SchemaLocation> todo = collect(resolver, rootSchema);
 
+        /* Fetch every document up front, they are ingested in order as they become available */
+        DiscoveryQueue fetches = new DiscoveryQueue(resolver, null);
+        fetches.addAll(todo);
         for (SchemaLocation url : todo) {
             log.debug("Working on [{}]", url.absolutePath);
+            documents.add(url.absolutePath);
 
             try {
-                Element linkedElement = resolver.getRootElement(url.absolutePath);
+                Utils.checkInterrupted();
+                Element linkedElement = fetches.getRootElement(url);
                 LinkedTaxonomyProcessor linkedTaxonomyProcessor =
                         new LinkedTaxonomyProcessor(rootSchema, labelLinks, referenceLinks, url, linkedElement);
                 linkedTaxonomyProcessor.ingest();
             } catch (Exception e) {
+                fetches.cancel();
                 throw new RuntimeException(e);
             }
         }
@@ -529,9 +817,9 @@ public class DiscoverableTaxonomySet {
         for (LabelLink link : labelLinks) {
             for (LabelArc arc : link.getAllArcs()) {
                 Location location = arc.getFrom();
-                Concept concept = keyConceptMap.get(location.getHref());
                 RoleLabelMap label = arc.getTo();
                 if (label != null) {
+                    Concept concept = getConceptForUpdate(location.getHref());
                     if (concept != null) {
                         concept.addLabels(label);
                     } else {
@@ -548,9 +836,9 @@ public class DiscoverableTaxonomySet {
         for (ReferenceLink link : referenceLinks) {
             for (ReferenceArc arc : link.getAllArcs()) {
                 Location location = arc.getFrom();
-                Concept concept = keyConceptMap.get(location.getHref());
                 Reference reference = arc.getTo();
                 if (reference != null) {
+                    Concept concept = getConceptForUpdate(location.getHref());
                     if (concept != null) {
                         concept.addReference(reference);
                     }
@@ -629,12 +917,10 @@ public class DiscoverableTaxonomySet {
         arcroleTypes.put(ArcroleType.DEPRECATED_AGGREGATE_CONCEPT.getArcroleURI(), ArcroleType.DEPRECATED_AGGREGATE_CONCEPT);
         arcroleTypes.put(ArcroleType.EXPLANATORY_FACT.getArcroleURI(), ArcroleType.EXPLANATORY_FACT);
 
-        RoleType.clear();
-        roleTypes.put(RoleType.DEPRECATED.getRoleURI(), RoleType.DEPRECATED);
-        roleTypes.put(RoleType.DISCLOSURE.getRoleURI(), RoleType.DISCLOSURE);
-        roleTypes.put(RoleType.COMMON_PRACTICE_REF.getRoleURI(), RoleType.COMMON_PRACTICE_REF);
-        roleTypes.put(RoleType.NON_AUTHORITATIVE_LITERATURE_REF.getRoleURI(), RoleType.NON_AUTHORITATIVE_LITERATURE_REF);
-        roleTypes.put(RoleType.RECOGNITION_REF.getRoleURI(), RoleType.RECOGNITION_REF);
+        /* The predefined roleTypes are shared across taxonomies. Links are attached to this taxonomy's own copies */
+        for (RoleType roleType : RoleType.predefined()) {
+            roleTypes.put(roleType.getRoleURI(), RoleType.copyOf(roleType));
+        }
     }
 
     public static final String US_GAAP_2012 = "us-gaap-2012-01-31.zip";
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl;
+
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled, versioned binary snapshot of a {@link DiscoverableTaxonomySet}. Compiling a standard entry point
+ * (e.g. us-gaap-entryPoint-all-2022.xsd) walks every schema and linkbase once. Later runs load the snapshot instead
+ * of fetching and parsing the XML again.
+ * <p>
+ * Layout of a snapshot file:
+ * <pre>
+ *     int     MAGIC
+ *     int     FORMAT_VERSION
+ *     short   length of the entry point key, followed by the UTF-8 bytes of the key
+ *     int     number of documents the taxonomy was read from, each followed by
+ *             UTF     the absolute path of the document
+ *             long    the size of the document, or -1 if it is not a local file
+ *             long    the last modified time of the document in ms, or -1 if it is not a local file
+ *     ...     the serialized concepts, role types, arcrole types, labels and linkbase arcs
+ * </pre>
+ * FORMAT_VERSION covers the layout of the header. The layout of the model classes is checked against the class
+ * descriptors stored in the snapshot: a snapshot holding a model class whose serialized fields differ from the fields
+ * of the class loaded is ignored, as are snapshots with a different version or for a different entry point key, and
+ * rebuilt. So are snapshots for which a local document has changed, i.e. is missing or has a different size or last
+ * modified time, since the snapshot was written.
+ */
+public final class DtsSnapshot {
+    private static final Logger log = LoggerFactory.getLogger(DtsSnapshot.class);
+
+    public static final int MAGIC = 0x58445453;    /* XDTS */
+    public static final int FORMAT_VERSION = 2;
+    public static final String SUFFIX = ".dts";
+
+    /* Only the taxonomy model, dom4j names and the JDK collections are expected inside a snapshot */
+    private static final ObjectInputFilter PATTERN = ObjectInputFilter.Config.createFilter(
+            "io.datanapis.xbrl.model.**;org.dom4j.**;java.util.*;java.time.*;java.lang.*;!*");
+    private static final ObjectInputFilter FILTER = info -> {
+        ObjectInputFilter.Status status = PATTERN.checkInput(info);
+        if (status == ObjectInputFilter.Status.REJECTED) {
+            log.info("Rejecting class [{}] in taxonomy snapshot", info.serialClass());
+        }
+        return status;
+    };
+
+    private DtsSnapshot() {
+    }
+
+    /**
+     * Returns the key of the taxonomy read from the entry point at rootPath. Entry points with the same file name in
+     * different folders, or read with and without caching, have different keys.
+     *
+     * @param rootPath The absolute path of the entry point schema
+     * @param withCaching Whether the taxonomy is read with a content cache
+     * @return The key of the entry point
+     */
+    public static String keyOf(Path rootPath, boolean withCaching) {
+        return (withCaching ? "cached:" : "") + rootPath.toAbsolutePath();
+    }
+
+    /**
+     * Returns the path of the snapshot for entryPoint inside snapshotFolder. The file name is the name of the entry
+     * point followed by a hash of the whole of entryPoint.
+     *
+     * @param snapshotFolder The folder holding the snapshots
+     * @param entryPoint The key, path or url of the entry point schema
+     * @return The path of the snapshot file
+     */
+    public static Path pathOf(Path snapshotFolder, String entryPoint) {
+        int index = entryPoint.lastIndexOf('/');
+        String name = (index >= 0) ? entryPoint.substring(index + 1) : entryPoint;
+        index = name.lastIndexOf(File.separatorChar);
+        if (index >= 0) {
+            name = name.substring(index + 1);
+        }
+        String hash = Hashing.sha256().hashString(entryPoint, StandardCharsets.UTF_8).toString().substring(0, 16);
+
+        return snapshotFolder.resolve(name + "-" + hash + SUFFIX);
+    }
+
+    /**
+     * Compile dts into a snapshot at path. The snapshot is written to a temporary file first and then moved into
+     * place so that concurrent readers never observe a partially written snapshot.
+     *
+     * @param dts The taxonomy to compile
+     * @param entryPoint The key of the entry point dts was built from
+     * @param path The snapshot file to write
+     * @throws IOException If there is an error writing the snapshot
+     */
+    public static void write(DiscoverableTaxonomySet dts, String entryPoint, Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16);
+                 DataOutputStream dataOutputStream = new DataOutputStream(outputStream)) {
+                byte[] name = entryPoint.getBytes(StandardCharsets.UTF_8);
+                dataOutputStream.writeInt(MAGIC);
+                dataOutputStream.writeInt(FORMAT_VERSION);
+                dataOutputStream.writeShort(name.length);
+                dataOutputStream.write(name);
+                List<String> documents = dts.getDocuments();
+                dataOutputStream.writeInt(documents.size());
+                for (String document : documents) {
+                    Path file = localFile(document);
+                    dataOutputStream.writeUTF(document);
+                    dataOutputStream.writeLong(file != null ? Files.size(file) : -1);
+                    dataOutputStream.writeLong(file != null ? Files.getLastModifiedTime(file).toMillis() : -1);
+                }
+                dataOutputStream.flush();
+
+                ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+                dts.writeCompiled(objectOutputStream);
+                objectOutputStream.flush();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote taxonomy snapshot [{}] for [{}]", path, entryPoint);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Load the taxonomy from the snapshot at path.
+     *
+     * @param path The snapshot file
+     * @param entryPoint The key of the entry point the snapshot is expected to be built from
+     * @return The taxonomy or null if the snapshot does not exist, is of a different version, was built from a
+     * different entry point, a local document it was built from has changed or it cannot be read
+     */
+    public static DiscoverableTaxonomySet read(Path path, String entryPoint) {
+        if (!Files.isRegularFile(path))
+            return null;
+
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+             DataInputStream dataInputStream = new DataInputStream(inputStream)) {
+            if (Files.size(path) < 10 || dataInputStream.readInt() != MAGIC) {
+                log.info("[{}] is not a taxonomy snapshot", path);
+                return null;
+            }
+
+            int version = dataInputStream.readInt();
+            if (version != FORMAT_VERSION) {
+                log.info("Ignoring taxonomy snapshot [{}]. Version [{}] != [{}]", path, version, FORMAT_VERSION);
+                return null;
+            }
+
+            byte[] name = new byte[dataInputStream.readUnsignedShort()];
+            dataInputStream.readFully(name);
+            String stored = new String(name, StandardCharsets.UTF_8);
+            if (!stored.equals(entryPoint)) {
+                log.info("Ignoring taxonomy snapshot [{}]. Built for [{}] not [{}]", path, stored, entryPoint);
+                return null;
+            }
+
+            int count = dataInputStream.readInt();
+            List<String> documents = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String document = dataInputStream.readUTF();
+                long size = dataInputStream.readLong();
+                long lastModified = dataInputStream.readLong();
+                if (size >= 0 && !isUnchanged(document, size, lastModified)) {
+                    log.info("Ignoring taxonomy snapshot [{}]. [{}] has changed", path, document);
+                    return null;
+                }
+                documents.add(document);
+            }
+
+            long start = System.currentTimeMillis();
+            ObjectInputStream objectInputStream = new CheckedObjectInputStream(inputStream);
+            objectInputStream.setObjectInputFilter(FILTER);
+            DiscoverableTaxonomySet dts = DiscoverableTaxonomySet.readCompiled(objectInputStream);
+            dts.setDocuments(documents);
+            log.info("Loaded taxonomy snapshot [{}] for [{}] in [{}] ms", path, entryPoint, System.currentTimeMillis() - start);
+            return dts;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            log.info("Unable to read taxonomy snapshot [{}]: [{}]", path, e.toString());
+            return null;
+        }
+    }
+
+    /* The local file at absolutePath, or null if absolutePath is a url or the file does not exist */
+    private static Path localFile(String absolutePath) {
+        if (absolutePath.startsWith("http://") || absolutePath.startsWith("https://"))
+            return null;
+
+        try {
+            Path file = Path.of(absolutePath);
+            return Files.isRegularFile(file) ? file : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private static boolean isUnchanged(String document, long size, long lastModified) throws IOException {
+        Path file = localFile(document);
+        return file != null && Files.size(file) == size && Files.getLastModifiedTime(file).toMillis() == lastModified;
+    }
+
+    /* Rejects a snapshot as soon as it holds a model class whose serialized fields differ from the class loaded */
+    private static final class CheckedObjectInputStream extends ObjectInputStream {
+        private CheckedObjectInputStream(InputStream inputStream) throws IOException {
+            super(inputStream);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            ObjectStreamClass stored = super.readClassDescriptor();
+            if (stored.getName().startsWith("io.datanapis.")) {
+                Class<?> clazz = Class.forName(stored.getName(), false, DtsSnapshot.class.getClassLoader());
+                ObjectStreamClass current = ObjectStreamClass.lookup(clazz);
+                if (current == null || !fieldsOf(stored).equals(fieldsOf(current)))
+                    throw new InvalidClassException(stored.getName(), "fields differ from the class in the snapshot");
+            }
+            return stored;
+        }
+
+        /* The serialized fields of a class, in the order in which they are written */
+        private static String fieldsOf(ObjectStreamClass descriptor) {
+            StringBuilder builder = new StringBuilder();
+            for (ObjectStreamField field : descriptor.getFields()) {
+                builder.append(field.getName()).append(' ').append(field.getTypeCode());
+                if (field.getTypeString() != null) {
+                    builder.append(field.getTypeString());
+                }
+                builder.append(';');
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl;
+
+import io.datanapis.xbrl.model.Concept;
+import org.dom4j.QName;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Selects the facts of an instance that are read. Facts that are not selected are skipped before their value is
+ * extracted, so large text blocks that are not needed are never converted or sanitized. Contexts, units and
+ * footnotes are read as usual and DEI facts are always read, since they describe the instance itself.
+ */
+@FunctionalInterface
+public interface FactFilter {
+    /**
+     * @param concept The concept of the fact
+     * @param numeric true if the fact is numeric, i.e. it refers to a unit
+     * @return true to read the fact
+     */
+    boolean accept(Concept concept, boolean numeric);
+
+    default FactFilter and(FactFilter other) {
+        Objects.requireNonNull(other);
+        return (concept, numeric) -> accept(concept, numeric) && other.accept(concept, numeric);
+    }
+
+    default FactFilter or(FactFilter other) {
+        Objects.requireNonNull(other);
+        return (concept, numeric) -> accept(concept, numeric) || other.accept(concept, numeric);
+    }
+
+    /**
+     * Select the facts of the given concepts, e.g. {http://fasb.org/us-gaap/2023}Revenues
+     */
+    static FactFilter concepts(Collection<QName> names) {
+        Map<String,Set<String>> namesByNamespace = new HashMap<>();
+        for (QName name : names) {
+            namesByNamespace.computeIfAbsent(name.getNamespaceURI(), k -> new HashSet<>()).add(name.getName());
+        }
+        return (concept, numeric) -> {
+            Set<String> namesInNamespace = namesByNamespace.get(concept.getNamespace().getURI());
+            return namesInNamespace != null && namesInNamespace.contains(concept.getName());
+        };
+    }
+
+    /**
+     * Select the facts of concepts whose namespace starts with one of namespaces, e.g. "http://fasb.org/us-gaap/"
+     * for us-gaap facts of any year
+     */
+    static FactFilter namespaces(String... namespaces) {
+        List<String> prefixes = List.of(namespaces);
+        return (concept, numeric) -> {
+            String uri = concept.getNamespace().getURI();
+            for (String prefix : prefixes) {
+                if (uri.startsWith(prefix))
+                    return true;
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Select the facts of concepts with one of the given item types, e.g. "monetaryItemType"
+     */
+    static FactFilter itemTypes(String... typeNames) {
+        Set<String> types = Set.of(typeNames);
+        return (concept, numeric) -> types.contains(concept.getTypeName());
+    }
+
+    /**
+     * Select numeric facts only
+     */
+    static FactFilter numeric() {
+        return (concept, numeric) -> numeric;
+    }
+
+    /**
+     * Select the facts of concepts matching predicate
+     */
+    static FactFilter of(Predicate<Concept> predicate) {
+        Objects.requireNonNull(predicate);
+        return (concept, numeric) -> predicate.test(concept);
+    }
+}
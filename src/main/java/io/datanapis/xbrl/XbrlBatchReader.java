@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Reads many XBRL instances concurrently through a single {@link XbrlReader}. At most parallelism instances are read
+ * at the same time, on either an executor owned by the batch reader or one supplied by the caller (e.g.
+ * Executors.newVirtualThreadPerTaskExecutor() on JDK 21+). Filings beyond the parallelism limit wait in a queue
+ * without holding a thread.
+ * <p>
+ * Every filing is returned as a CompletableFuture. Cancelling the future, or exceeding the optional per-filing
+ * timeout (measured from the time the filing starts being read), interrupts the thread reading it. The read checks
+ * for the interrupt before each taxonomy document it discovers or ingests and before each fact, and stops with an
+ * XbrlException. Work between two checks, e.g. fetching a single document, runs to completion. The caches
+ * configured on the reader (base taxonomies, taxonomy zips, parsed documents) are thread-safe and are shared by all
+ * the reads.
+ */
+public class XbrlBatchReader implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(XbrlBatchReader.class);
+
+    private final XbrlReader reader;
+    private final int parallelism;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private Duration timeout = null;
+
+    /* Guarded by this */
+    private final Deque<Task> pending = new ArrayDeque<>();
+    private int running = 0;
+
+    /**
+     * A filing to read: the url or path of the instance (or of a zip containing it) and an optional filing date
+     */
+    public static class Filing {
+        public final LocalDate dateFiled;
+        public final String path;
+
+        public Filing(LocalDate dateFiled, String path) {
+            this.dateFiled = dateFiled;
+            this.path = path;
+        }
+
+        public static Filing of(String path) {
+            return new Filing(null, path);
+        }
+
+        @Override
+        public String toString() {
+            return path;
+        }
+    }
+
+    /**
+     * The outcome of reading a filing, either an instance or the reason the read failed
+     */
+    public static class Result {
+        public final Filing filing;
+        public final XbrlInstance instance;
+        public final Throwable failure;
+
+        private Result(Filing filing, XbrlInstance instance, Throwable failure) {
+            this.filing = filing;
+            this.instance = instance;
+            this.failure = failure;
+        }
+
+        public boolean isSuccess() {
+            return failure == null;
+        }
+    }
+
+    /**
+     * Read instances on a fixed pool of parallelism threads owned by this batch reader. Close the batch reader to
+     * release the threads.
+     *
+     * @param reader The reader, and its caches, shared by every read
+     * @param parallelism The maximum number of instances read at the same time
+     */
+    public XbrlBatchReader(XbrlReader reader, int parallelism) {
+        this(reader, parallelism, Executors.newFixedThreadPool(parallelism), true);
+    }
+
+    /**
+     * Read instances on executor. The executor is not shut down by this batch reader.
+     *
+     * @param reader The reader, and its caches, shared by every read
+     * @param parallelism The maximum number of instances read at the same time
+     * @param executor The executor to read instances on
+     */
+    public XbrlBatchReader(XbrlReader reader, int parallelism, Executor executor) {
+        this(reader, parallelism, executor, false);
+    }
+
+    private XbrlBatchReader(XbrlReader reader, int parallelism, Executor executor, boolean owned) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be positive [" + parallelism + "]");
+
+        this.reader = reader;
+        this.parallelism = parallelism;
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService)executor : null;
+    }
+
+    /**
+     * Fail a filing that takes longer than timeout to read
+     *
+     * @param timeout The per-filing timeout, or null for no timeout
+     * @return this batch reader
+     */
+    public XbrlBatchReader withTimeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public CompletableFuture<XbrlInstance> submit(String path) {
+        return submit(Filing.of(path));
+    }
+
+    public CompletableFuture<XbrlInstance> submit(LocalDate dateFiled, String path) {
+        return submit(new Filing(dateFiled, path));
+    }
+
+    /**
+     * Queue filing to be read
+     *
+     * @param filing The filing to read
+     * @return A future that completes with the instance, or exceptionally if the read fails, times out or is cancelled
+     */
+    public CompletableFuture<XbrlInstance> submit(Filing filing) {
+        Task task = new Task(filing);
+        dispatch(task);
+        return task.future;
+    }
+
+    /**
+     * Queue filings to be read
+     *
+     * @param filings The filings to read
+     * @return One future per filing, in the order of filings
+     */
+    public List<CompletableFuture<XbrlInstance>> submitAll(Collection<Filing> filings) {
+        List<CompletableFuture<XbrlInstance>> futures = new ArrayList<>(filings.size());
+        for (Filing filing : filings) {
+            futures.add(submit(filing));
+        }
+        return futures;
+    }
+
+    /**
+     * Queue filings to be read and return their results in the order in which they complete. A failed filing is
+     * returned as a Result with a failure rather than ending the stream. Closing the stream before it is consumed
+     * cancels the filings that have not completed.
+     *
+     * @param filings The filings to read
+     * @return A stream of exactly one Result per filing, in completion order
+     */
+    public Stream<Result> stream(Collection<Filing> filings) {
+        BlockingQueue<Result> completed = new LinkedBlockingQueue<>();
+        List<CompletableFuture<XbrlInstance>> futures = new ArrayList<>(filings.size());
+        for (Filing filing : filings) {
+            CompletableFuture<XbrlInstance> future = submit(filing);
+            future.whenComplete((instance, failure) -> completed.add(new Result(filing, instance, unwrap(failure))));
+            futures.add(future);
+        }
+
+        return Stream.generate(() -> {
+                    try {
+                        return completed.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Interrupted while waiting for filings");
+                    }
+                })
+                .limit(futures.size())
+                .onClose(() -> futures.forEach(future -> future.cancel(true)));
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null)
+            return failure.getCause();
+        return failure;
+    }
+
+    private void dispatch(Task task) {
+        synchronized (this) {
+            if (running >= parallelism) {
+                pending.add(task);
+                return;
+            }
+            running++;
+        }
+        execute(task);
+    }
+
+    private void execute(Task task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.future.completeExceptionally(e);
+            finished();
+        }
+    }
+
+    /* Called once a task is done with its slot, hands the slot to the next pending task if any */
+    private void finished() {
+        Task next;
+        synchronized (this) {
+            next = pending.poll();
+            if (next == null) {
+                running--;
+                return;
+            }
+        }
+        execute(next);
+    }
+
+    /**
+     * Returns the number of filings waiting for a slot
+     */
+    public synchronized int nOfPending() {
+        return pending.size();
+    }
+
+    /**
+     * Returns the number of filings being read
+     */
+    public synchronized int nOfRunning() {
+        return running;
+    }
+
+    /**
+     * Cancels the filings that have not started and, if the executor is owned by this batch reader, stops it.
+     */
+    @Override
+    public void close() {
+        List<Task> tasks;
+        synchronized (this) {
+            tasks = new ArrayList<>(pending);
+            pending.clear();
+        }
+        for (Task task : tasks) {
+            task.future.cancel(false);
+        }
+
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    private class Task implements Runnable {
+        private final Filing filing;
+        private final CompletableFuture<XbrlInstance> future = new CompletableFuture<>();
+
+        /* Guarded by this. The thread reading the filing, interrupted if the future completes first */
+        private Thread runner = null;
+
+        private Task(Filing filing) {
+            this.filing = filing;
+            future.whenComplete((instance, failure) -> {
+                if (failure != null) {
+                    interrupt();
+                }
+            });
+        }
+
+        private synchronized void interrupt() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                finished();
+                return;
+            }
+
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            if (timeout != null) {
+                future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+
+            XbrlInstance instance = null;
+            Throwable failure = null;
+            try {
+                instance = reader.getInstance(filing.dateFiled, filing.path);
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                }
+                /* Do not leak an interrupt meant for this filing into the next task on this thread */
+                Thread.interrupted();
+            }
+
+            /* Release the slot before completing so that callers waiting on the future see it released */
+            finished();
+            if (failure == null) {
+                future.complete(instance);
+            } else {
+                if (!future.isDone()) {
+                    log.info("Failed to read [{}]: [{}]", filing.path, failure.toString());
+                }
+                future.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableMap;
 import io.datanapis.xbrl.model.*;
 import io.datanapis.xbrl.model.arc.FootnoteArc;
 import io.datanapis.xbrl.model.link.FootnoteLink;
+import io.datanapis.xbrl.reader.XmlParser;
 import io.datanapis.xbrl.utils.Utils;
 import io.datanapis.xbrl.utils.XbrlUtils;
 import org.dom4j.Attribute;
@@ -29,15 +30,15 @@ import org.dom4j.QName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class XbrlInstance {
     private static final Logger log = LoggerFactory.getLogger(XbrlInstance.class);
@@ -50,38 +51,73 @@ public class XbrlInstance {
     private DiscoverableTaxonomySet dts;
     private final ContextIdMap contextMap = new ContextIdMap();
     private final UnitIdMap unitMap = new UnitIdMap();
+    /* Contexts with equal entities share one entity */
+    private final EntityPool entities = new EntityPool();
     private final Counter<Namespace> factNamespaces = new Counter<>();
     private final Dei dei;
     private final FactIdMap facts = new FactIdMap();
+    /* Fact associations are owned by the instance so that concepts can be shared across instances */
     private final ConceptFactMap conceptFacts = new ConceptFactMap();
+    private final ContextFactMap contextFacts = new ContextFactMap();
     private Unit defaultCurrency = Unit.USD;
-
-    private XbrlInstance(LocalDate dateFiled, String xbrlUrl) {
+    private final BaseTaxonomyCache baseTaxonomies;
+    /* The facts to read, or null to read all facts */
+    private final FactFilter factFilter;
+    /* Built on first use */
+    private volatile FactTable factTable;
+    /* Built on first use, and dropped when contexts or facts are added */
+    private volatile FactIndex factIndex;
+    /* Built on first use, and dropped when contexts or the DEI change */
+    private volatile PeriodIndex periodIndex;
+
+    private XbrlInstance(LocalDate dateFiled, String xbrlUrl, BaseTaxonomyCache baseTaxonomies, FactFilter factFilter) {
         dei = new Dei(dateFiled);
         this.xbrlUrl = xbrlUrl;
+        this.baseTaxonomies = baseTaxonomies;
+        this.factFilter = factFilter;
     }
 
     public void clear() {
         dts.clear();
 
-        contextMap.forEach((k, v) -> v.clear());
         contextMap.clear();
+        entities.clear();
 
         unitMap.clear();
         factNamespaces.clear();
         dei.clear();
         facts.clear();
         conceptFacts.clear();
+        contextFacts.clear();
+        factTable = null;
+        factIndex = null;
+        periodIndex = null;
     }
 
-    static XbrlInstance fromXbrlElement(LocalDate dateFiled, XbrlReader.Resolver resolver, Element root) {
-        XbrlInstance instance = new XbrlInstance(dateFiled, resolver.getRootPath());
+    static XbrlInstance fromXbrlElement(LocalDate dateFiled, XbrlReader.Resolver resolver, Element root,
+                                        BaseTaxonomyCache baseTaxonomies, FactFilter factFilter) {
+        XbrlInstance instance = new XbrlInstance(dateFiled, resolver.getRootPath(), baseTaxonomies, factFilter);
         instance.parseXbrl(resolver, root);
         return instance;
     }
 
-    static XbrlInstance fromiXBRLElement(LocalDate dateFiled, XbrlReader.Resolver resolver, List<Element> roots) {
-        XbrlInstance instance = new XbrlInstance(dateFiled, resolver.getRootPath());
+    static XbrlInstance fromXbrlStream(LocalDate dateFiled, XbrlReader.Resolver resolver, XMLStreamReader streamReader,
+                                       BaseTaxonomyCache baseTaxonomies, FactFilter factFilter) throws XMLStreamException {
+        XbrlInstance instance = new XbrlInstance(dateFiled, resolver.getRootPath(), baseTaxonomies, factFilter);
+        instance.parseXbrl(resolver, streamReader);
+        return instance;
+    }
+
+    static XbrlInstance fromIxElements(LocalDate dateFiled, XbrlReader.Resolver resolver, Collection<Element> ixElements,
+                                       BaseTaxonomyCache baseTaxonomies, FactFilter factFilter) {
+        XbrlInstance instance = new XbrlInstance(dateFiled, resolver.getRootPath(), baseTaxonomies, factFilter);
+        instance.parseInlineXBRL(resolver, ixElements);
+        return instance;
+    }
+
+    static XbrlInstance fromiXBRLElement(LocalDate dateFiled, XbrlReader.Resolver resolver, List<Element> roots,
+                                         BaseTaxonomyCache baseTaxonomies, FactFilter factFilter) {
+        XbrlInstance instance = new XbrlInstance(dateFiled, resolver.getRootPath(), baseTaxonomies, factFilter);
         instance.parseInlineXBRL(resolver, roots);
         return instance;
     }
@@ -138,6 +174,94 @@ public class XbrlInstance {
         return facts.size();
     }
 
+    /**
+     * Returns the columnar view of the facts of this instance. The table is built on first use, or when the instance
+     * is read if the reader builds fact tables (see {@link XbrlReader#buildFactTables(boolean)}). It is kept for the
+     * lifetime of the instance and is not used by the lookups of this class, which read the per-concept and
+     * per-context fact lists through {@link #query()}.
+     *
+     * @return The fact table
+     */
+    public FactTable getFactTable() {
+        FactTable table = factTable;
+        if (table == null) {
+            synchronized (this) {
+                table = factTable;
+                if (table == null) {
+                    List<Fact> factList = new ArrayList<>(facts.size());
+                    for (FactList conceptFactList : conceptFacts.getFactLists()) {
+                        factList.addAll(conceptFactList);
+                    }
+                    table = FactTable.of(factList);
+                    factTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the index of the contexts of this instance by period, axis and member, over its per-concept and
+     * per-context fact lists. The index is built on first use.
+     *
+     * @return The fact index
+     */
+    public FactIndex getFactIndex() {
+        FactIndex index = factIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = factIndex;
+                if (index == null) {
+                    index = FactIndex.of(contextMap.values(), conceptFacts, contextFacts);
+                    factIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns a new query over the facts of this instance, answered from its fact index, e.g.
+     * query().concept(concept).withoutDimensions().durationsEndingOn(date).facts()
+     *
+     * @return A query matching all facts
+     */
+    public FactQuery query() {
+        return new FactQuery(getFactIndex());
+    }
+
+    /**
+     * Returns the facts of this instance that belong to concept
+     *
+     * @param concept The concept
+     * @return The facts for concept, higher precision facts first
+     */
+    public Collection<Fact> getFacts(Concept concept) {
+        Collection<Fact> factCollection = conceptFacts.getFactsFor(concept);
+        return (factCollection != null) ? factCollection : Collections.emptyList();
+    }
+
+    /**
+     * Returns the facts of this instance reported in context
+     *
+     * @param context The context
+     * @return The facts in context
+     */
+    public List<Fact> getFacts(Context context) {
+        return contextFacts.getFactsFor(context);
+    }
+
+    /**
+     * Get fact corresponding to concept in context.
+     *
+     * @param context The context for the fact
+     * @param concept The concept for the fact
+     * @return The fact is one is available, null otherwise
+     */
+    public Fact getFact(Context context, Concept concept) {
+        return contextFacts.getFact(context, concept);
+    }
+
     public Unit getDefaultCurrency() {
         return defaultCurrency;
     }
@@ -184,10 +308,10 @@ public class XbrlInstance {
     }
 
     public Collection<Fact> getMatchingFacts(Pattern pattern, Predicate<Fact> filter) {
+        /* The pattern is matched once per distinct concept rather than once per fact */
         Collection<Fact> matchingFacts = new ArrayList<>();
-        for (Fact fact : facts.values()) {
-            Matcher matcher = pattern.matcher(fact.getConcept().getName());
-            if (matcher.matches() && filter.test(fact)) {
+        for (Fact fact : query().conceptName(pattern).facts()) {
+            if (filter.test(fact)) {
                 matchingFacts.add(fact);
             }
         }
@@ -195,28 +319,6 @@ public class XbrlInstance {
         return matchingFacts;
     }
 
-    /**
-     * Get all facts for a given concept across all periods. Only facts that don't have any dimensions
-     * (i.e. no explicit members) are returned.
-     *
-     * @param matchingFacts the TimeOrdered<> collector into which matching facts are added
-     * @param concept the concept to be matched
-     */
-    private void getMatchingFacts(Concept concept, TimeOrdered<DimensionedFact> matchingFacts) {
-        Collection<Fact> factCollection = conceptFacts.getFactsFor(concept);
-        if (factCollection == null)
-            return;
-
-        for (Fact fact : factCollection) {
-            assert fact.getConcept().equals(concept);
-
-            Context context = fact.getContext();
-            if (!context.hasDimensions()) {
-                matchingFacts.add(context.getPeriod(), new DimensionedFact(fact));
-            }
-        }
-    }
-
     /**
      * Need to do two things - check if each member of dimensions occurs in at least one Axis and
      * reorder dimensions in the order of the matching axis.
@@ -226,12 +328,15 @@ public class XbrlInstance {
      * for each). This isn't a big change but needs some work.
      *
      * @param axes the axes to compare with
+     * @param axisIds the ids of axes, in the order of axes
+     * @param sortedAxisIds the ids of axes, sorted, see {@link ConceptIds#axisIds(Collection)}
      * @param context the context to be matched
      * @return null if there is no match. This means one of the elements in dimension does not appear
      * in any of the axes. If there is a match, a list of ExplicitMembers is returned. The list is
      * ordered by presentation.
      */
-    private static List<ExplicitMember> isMatchingContext(Collection<Axis> axes, Context context) {
+    private static List<ExplicitMember> isMatchingContext(Collection<Axis> axes, int[] axisIds, int[] sortedAxisIds,
+                                                          Context context) {
         /*
          * Rules for filtering out contexts from Edgar Volume 2, Chapter 6 - Section 6.24.2 Context Selection
          *
@@ -240,26 +345,20 @@ public class XbrlInstance {
          * 2. If the presentation contains an axis that does not have its default member as a descendant, and the context segment
          *    has no member for that axis, then the context will not be selected.
          */
-        Set<ExplicitMember> dimensions = context.getDimensions();
+        DimensionSignature signature = context.getSignature();
 
-        /* Check if context matches the axes definition i.e., context dimensions are a subset of axes dimensions */
-        Set<Concept> contextAxes = dimensions.stream().map(ExplicitMember::getDimension).collect(Collectors.toSet());
-        Set<Concept> networkAxes = axes.stream().map(Axis::getDimension).collect(Collectors.toSet());
-        contextAxes.removeAll(networkAxes);
-
-        /* Check if Context has more qualifiers than required by the network. This partly addresses rule 1 */
-        if (!contextAxes.isEmpty())
+        /*
+         * Check if context matches the axes definition i.e., context dimensions are a subset of axes dimensions.
+         * Check if Context has more qualifiers than required by the network. This partly addresses rule 1
+         */
+        if (!signature.axesWithin(sortedAxisIds))
             return null;
 
-        List<ExplicitMember> result = new ArrayList<>();
+        List<ExplicitMember> result = new ArrayList<>(signature.size());
+        int i = 0;
         for (Axis axis : axes) {
-            ExplicitMember contextMember = null;
-            for (ExplicitMember member : dimensions) {
-                if (member.getDimension().equals(axis.getDimension())) {
-                    contextMember = member;
-                    break;
-                }
-            }
+            int index = signature.indexOf(axisIds[i++]);
+            ExplicitMember contextMember = (index >= 0) ? signature.getExplicitMember(index) : null;
 
             if (contextMember != null) {
                 /* Validate rule 2. */
@@ -293,17 +392,27 @@ public class XbrlInstance {
      * @param matchingFacts data structure where the matching facts are collected
      */
     public void getFactsFor(Concept concept, Collection<Axis> axes, TimeOrdered<DimensionedFact> matchingFacts) {
-        if (axes == null || axes.isEmpty()) {
-            /* We are looking for simple facts */
-            getMatchingFacts(concept, matchingFacts);
-            return;
-        }
+        /* We are looking for simple facts if there are no axes */
+        boolean simple = (axes == null || axes.isEmpty());
 
-        Collection<Fact> factCollection = conceptFacts.getFactsFor(concept);
-        if (factCollection == null)
-            return;
+        FactQuery query = query().concept(concept);
+        if (simple) {
+            query.withoutDimensions();
+        }
 
-        for (Fact fact : factCollection) {
+        /* Contexts with the same dimensions match axes alike, so match each dimension set once */
+        Map<DimensionSignature,List<ExplicitMember>> matchingDimensions = new HashMap<>();
+        int[] axisIds = null, sortedAxisIds = null;
+        if (!simple) {
+            ConceptIds conceptIds = dts.getConceptIds();
+            axisIds = new int[axes.size()];
+            int i = 0;
+            for (Axis axis : axes) {
+                axisIds[i++] = conceptIds.idOf(axis.getDimension());
+            }
+            sortedAxisIds = Arrays.stream(axisIds).sorted().distinct().toArray();
+        }
+        for (Fact fact : query.facts()) {
             assert fact.getConcept().equals(concept);
 
             Context context = fact.getContext();
@@ -311,9 +420,16 @@ public class XbrlInstance {
             // If this fact has no dimensions, this is a top-level fact
             if (!context.hasDimensions()) {
                 matchingFacts.add(context.getPeriod(), new DimensionedFact(fact));
-            } else {
+            } else if (!simple) {
                 /* context has dimensions, but make sure the dimensions match axes */
-                List<ExplicitMember> dimensions = isMatchingContext(axes, context);
+                DimensionSignature signature = context.getSignature();
+                List<ExplicitMember> dimensions;
+                if (matchingDimensions.containsKey(signature)) {
+                    dimensions = matchingDimensions.get(signature);
+                } else {
+                    dimensions = isMatchingContext(axes, axisIds, sortedAxisIds, context);
+                    matchingDimensions.put(signature, dimensions);
+                }
                 if (dimensions != null) {
                     matchingFacts.add(context.getPeriod(), new DimensionedFact(fact, dimensions));
                 }
@@ -371,7 +487,24 @@ public class XbrlInstance {
         return result;
     }
 
-    private final int DAYS_ALLOWANCE = 10;
+    /**
+     * Returns the periods of this instance relative to its period end date. The index is built on first use.
+     *
+     * @return The period index
+     */
+    public PeriodIndex getPeriodIndex() {
+        PeriodIndex index = periodIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = periodIndex;
+                if (index == null) {
+                    index = PeriodIndex.of(contextMap.values(), dei);
+                    periodIndex = index;
+                }
+            }
+        }
+        return index;
+    }
 
     /**
      * Get all contexts that belong to the Most Recent Quarter (MRQ). An MRQ is defined as the
@@ -380,43 +513,10 @@ public class XbrlInstance {
      * date that falls outside the period end date by up to 3 days is considered part of the
      * MRQ. I believe this is defined by SEC Edgar, but I am not sure.
      *
-     * @return Collection of contexts that belong to the Most Recent Quarter.
+     * @return Collection of contexts that belong to the Most Recent Quarter. The collection is unmodifiable
      */
     public Collection<Context> getMRQContexts() {
-        LocalDate periodEndDate = dei.getEstimatedPeriodEndDate();
-        List<Context> contextList = new ArrayList<>();
-        for (Context context : contextMap.values()) {
-            Period period = context.getPeriod();
-            if (period instanceof Instant instant) {
-                /* An instant can end upto 3 days after the period end date */
-                long days = Math.abs(ChronoUnit.DAYS.between(instant.getDate(), periodEndDate));
-                if (days > 3)
-                    continue;
-
-                contextList.add(context);
-            } else if (period instanceof Duration duration) {
-                long days = Math.abs(ChronoUnit.DAYS.between(duration.getEndDate(), periodEndDate));
-                if (days > 3)
-                    continue;
-
-                /* The logic below can potentially be simplified, but it requires extensive testing */
-                days = duration.durationInDays();
-                if (dei.getDocumentInformation().isQuarterlyReport()) {
-                    if (Math.abs(days - 90) >= DAYS_ALLOWANCE)
-                        continue;
-                } else if (dei.getDocumentInformation().isAnnualReport()) {
-                    if (Math.abs(days - 365) >= DAYS_ALLOWANCE) {
-                        continue;
-                    } else if (Math.abs(days - 90) >= DAYS_ALLOWANCE) {
-                        /* Annual reports could have quarterly information i.e., Q4 which needs to be considered */
-                        continue;
-                    }
-                }
-
-                contextList.add(context);
-            }
-        }
-        return contextList;
+        return getPeriodIndex().getMRQContexts();
     }
 
     /**
@@ -424,60 +524,11 @@ public class XbrlInstance {
      * fiscal year. YTD will change depending on whether the filing is for Q1, Q2, Q3 or FY. As in the case
      * of MRQ, contents with end dates up to 3 days after the period end date are included.
      *
-     * @return Collection of contexts that belong to the current fiscal year starting from the beginning.
+     * @return Collection of contexts that belong to the current fiscal year starting from the beginning. The
+     * collection is unmodifiable
      */
     public Collection<Context> getYTDContexts() {
-        LocalDate periodEndDate = dei.getEstimatedPeriodEndDate();
-        String fiscalPeriod = Dei.guessFiscalPeriod(dei, periodEndDate);
-        if (Objects.isNull(fiscalPeriod)) {
-            /* Default to fiscalPeriod in DEI, if the guess is null */
-            fiscalPeriod = dei.getFiscalPeriod();
-        } else if (!fiscalPeriod.equals(dei.getFiscalPeriod())) {
-            /* Guessed value does not match value in DEI. We are going to trust the guessed value, since the value in the DEI could be incorrect */
-            log.info("Guessed fiscal period [{}] does not match DEI fiscal period [{}]", fiscalPeriod, dei.getFiscalPeriod());
-        }
-
-        List<Context> contextList = new ArrayList<>();
-        for (Context context : contextMap.values()) {
-            Period period = context.getPeriod();
-            if (period instanceof Instant instant) {
-                long days = Math.abs(ChronoUnit.DAYS.between(instant.getDate(), periodEndDate));
-                if (days > 3)
-                    continue;
-
-                contextList.add(context);
-            } else if (period instanceof Duration duration) {
-                long days = Math.abs(ChronoUnit.DAYS.between(duration.getEndDate(), periodEndDate));
-                if (days > 3)
-                    continue;
-
-                days = duration.durationInDays();
-                switch (fiscalPeriod) {
-                    case "Q1" -> {
-                        /* For Q1, YTD is approximately 90 days */
-                        if (Math.abs(days - 90) >= DAYS_ALLOWANCE)
-                            continue;
-                    }
-                    case "Q2" -> {
-                        /* For Q2, YTD is approximately 180 days */
-                        if (Math.abs(days - 180) >= DAYS_ALLOWANCE)
-                            continue;
-                    }
-                    case "Q3" -> {
-                        /* For Q3, YTD is approximately 270 days */
-                        if (Math.abs(days - 270) >= DAYS_ALLOWANCE)
-                            continue;
-                    }
-                    default -> {
-                        if (Math.abs(days - 365) >= DAYS_ALLOWANCE)
-                            continue;
-                    }
-                }
-
-                contextList.add(context);
-            }
-        }
-        return contextList;
+        return getPeriodIndex().getYTDContexts();
     }
 
     public TimeOrdered<Fact> getFactsFor() {
@@ -488,11 +539,21 @@ public class XbrlInstance {
         return facts;
     }
 
+    private void addContext(Context context) {
+        contextMap.add(context);
+        factIndex = null;
+        periodIndex = null;
+    }
+
     private void add(Fact fact) {
         Namespace ns = fact.getConcept().getNamespace();
         factNamespaces.add(ns);
         facts.add(fact);
         conceptFacts.add(fact);
+        if (fact.getContext() != null) {
+            contextFacts.add(fact);
+        }
+        factIndex = null;
     }
 
     private void parseXbrl(XbrlReader.Resolver resolver, Element root) {
@@ -515,11 +576,10 @@ public class XbrlInstance {
                     // in the primary XSD. We are making an assumption that the first schemaRef is the one that will
                     // contain the XBRL instance.
                     if (dts == null)
-                        dts = DiscoverableTaxonomySet.fromElement(resolver, element);
+                        dts = DiscoverableTaxonomySet.fromElement(resolver, element, baseTaxonomies);
                     break;
                 case Context.CONTEXT_TAG:
-                    Context context = Context.fromElement(dts, element);
-                    contextMap.add(context);
+                    addContext(Context.fromElement(dts, element, entities));
                     break;
                 case TagNames.UNIT_TAG:
                     Unit unit = Unit.fromElement(element);
@@ -546,13 +606,149 @@ public class XbrlInstance {
                     footnoteLinks.add(link);
                     break;
                 default:
+                    Utils.checkInterrupted();
                     // We are adding DEI facts as well
-                    Fact fact = Fact.fromElement(this, element);
-                    this.add(fact);
+                    if (isSelected(element, false)) {
+                        Fact fact = Fact.fromElement(this, element);
+                        this.add(fact);
+                    }
                     break;
             }
         }
 
+        completeXbrl(footnoteLinks);
+    }
+
+    /**
+     * Parse an XBRL 2.1 instance in a single forward pass over streamReader, without building a tree of the instance.
+     * Each child of the root is read into a small tree of its own, turned into a Context, Unit, Fact or FootnoteLink
+     * and discarded. The children are kept under a copy of the root element so that prefixes declared on the root
+     * still resolve. Only facts that refer to a context or unit that has not been seen yet (and any child appearing
+     * before the schemaRef) are held until the end of the instance.
+     *
+     * @param resolver A mechanism to resolve relative urls to the right absolute urls
+     * @param streamReader A stream reader positioned at the root element of the instance
+     */
+    private void parseXbrl(XbrlReader.Resolver resolver, XMLStreamReader streamReader) throws XMLStreamException {
+        if (!streamReader.getLocalName().equals(XBRL_TAG))
+            throw new MismatchTagException(XBRL_TAG, streamReader.getLocalName());
+
+        Element root = XmlParser.startElement(streamReader);
+        List<Element> deferred = new ArrayList<>();
+        List<FootnoteLink> footnoteLinks = new ArrayList<>();
+
+        int event;
+        while ((event = streamReader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT)
+                continue;
+            Utils.checkInterrupted();
+
+            /* Skip facts that are not selected without building them */
+            if (dts != null && isFact(streamReader.getLocalName()) && !isSelected(streamReader.getNamespaceURI(),
+                    streamReader.getLocalName(), streamReader.getAttributeValue(null, TagNames.UNIT_REF_TAG) != null)) {
+                XmlParser.skipElement(streamReader);
+                continue;
+            }
+
+            Element element = XmlParser.readElement(streamReader);
+            root.add(element);
+            if (isReady(element)) {
+                ingest(resolver, element, footnoteLinks);
+                root.remove(element);
+            } else {
+                deferred.add(element);
+            }
+        }
+
+        if (!deferred.isEmpty()) {
+            log.info("Deferred [{}] elements of [{}]", deferred.size(), xbrlUrl);
+            /* Contexts and units first, then the facts that refer to them, each in document order */
+            deferred.sort(Comparator.comparingInt(e -> isFact(e) ? 1 : 0));
+            for (Element element : deferred) {
+                ingest(resolver, element, footnoteLinks);
+            }
+        }
+
+        completeXbrl(footnoteLinks);
+    }
+
+    private static boolean isFact(Element element) {
+        return isFact(element.getName());
+    }
+
+    private static boolean isFact(String name) {
+        switch (name) {
+            case TagNames.SCHEMA_REF_TAG:
+            case Context.CONTEXT_TAG:
+            case TagNames.UNIT_TAG:
+            case TagNames.FOOTNOTE_LINK_TAG:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /* True if element can be ingested now, i.e. the taxonomy and any context or unit it refers to are known */
+    private boolean isReady(Element element) {
+        if (element.getName().equals(TagNames.SCHEMA_REF_TAG))
+            return true;
+        if (dts == null)
+            return false;
+        if (!isFact(element))
+            return true;
+
+        String contextRef = element.attributeValue(TagNames.CONTEXT_REF_TAG);
+        if (contextRef != null && !contextMap.containsKey(contextRef))
+            return false;
+        String unitRef = element.attributeValue(TagNames.UNIT_REF_TAG);
+        return unitRef == null || unitMap.containsKey(unitRef);
+    }
+
+    /* Ingest a single child of the root of an XBRL 2.1 instance */
+    private void ingest(XbrlReader.Resolver resolver, Element element, List<FootnoteLink> footnoteLinks) {
+        switch (element.getName()) {
+            case TagNames.SCHEMA_REF_TAG:
+                /* The first schemaRef holds the instance, see parseXbrl(Resolver, Element) */
+                if (dts == null)
+                    dts = DiscoverableTaxonomySet.fromElement(resolver, element, baseTaxonomies);
+                break;
+            case Context.CONTEXT_TAG:
+                addContext(Context.fromElement(dts, element, entities));
+                break;
+            case TagNames.UNIT_TAG:
+                unitMap.add(Unit.fromElement(element));
+                break;
+            case TagNames.FOOTNOTE_LINK_TAG:
+                footnoteLinks.add(FootnoteLink.fromElement(resolver.getRootPath(), dts, element));
+                break;
+            default:
+                if (isSelected(element, false)) {
+                    this.add(Fact.fromElement(this, element));
+                }
+                break;
+        }
+    }
+
+    /* True if the fact in element passes the fact filter */
+    private boolean isSelected(Element element, boolean isInlineXBRL) {
+        if (factFilter == null)
+            return true;
+
+        QName name = isInlineXBRL ? element.getQName(element.attributeValue(TagNames.NAME_TAG)) : element.getQName();
+        return isSelected(name.getNamespaceURI(), name.getName(), element.attribute(TagNames.UNIT_REF_TAG) != null);
+    }
+
+    /* True if the fact of the concept namespaceURI:name passes the fact filter. DEI facts always do */
+    private boolean isSelected(String namespaceURI, String name, boolean numeric) {
+        if (factFilter == null || XbrlUtils.isDei(namespaceURI))
+            return true;
+
+        Concept concept = dts.getConcept(Namespace.get(namespaceURI != null ? namespaceURI : ""), name);
+        /* Unknown concepts are left to fail as they would without a filter */
+        return concept == null || factFilter.accept(concept, numeric);
+    }
+
+    private void completeXbrl(List<FootnoteLink> footnoteLinks) {
         /* Link footnotes to facts */
         for (FootnoteLink link : footnoteLinks) {
             for (FootnoteArc arc : link.getAllArcs()) {
@@ -570,9 +766,7 @@ public class XbrlInstance {
         // Sort facts in each context so higher precision facts appear earlier in the list. The same fact can
         // appear with different decimal precision values e.g. millions (-6) and 100's of millions (-8)
         // Prefer the higher precision fact i.e. the -6 in this example.
-        for (Context context : contextMap.values()) {
-            context.sortFacts();
-        }
+        contextFacts.sort();
 
         // Sort concept facts so higher precision facts appear earlier in the list
         conceptFacts.sort();
@@ -649,6 +843,7 @@ public class XbrlInstance {
             }
             dei.setEstimatedPeriodEndDate(periodEndDate);
         }
+        periodIndex = null;
     }
 
     private static final String HTML_NS = "http://www.w3.org/1999/xhtml";
@@ -682,7 +877,16 @@ public class XbrlInstance {
 
         InlineXBRLParser inlineXBRLParser = new InlineXBRLParser(resolver);
         inlineXBRLParser.parse(roots);
+        completeInlineXBRL(inlineXBRLParser);
+    }
+
+    private void parseInlineXBRL(XbrlReader.Resolver resolver, Collection<Element> ixElements) {
+        InlineXBRLParser inlineXBRLParser = new InlineXBRLParser(resolver);
+        inlineXBRLParser.process(ixElements);
+        completeInlineXBRL(inlineXBRLParser);
+    }
 
+    private void completeInlineXBRL(InlineXBRLParser inlineXBRLParser) {
         inlineXBRLParser.addSkippedFacts();
         inlineXBRLParser.linkRelationships();
         setDeiValues();
@@ -690,6 +894,111 @@ public class XbrlInstance {
         inlineXBRLParser.clear();
     }
 
+    private static Element getBodyElement(Element root) {
+        for (Element element : root.elements()) {
+            if (element.getName().equals(BODY_TAG))
+                return element;
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the ix elements of the iXBRL document rooted at root in document order. The elements of the documents
+     * of a multi-document iXBRL instance can be extracted independently and concatenated in document order.
+     *
+     * @param root The html root of an iXBRL document
+     * @return The ix elements in document order
+     */
+    static List<Element> getIxElements(Element root) {
+        List<Element> elements = new ArrayList<>();
+        getIxElements(getBodyElement(root), elements);
+        return elements;
+    }
+
+    /**
+     * Collects the ix elements in the tree rooted at root in document order. The header and nonFraction elements
+     * are collected but not searched, since their content is handled along with them.
+     */
+    private static void getIxElements(Element root, List<Element> elements) {
+        if (root == null)
+            return;
+
+        QName name = root.getQName();
+        if (XbrlUtils.isIx(name.getNamespace().getURI())) {
+            elements.add(root);
+            if (name.getName().equals(TagNames.HEADER_TAG) || name.getName().equals(TagNames.NON_FRACTION_TAG)) {
+                /* Don't recurse the header or nonFraction elements */
+                return;
+            }
+        }
+
+        /* Recurse */
+        for (Element element : root.elements()) {
+            getIxElements(element, elements);
+        }
+    }
+
+    /**
+     * Extracts the ix elements of the iXBRL document whose root (html) element streamReader is positioned at, in the
+     * same order as they would be found in a tree of the whole document. Only the ix elements and the markup inside
+     * them are built, everything else is skipped as it is read. The ix elements are kept under copies of the root
+     * and of any skipped element that declares namespaces, so that prefixes used in names, formats and text blocks
+     * still resolve.
+     *
+     * @param streamReader A stream reader positioned at the root element
+     * @return The ix elements in document order, or null if the document is not an iXBRL document
+     */
+    static List<Element> extractIxElements(XMLStreamReader streamReader) throws XMLStreamException {
+        Element root = XmlParser.startElement(streamReader);
+        if (!isInlineXBRL(root))
+            return null;
+
+        List<Element> elements = new ArrayList<>();
+        Deque<Element> scopes = new ArrayDeque<>();
+        scopes.push(root);
+        /* One entry per open element below the root, true if the element was copied to keep its namespaces */
+        Deque<Boolean> open = new ArrayDeque<>();
+        boolean inBody = false;
+
+        while (true) {
+            int event = streamReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                Utils.checkInterrupted();
+                String namespaceURI = streamReader.getNamespaceURI();
+                if (inBody && namespaceURI != null && XbrlUtils.isIx(namespaceURI)) {
+                    Element element = XmlParser.readElement(streamReader);
+                    scopes.peek().add(element);
+                    getIxElements(element, elements);
+                    continue;
+                }
+
+                if (open.isEmpty() && BODY_TAG.equals(streamReader.getLocalName())) {
+                    inBody = true;
+                }
+                boolean declaresNamespaces = streamReader.getNamespaceCount() > 0;
+                if (declaresNamespaces) {
+                    Element scope = XmlParser.startElement(streamReader);
+                    scopes.peek().add(scope);
+                    scopes.push(scope);
+                }
+                open.push(declaresNamespaces);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (open.isEmpty())
+                    break;
+
+                if (open.pop()) {
+                    scopes.pop();
+                }
+                if (open.isEmpty()) {
+                    inBody = false;
+                }
+            }
+        }
+
+        return elements;
+    }
+
     private static class Relationship {
         private final String from;
         private final String to;
@@ -802,35 +1111,6 @@ public class XbrlInstance {
             return defaultPrefix;
         }
 
-        private Element getBodyElement(Element root) {
-            for (Element element : root.elements()) {
-                if (element.getName().equals(BODY_TAG))
-                    return element;
-            }
-
-            return null;
-        }
-
-        private void getIxElements(int depth, Element root, List<Element> elements) {
-            if (root == null)
-                return;
-
-            QName name = root.getQName();
-            if (XbrlUtils.isIx(name.getNamespace().getURI())) {
-                elements.add(root);
-                if (name.getName().equals(TagNames.HEADER_TAG) || name.getName().equals(TagNames.NON_FRACTION_TAG)) {
-                    /* Don't recurse the header or nonFraction elements */
-                    return;
-                }
-                depth += 1;
-            }
-
-            /* Recurse */
-            for (Element element : root.elements()) {
-                getIxElements(depth, element, elements);
-            }
-        }
-
         private void processIxHeader(XbrlReader.Resolver resolver, Element ixHeader) {
             List<Element> elements = ixHeader.elements();
             for (Element element : elements) {
@@ -845,7 +1125,7 @@ public class XbrlInstance {
                             /* When an instance has multiple files, the dts may be created multiple times - guard against that */
                             for (Element e : element.elements()) {
                                 if (e.getName().equals(TagNames.SCHEMA_REF_TAG)) {
-                                    dts = DiscoverableTaxonomySet.fromElement(resolver, e);
+                                    dts = DiscoverableTaxonomySet.fromElement(resolver, e, baseTaxonomies);
                                 }
                             }
                         }
@@ -854,8 +1134,7 @@ public class XbrlInstance {
                     case TagNames.RESOURCES_TAG:
                         for (Element e : element.elements()) {
                             if (e.getName().equals(Context.CONTEXT_TAG)) {
-                                Context context = Context.fromElement(dts, e);
-                                contextMap.add(context);
+                                addContext(Context.fromElement(dts, e, entities));
                             } else if (e.getName().equals(TagNames.UNIT_TAG)) {
                                 Unit unit = Unit.fromElement(e);
                                 unitMap.add(unit);
@@ -881,8 +1160,10 @@ public class XbrlInstance {
                     case TagNames.NON_NUMERIC_TAG: {
                         String attrName = element.attributeValue(TagNames.NAME_TAG);
                         if (attrName != null) {
-                            Fact fact = Fact.fromElement(XbrlInstance.this, element, true);
-                            XbrlInstance.this.add(fact);
+                            if (isSelected(element, true)) {
+                                Fact fact = Fact.fromElement(XbrlInstance.this, element, true);
+                                XbrlInstance.this.add(fact);
+                            }
                         } else {
                             throw new RuntimeException("processIxHidden name is null for [" + ixHidden.getName() + "]");
                         }
@@ -910,9 +1191,12 @@ public class XbrlInstance {
             List<Element> elements = new ArrayList<>();
 
             for (Element root : roots) {
-                Element body = getBodyElement(root);
-                getIxElements(0, body, elements);
+                elements.addAll(getIxElements(root));
             }
+            process(elements);
+        }
+
+        private void process(Collection<Element> elements) {
             log.info("Found {} ix elements", elements.size());
 
             /* Process Header elements first */
@@ -942,6 +1226,7 @@ public class XbrlInstance {
 
             /* Process all other elements last */
             for (Element element : elements) {
+                Utils.checkInterrupted();
                 String attrName = element.attributeValue(TagNames.NAME_TAG);
 
                 String name = element.getName();
@@ -983,13 +1268,23 @@ public class XbrlInstance {
                             }
                             /* Child element */
                             Element childElement = childElements.get(0);
+                            boolean childSelected = isSelected(childElement, true);
+                            boolean selected = isSelected(element, true);
+                            if (!childSelected && !selected)
+                                break;
+
+                            /* The child is built if either is selected, the top level element takes its value */
                             Fact childFact = Fact.fromElement(XbrlInstance.this, childElement, true);
-                            XbrlInstance.this.add(childFact);
+                            if (childSelected) {
+                                XbrlInstance.this.add(childFact);
+                            }
 
                             /* Top level element - value of top level elements is the same as the child element */
-                            Fact fact = Fact.fromElement(XbrlInstance.this, element, childFact,true);
-                            XbrlInstance.this.add(fact);
-                        } else {
+                            if (selected) {
+                                Fact fact = Fact.fromElement(XbrlInstance.this, element, childFact, true);
+                                XbrlInstance.this.add(fact);
+                            }
+                        } else if (isSelected(element, true)) {
                             Fact fact = Fact.fromElement(XbrlInstance.this, element, true);
                             XbrlInstance.this.add(fact);
                         }
@@ -997,6 +1292,9 @@ public class XbrlInstance {
                     }
 
                     case TagNames.NON_NUMERIC_TAG: {
+                        if (!isSelected(element, true))
+                            break;
+
                         Attribute continuedAt = element.attribute(TagNames.CONTINUED_AT_TAG);
                         if (continuedAt != null) {
                             postProcessList.add(element);
@@ -15,28 +15,36 @@
  */
 package io.datanapis.xbrl;
 
-import com.ctc.wstx.sax.WstxSAXParser;
+import io.datanapis.xbrl.model.FactTable;
+import io.datanapis.xbrl.reader.ChainedContentCache;
 import io.datanapis.xbrl.reader.ContentCache;
+import io.datanapis.xbrl.reader.DocumentCache;
 import io.datanapis.xbrl.reader.SimpleContentCache;
+import io.datanapis.xbrl.reader.ZipContentCache;
+import io.datanapis.xbrl.reader.UrlMapping;
+import io.datanapis.xbrl.reader.XmlParser;
 import io.datanapis.xbrl.utils.TaxonomyUtils;
 import okhttp3.*;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.dom4j.Element;
-import org.dom4j.io.SAXReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xml.sax.SAXNotRecognizedException;
-import org.xml.sax.SAXNotSupportedException;
-import org.xml.sax.XMLReader;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -72,9 +80,198 @@ public class XbrlReader {
                 .build();
     }
 
+    private Path snapshotFolder = null;
+    private BaseTaxonomyCache baseTaxonomies = null;
+    private ContentCache taxonomyCache = null;
+    private DocumentCache documentCache = null;
+    private boolean lazyZips = false;
+    private Executor discoveryExecutor = null;
+    private Executor documentExecutor = null;
+    private UrlMapping urlMapping = null;
+    private XmlParser parser = XmlParser.DEFAULT;
+    private boolean streamInstances = false;
+    private FactFilter factFilter = null;
+    private boolean buildFactTables = false;
+
     public XbrlReader() {
     }
 
+    /**
+     * Use compiled taxonomy snapshots (see {@link DtsSnapshot}) stored in snapshotFolder. When a snapshot exists for
+     * a taxonomy entry point, the taxonomy is loaded from the snapshot instead of walking the XML. When it does not,
+     * the taxonomy is read from the XML and compiled into snapshotFolder for later runs.
+     *
+     * @param snapshotFolder The folder holding the snapshots, or null to disable snapshots
+     * @return this reader
+     */
+    public XbrlReader useSnapshots(Path snapshotFolder) {
+        this.snapshotFolder = snapshotFolder;
+        return this;
+    }
+
+    /**
+     * Share the standard taxonomies (us-gaap, dei, srt etc.) of the instances read by this reader through
+     * baseTaxonomies. Each instance then only holds its own extension schema, linkbases and role types on top of a
+     * read-only base shared with every other instance that references the same standard schemas.
+     *
+     * @param baseTaxonomies The cache of base taxonomies, or null to give every instance its own complete taxonomy
+     * @return this reader
+     */
+    public XbrlReader shareBaseTaxonomies(BaseTaxonomyCache baseTaxonomies) {
+        this.baseTaxonomies = baseTaxonomies;
+        return this;
+    }
+
+    /**
+     * Resolve schemas and linkbases from taxonomyCache (typically a {@link ZipContentCache} over the standard taxonomy
+     * zips) before fetching them. The cache is shared by every resolver created by this reader and is never cleared
+     * by them.
+     *
+     * @param taxonomyCache The shared cache, or null to disable it
+     * @return this reader
+     */
+    public XbrlReader useTaxonomyCache(ContentCache taxonomyCache) {
+        this.taxonomyCache = taxonomyCache;
+        return this;
+    }
+
+    /**
+     * Share parsed schemas and linkbases across the instances read by this reader (and any other reader using the
+     * same documentCache). Documents are only parsed again when their content changes or they have been evicted.
+     *
+     * @param documentCache The cache of parsed documents, or null to parse every document
+     * @return this reader
+     */
+    public XbrlReader shareDocuments(DocumentCache documentCache) {
+        this.documentCache = documentCache;
+        return this;
+    }
+
+    /**
+     * Read filing zips lazily. Instead of decompressing every entry of a filing zip into memory up front, only the
+     * zip's central directory is read and entries are decompressed when the instance or its taxonomy needs them.
+     * Entries that cannot be part of an XBRL instance (exhibits, images, PDFs, spreadsheets) are skipped. Zips
+     * received as a stream are spooled to a temporary file first.
+     *
+     * @param lazyZips true to read filing zips lazily
+     * @return this reader
+     */
+    public XbrlReader readZipsLazily(boolean lazyZips) {
+        this.lazyZips = lazyZips;
+        return this;
+    }
+
+    /**
+     * Fetch and parse the schemas and linkbases of a taxonomy concurrently on executor. Documents are fetched as soon
+     * as they are discovered, while the order in which they are read into the taxonomy stays the same as when they
+     * are fetched one at a time. Use a bounded executor; it may be shared across readers and may be the executor the
+     * instances themselves are read on.
+     *
+     * @param executor The executor to fetch documents on, or null to fetch documents one at a time
+     * @return this reader
+     */
+    public XbrlReader discoverConcurrently(Executor executor) {
+        this.discoveryExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Resolve documents offline. Urls starting with a prefix in urlMapping are read from the mapped folder or zip,
+     * and never from the network or the http cache. Documents that belong to the filing itself are read from the
+     * filing (folder or zip). Any other url fails instead of being fetched, as does reading an instance from a url.
+     *
+     * @param urlMapping The mapping of url prefixes to local taxonomies, or null to resolve urls over http
+     * @return this reader
+     */
+    public XbrlReader resolveOffline(UrlMapping urlMapping) {
+        this.urlMapping = urlMapping;
+        return this;
+    }
+
+    /**
+     * Parse instances, schemas and linkbases with parser
+     *
+     * @param parser The XML parser backend to use
+     * @return this reader
+     */
+    public XbrlReader useParser(XmlParser parser) {
+        this.parser = Objects.requireNonNull(parser);
+        return this;
+    }
+
+    /**
+     * Parse the HTML documents of an iXBRL instance that is split across several documents concurrently on executor.
+     * Each document is parsed and its ix elements extracted independently; the elements are then merged in document
+     * order and processed as for a serial parse (header, contexts and units first, then hidden facts, then the
+     * remaining facts, continuations and footnotes), so the instance is the same as when the documents are parsed
+     * one at a time. Use a bounded executor; it may be shared across readers and may be the executor the instances
+     * themselves are read on.
+     *
+     * @param executor The executor to parse documents on, or null to parse documents one at a time
+     * @return this reader
+     */
+    public XbrlReader parseDocumentsConcurrently(Executor executor) {
+        this.documentExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Read instances in a single streaming pass instead of building a tree of the whole document first. XBRL 2.1
+     * instances are ingested as they are read. For iXBRL documents only the ix elements (and the markup inside them)
+     * are built, the rest of the HTML is skipped as it is read. This bounds the memory needed for instances with a
+     * very large number of facts and for large HTML filings.
+     *
+     * @param streamInstances true to stream XBRL 2.1 instances and iXBRL documents
+     * @return this reader
+     */
+    public XbrlReader streamInstances(boolean streamInstances) {
+        this.streamInstances = streamInstances;
+        return this;
+    }
+
+    /**
+     * Read only the facts selected by factFilter. Other facts are skipped before their value is extracted. Contexts,
+     * units, footnotes and DEI facts are always read.
+     *
+     * @param factFilter The facts to read, or null to read all facts
+     * @return this reader
+     */
+    public XbrlReader filterFacts(FactFilter factFilter) {
+        this.factFilter = factFilter;
+        return this;
+    }
+
+    /**
+     * Build the columnar {@link FactTable} of each instance as part of reading it, rather than on the first call to
+     * {@link XbrlInstance#getFactTable()}. Useful when instances are read on worker threads and analyzed elsewhere.
+     *
+     * @param buildFactTables true to build fact tables when instances are read
+     * @return this reader
+     */
+    public XbrlReader buildFactTables(boolean buildFactTables) {
+        this.buildFactTables = buildFactTables;
+        return this;
+    }
+
+    private XbrlInstance completed(XbrlInstance instance) {
+        if (buildFactTables && instance != null) {
+            instance.getFactTable();
+        }
+        return instance;
+    }
+
+    private ResolverImpl configured(ResolverImpl resolver) {
+        return resolver.withDocumentCache(documentCache).withExecutor(discoveryExecutor).withUrlMapping(urlMapping)
+                .withParser(parser);
+    }
+
+    private ContentCache withTaxonomyCache(ContentCache contentCache) {
+        if (taxonomyCache == null)
+            return contentCache;
+
+        return new ChainedContentCache(contentCache, taxonomyCache);
+    }
+
     public static int requestCount() {
         return (client.cache() != null) ? client.cache().requestCount() : 0;
     }
@@ -91,22 +288,6 @@ public class XbrlReader {
         return getInstance(null, url);
     }
 
-    private static SAXReader saxReader() {
-        XMLReader reader = null;
-//        try {
-//            WstxSAXParser saxParser = new WstxSAXParser();
-//            reader = saxParser.getXMLReader();
-//            reader.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-//            reader.setFeature("http://xml.org/sax/features/external-general-entities", false);
-//            reader.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-//        } catch (SAXNotRecognizedException | SAXNotSupportedException e) {
-//            log.info("Exception: " + e);
-//            reader = null;
-//        }
-        SAXReader saxReader = new SAXReader(reader);
-        return saxReader;
-    }
-
     /**
      * Used to get the entire zip of the XBRL filing as well as the summary document Financial_Report.xlsx
      *
@@ -142,11 +323,11 @@ public class XbrlReader {
         log.info("Reading XBRL from [{}]", path);
         if (isHttp.test(path)) {
             HttpUrl httpUrl = HttpUrl.parse(path);
-            return this.getInstance(dateFiled, httpUrl);
+            return completed(this.getInstance(dateFiled, httpUrl));
         } else {
             FileSystem fs = FileSystems.getDefault();
             Path rootPath = fs.getPath(path).toAbsolutePath();
-            return this.fromPath(dateFiled, rootPath);
+            return completed(this.fromPath(dateFiled, rootPath));
         }
     }
 
@@ -165,13 +346,49 @@ public class XbrlReader {
         if (!Files.exists(rootPath) || !Files.isRegularFile(rootPath))
             throw new FileNotFoundException(path);
 
+        if (snapshotFolder == null)
+            return readTaxonomy(rootPath, withCaching);
+
+        String entryPoint = DtsSnapshot.keyOf(rootPath, withCaching);
+        Path snapshot = DtsSnapshot.pathOf(snapshotFolder, entryPoint);
+        DiscoverableTaxonomySet dts = DtsSnapshot.read(snapshot, entryPoint);
+        if (dts == null) {
+            dts = readTaxonomy(rootPath, withCaching);
+            DtsSnapshot.write(dts, entryPoint, snapshot);
+        }
+
+        return dts;
+    }
+
+    /**
+     * Compiles the taxonomy rooted at path into a snapshot inside snapshotFolder, replacing any existing snapshot.
+     *
+     * @param path a file - the root of the taxonomy, e.g. us-gaap-entryPoint-all-2022.xsd
+     * @param snapshotFolder the folder to write the snapshot to
+     * @return the path of the snapshot
+     * @throws Exception if there is an error accessing the data, parsing the taxonomy or writing the snapshot
+     */
+    public Path compileTaxonomy(String path, boolean withCaching, Path snapshotFolder) throws Exception {
+        FileSystem fs = FileSystems.getDefault();
+        Path rootPath = fs.getPath(path).toAbsolutePath();
+        if (!Files.exists(rootPath) || !Files.isRegularFile(rootPath))
+            throw new FileNotFoundException(path);
+
+        String entryPoint = DtsSnapshot.keyOf(rootPath, withCaching);
+        Path snapshot = DtsSnapshot.pathOf(snapshotFolder, entryPoint);
+        DiscoverableTaxonomySet dts = readTaxonomy(rootPath, withCaching);
+        DtsSnapshot.write(dts, entryPoint, snapshot);
+        return snapshot;
+    }
+
+    private DiscoverableTaxonomySet readTaxonomy(Path rootPath, boolean withCaching) {
         ContentCache contentCache = null;
         if (withCaching) {
             Map<String,byte[]> contentMap = TaxonomyUtils.buildCacheFromRootXsd(rootPath, TaxonomyUtils::getGaapTaxonomyBasePath);
             contentCache = new SimpleContentCache(contentMap);
         }
 
-        Resolver resolver = new ResolverImpl(client, rootPath.getParent(), contentCache);
+        Resolver resolver = configured(new ResolverImpl(client, rootPath.getParent(), withTaxonomyCache(contentCache)));
         return DiscoverableTaxonomySet.fromPath(resolver, rootPath.toString());
     }
 
@@ -188,26 +405,156 @@ public class XbrlReader {
     public XbrlInstance getInstanceFromZipStream(LocalDate dateFiled, String zipUrl, InputStream zipStream) throws Exception {
         log.info("Reading XBRL from Zip stream for URL [{}]", zipUrl);
         HttpUrl httpUrl = HttpUrl.parse(zipUrl);
-        return this.getInstanceFromZipStream(dateFiled, httpUrl, zipStream);
+        return completed(this.getInstanceFromZipStream(dateFiled, httpUrl, zipStream));
     }
 
     private XbrlInstance fromPath(LocalDate dateFiled, Path rootPath) throws Exception {
         if (rootPath.toString().endsWith(".zip")) {
             return fromZip(dateFiled, rootPath);
         } else {
-            SAXReader saxReader = XbrlReader.saxReader();
-            Document document = saxReader.read(Files.newBufferedReader(rootPath));
-            Element root = document.getRootElement();
-            Resolver resolver = new ResolverImpl(client, rootPath.getParent());
+            Resolver resolver = configured(new ResolverImpl(client, rootPath.getParent(), withTaxonomyCache(null)));
+            if (streamInstances) {
+                try (InputStream inputStream = Files.newInputStream(rootPath)) {
+                    XbrlInstance instance = streamInstance(dateFiled, resolver, inputStream);
+                    if (instance != null)
+                        return instance;
+                }
+            }
+
+            Element root;
+            try (BufferedReader reader = Files.newBufferedReader(rootPath)) {
+                root = parser.read(reader).getRootElement();
+            }
             return this.getInstance(dateFiled, resolver, root);
         }
     }
 
+    private XbrlInstance fromInstanceXml(LocalDate dateFiled, HttpUrl httpUrl, byte[] bytes) throws Exception {
+        Resolver resolver = configured(new ResolverImpl(client, httpUrl, withTaxonomyCache(null)));
+        XbrlInstance instance = streamInstance(dateFiled, resolver, new ByteArrayInputStream(bytes));
+        if (instance != null)
+            return instance;
+
+        Document document = parser.read(new ByteArrayInputStream(bytes));
+        return this.getInstance(dateFiled, resolver, document.getRootElement());
+    }
+
+    /**
+     * Reads the XBRL 2.1 instance or iXBRL document in inputStream in a single pass, without building a tree of
+     * the whole document.
+     *
+     * @return The instance, or null if inputStream holds neither an XBRL 2.1 instance nor an iXBRL document
+     */
+    private XbrlInstance streamInstance(LocalDate dateFiled, Resolver resolver, InputStream inputStream) throws Exception {
+        XMLStreamReader streamReader = XmlParser.streamReader(inputStream);
+        try {
+            while (streamReader.hasNext()) {
+                if (streamReader.next() != XMLStreamConstants.START_ELEMENT)
+                    continue;
+
+                if (XbrlInstance.XBRL_TAG.equals(streamReader.getLocalName()))
+                    return XbrlInstance.fromXbrlStream(dateFiled, resolver, streamReader, baseTaxonomies, factFilter);
+
+                List<Element> ixElements = XbrlInstance.extractIxElements(streamReader);
+                if (ixElements == null)
+                    return null;
+                return XbrlInstance.fromIxElements(dateFiled, resolver, ixElements, baseTaxonomies, factFilter);
+            }
+            throw new RuntimeException("xbrl instance not found");
+        } finally {
+            streamReader.close();
+        }
+    }
+
+    /**
+     * Returns the ix elements of the iXBRL document in inputStream, or null if it is not an iXBRL document
+     */
+    private static List<Element> extractIxElements(InputStream inputStream) throws XMLStreamException {
+        XMLStreamReader streamReader = XmlParser.streamReader(inputStream);
+        try {
+            while (streamReader.hasNext()) {
+                if (streamReader.next() == XMLStreamConstants.START_ELEMENT)
+                    return XbrlInstance.extractIxElements(streamReader);
+            }
+            return null;
+        } finally {
+            streamReader.close();
+        }
+    }
+
+    private interface EntryParser<T> {
+        T parse(String entry) throws Exception;
+    }
+
+    /**
+     * Applies entryParser to each of entries, on the document executor if there is one, and returns the results in
+     * the order of entries. A parse that has not started when its result is needed is run on the calling thread,
+     * so that waiting on a busy or shared executor cannot deadlock.
+     */
+    private <T> List<T> parseEntries(List<String> entries, EntryParser<T> entryParser) throws Exception {
+        List<T> results = new ArrayList<>();
+        if (documentExecutor == null || entries.size() < 2) {
+            for (String entry : entries) {
+                results.add(entryParser.parse(entry));
+            }
+            return results;
+        }
+
+        List<FutureTask<T>> tasks = new ArrayList<>();
+        for (String entry : entries) {
+            FutureTask<T> task = new FutureTask<>(() -> entryParser.parse(entry));
+            tasks.add(task);
+            documentExecutor.execute(task);
+        }
+
+        try {
+            for (FutureTask<T> task : tasks) {
+                /* No-op if the task has already been started */
+                task.run();
+                results.add(task.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause)
+                throw cause;
+            throw e;
+        } finally {
+            for (FutureTask<T> task : tasks) {
+                task.cancel(false);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns the ix elements of an iXBRL document, or null if it is not an iXBRL document or cannot be parsed
+     */
+    private List<Element> getIxElements(String sourcePath, String instanceEntry, ContentCache contentCache) throws IOException {
+        try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(contentCache.getContents(instanceEntry))) {
+            List<Element> ixElements;
+            if (streamInstances) {
+                ixElements = extractIxElements(byteArrayInputStream);
+            } else {
+                Element root = parser.read(byteArrayInputStream).getRootElement();
+                ixElements = XbrlInstance.isInlineXBRL(root) ? XbrlInstance.getIxElements(root) : null;
+            }
+
+            if (ixElements != null) {
+                log.info("Adding [{}] as an iXBRL root for [{}]", instanceEntry, sourcePath);
+            } else {
+                log.info("Skipping HTML file [{}] for [{}]. Not an iXBRL instance", instanceEntry, sourcePath);
+            }
+            return ixElements;
+        } catch (DocumentException | XMLStreamException e) {
+            log.info("Skipping HTML file [{}] for [{}]. [{}]", instanceEntry, sourcePath, e.toString());
+            return null;
+        }
+    }
+
     private XbrlInstance fromInstanceXml(LocalDate dateFiled, HttpUrl httpUrl, Reader reader) throws Exception {
-        SAXReader saxReader = XbrlReader.saxReader();
-        Document document = saxReader.read(reader);
+        Document document = parser.read(reader);
         Element root = document.getRootElement();
-        Resolver resolver = new ResolverImpl(client, httpUrl);
+        Resolver resolver = configured(new ResolverImpl(client, httpUrl, withTaxonomyCache(null)));
         return this.getInstance(dateFiled, resolver, root);
     }
 
@@ -215,6 +562,9 @@ public class XbrlReader {
     static final Predicate<String> htmlFile = a -> a.endsWith(".htm") || a.endsWith(".html");
     static final Predicate<String> auxiliaryXbrlFile =
             a -> a.endsWith("_cal.xml") || a.endsWith("_def.xml") || a.endsWith("_lab.xml") || a.endsWith("_pre.xml");
+    /* Entries of a filing zip that can be part of an XBRL instance or its taxonomy. Exhibits, images, PDFs and
+       spreadsheets are never read */
+    static final Predicate<String> xbrlMedia = a -> xmlFile.test(a) || htmlFile.test(a) || a.endsWith(".xsd");
 
     /**
      * Returns true if name is the potentially an XBRL instance entry. This is just a rule-based check that
@@ -230,10 +580,9 @@ public class XbrlReader {
         return !auxiliaryXbrlFile.test(name);
     }
 
-    private static List<Map.Entry<String,byte[]>> getInstanceEntries(Map<String,byte[]> contentMap) {
+    private static List<String> getInstanceEntries(Collection<String> names) {
         /* XBRL logic - look for an XML that is not a Calculation, Definition, Label or Presentation */
-        List<Map.Entry<String,byte[]>> candidates =
-                contentMap.entrySet().stream().filter(e -> isXbrlInstance(e.getKey())).collect(Collectors.toList());
+        List<String> candidates = names.stream().filter(XbrlReader::isXbrlInstance).collect(Collectors.toList());
         if (candidates.size() == 1) {
             return candidates;
         } else if (candidates.size() > 1) {
@@ -242,7 +591,7 @@ public class XbrlReader {
         }
 
         /* iXBRL logic - return all HTML files, iXBRL instances can be split across multiple HTML files */
-        candidates = contentMap.entrySet().stream().filter(e -> htmlFile.test(e.getKey())).collect(Collectors.toList());
+        candidates = names.stream().filter(htmlFile).collect(Collectors.toList());
         if (candidates.isEmpty())
             return null;
 
@@ -250,16 +599,29 @@ public class XbrlReader {
     }
 
     private interface ResolverFactory {
-        Resolver create(Map<String,byte[]> contentMap);
+        Resolver create(ContentCache contentCache);
     }
 
     private XbrlInstance fromZip(LocalDate dateFiled, HttpUrl httpUrl, InputStream inputStream) throws Exception {
-        ResolverFactory factory = contentMap -> new ResolverImpl(client, httpUrl, new SimpleContentCache(contentMap));
-        return fromZip(dateFiled, httpUrl.toString(), factory, inputStream);
+        ResolverFactory factory = contentCache -> configured(new ResolverImpl(client, httpUrl, withTaxonomyCache(contentCache)));
+        if (!lazyZips)
+            return fromZip(dateFiled, httpUrl.toString(), factory, inputStream);
+
+        /* ZipFile needs random access. Spool the stream to a temporary file */
+        Path spool = Files.createTempFile("xbrl", ".zip");
+        try {
+            Files.copy(inputStream, spool, StandardCopyOption.REPLACE_EXISTING);
+            return fromZip(dateFiled, httpUrl.toString(), factory, spool);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
     }
 
     private XbrlInstance fromZip(LocalDate dateFiled, Path rootPath) throws Exception {
-        ResolverFactory factory = contentMap -> new ResolverImpl(client, rootPath, new SimpleContentCache(contentMap));
+        ResolverFactory factory = contentCache -> configured(new ResolverImpl(client, rootPath, withTaxonomyCache(contentCache)));
+        if (lazyZips)
+            return fromZip(dateFiled, rootPath.toString(), factory, rootPath);
+
         try (InputStream inputStream = new FileInputStream(rootPath.toString())) {
             return fromZip(dateFiled, rootPath.toString(), factory, inputStream);
         } catch (Exception e) {
@@ -282,58 +644,74 @@ public class XbrlReader {
             throw new RuntimeException(e);
         }
 
-        List<Map.Entry<String,byte[]>> instanceEntries = getInstanceEntries(contentMap);
+        return fromZip(dateFiled, sourcePath, factory, contentMap.keySet(), new SimpleContentCache(contentMap));
+    }
+
+    private XbrlInstance fromZip(LocalDate dateFiled, String sourcePath, ResolverFactory factory, Path zipPath) throws Exception {
+        /* Only the central directory is read here. Entries are decompressed when they are first needed */
+        try (ZipContentCache contentCache = new ZipContentCache(List.of(zipPath), ZipContentCache.DEFAULT_MAX_BYTES, xbrlMedia)) {
+            log.debug("Indexed [{}] entries in [{}]", contentCache.keySet().size(), sourcePath);
+            return fromZip(dateFiled, sourcePath, factory, contentCache.keySet(), contentCache);
+        }
+    }
+
+    private XbrlInstance fromZip(LocalDate dateFiled, String sourcePath, ResolverFactory factory,
+                                 Collection<String> names, ContentCache contentCache) throws Exception {
+        List<String> instanceEntries = getInstanceEntries(names);
         if (instanceEntries == null)
             throw new RuntimeException("Instance file missing in Zip [" + sourcePath + "]");
 
         if (instanceEntries.size() == 1) {
-            Map.Entry<String,byte[]> instanceEntry = instanceEntries.get(0);
+            String instanceEntry = instanceEntries.get(0);
+            if (streamInstances) {
+                Resolver resolver = factory.create(contentCache);
+                XbrlInstance instance = streamInstance(dateFiled, resolver, new ByteArrayInputStream(contentCache.getContents(instanceEntry)));
+                if (instance != null) {
+                    resolver.clear();
+                    return instance;
+                }
+            }
 
             Element root = null;
-            try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(instanceEntry.getValue())) {
-                SAXReader saxReader = XbrlReader.saxReader();
-                Document document = saxReader.read(byteArrayInputStream);
+            try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(contentCache.getContents(instanceEntry))) {
+                Document document = parser.read(byteArrayInputStream);
                 root = document.getRootElement();
             } catch (DocumentException e) {
-                log.info("Error parsing XBRL Instance [{}] for [{}]", instanceEntry.getKey(), sourcePath);
+                log.info("Error parsing XBRL Instance [{}] for [{}]", instanceEntry, sourcePath);
                 throw e;
             }
 
             if (root == null) {
-                log.info("Root element is null for [{}, {}]", instanceEntry.getKey(), sourcePath);
+                log.info("Root element is null for [{}, {}]", instanceEntry, sourcePath);
                 throw new RuntimeException("Null root element");
             }
 
-            Resolver resolver = factory.create(contentMap);
+            Resolver resolver = factory.create(contentCache);
             XbrlInstance instance = this.getInstance(dateFiled, resolver, root);
             resolver.clear();
 
             return instance;
         } else {
-            List<Element> roots = new ArrayList<>();
-            for (Map.Entry<String,byte[]> instanceEntry : instanceEntries) {
-                try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(instanceEntry.getValue())) {
-                    SAXReader saxReader = XbrlReader.saxReader();
-                    Document document = saxReader.read(byteArrayInputStream);
-                    Element root = document.getRootElement();
-                    if (XbrlInstance.isInlineXBRL(root)) {
-                        log.info("Adding [{}] as an iXBRL root for [{}]", instanceEntry.getKey(), sourcePath);
-                        roots.add(root);
-                    } else {
-                        log.info("Skipping HTML file [{}] for [{}]. Not an iXBRL instance", instanceEntry.getKey(), sourcePath);
-                    }
-                } catch (DocumentException e) {
-                    log.info("Skipping HTML file [{}] for [{}]. [{}]", instanceEntry.getKey(), sourcePath, e.toString());
+            List<List<Element>> documents = parseEntries(instanceEntries,
+                    instanceEntry -> getIxElements(sourcePath, instanceEntry, contentCache));
+
+            /* Merge in document order */
+            List<Element> ixElements = new ArrayList<>();
+            int nOfRoots = 0;
+            for (List<Element> document : documents) {
+                if (document != null) {
+                    ixElements.addAll(document);
+                    ++nOfRoots;
                 }
             }
 
-            if (roots.isEmpty()) {
+            if (nOfRoots == 0) {
                 log.info("No root elements [{}]", sourcePath);
                 throw new RuntimeException("Zero root elements");
             }
 
-            Resolver resolver = factory.create(contentMap);
-            XbrlInstance instance = this.getInstance(dateFiled, resolver, roots);
+            Resolver resolver = factory.create(contentCache);
+            XbrlInstance instance = XbrlInstance.fromIxElements(dateFiled, resolver, ixElements, baseTaxonomies, factFilter);
             resolver.clear();
 
             return instance;
@@ -341,6 +719,9 @@ public class XbrlReader {
     }
 
     private XbrlInstance getInstance(LocalDate dateFiled, HttpUrl httpUrl) throws Exception {
+        if (urlMapping != null)
+            throw new XbrlException("Reading offline, cannot fetch [" + httpUrl + "]");
+
         Request request = new Request.Builder().cacheControl(CacheControl.FORCE_NETWORK).url(httpUrl).build();
 
         try (Response response = client.newCall(request).execute(); ResponseBody responseBody = response.body()) {
@@ -350,6 +731,8 @@ public class XbrlReader {
             if (url.endsWith(".zip")) {
                 return fromZip(dateFiled, httpUrl, responseBody.byteStream());
             } else {
+                if (streamInstances)
+                    return fromInstanceXml(dateFiled, httpUrl, responseBody.bytes());
                 return fromInstanceXml(dateFiled, httpUrl, responseBody.charStream());
             }
         } catch (Exception e) {
@@ -382,25 +765,20 @@ public class XbrlReader {
     private XbrlInstance getInstance(LocalDate dateFiled, Resolver resolver, Element root) {
         XbrlInstance xbrl;
         if (XbrlInstance.isXBRL(root)) {
-            xbrl = XbrlInstance.fromXbrlElement(dateFiled, resolver, root);
+            xbrl = XbrlInstance.fromXbrlElement(dateFiled, resolver, root, baseTaxonomies, factFilter);
             return xbrl;
         } else if (XbrlInstance.isInlineXBRL(root)) {
             /* An iXBRL document can have multiple HTML files and therefore multiple roots - using a single root may not always work */
             List<Element> roots = new ArrayList<>();
             roots.add(root);
 
-            xbrl = XbrlInstance.fromiXBRLElement(dateFiled, resolver, roots);
+            xbrl = XbrlInstance.fromiXBRLElement(dateFiled, resolver, roots, baseTaxonomies, factFilter);
             return xbrl;
         } else {
             throw new RuntimeException("xbrl instance not found");
         }
     }
 
-    private XbrlInstance getInstance(LocalDate dateFiled, Resolver resolver, List<Element> roots) {
-        XbrlInstance xbrl = XbrlInstance.fromiXBRLElement(dateFiled, resolver, roots);
-        return xbrl;
-    }
-
     public interface Resolver {
         /**
          * Returns the root path / url for this resolver
@@ -437,6 +815,16 @@ public class XbrlReader {
          */
         Element getRootElement(String absolutePath) throws Exception;
 
+        /**
+         * Returns an executor on which documents can be fetched concurrently with getRootElement. Implementations
+         * that are not thread-safe must return null.
+         *
+         * @return The executor, or null if documents must be fetched one at a time
+         */
+        default Executor getExecutor() {
+            return null;
+        }
+
         /**
          * Clears all state in this resolver. Actual behavior is implementation dependent
          */
@@ -458,6 +846,10 @@ public class XbrlReader {
         private final FileSystem fs;
         private final Path rootPath;
         private final ContentCache contentCache;
+        private DocumentCache documentCache = null;
+        private Executor executor = null;
+        private UrlMapping urlMapping = null;
+        private XmlParser parser = XmlParser.DEFAULT;
 
         /**
          * Mode 1: Implementation where every request will be fetched remotely (save for any caching)
@@ -517,6 +909,49 @@ public class XbrlReader {
             this.contentCache = contentCache;
         }
 
+        /**
+         * Share parsed documents through documentCache
+         *
+         * @param documentCache The cache of parsed documents, or null to always parse
+         * @return this resolver
+         */
+        private ResolverImpl withDocumentCache(DocumentCache documentCache) {
+            this.documentCache = documentCache;
+            return this;
+        }
+
+        /**
+         * Fetch documents discovered while collecting a taxonomy concurrently on executor
+         *
+         * @param executor The executor to fetch documents on, or null to fetch one at a time
+         * @return this resolver
+         */
+        private ResolverImpl withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Resolve urls through urlMapping and never over http
+         *
+         * @param urlMapping The mapping of url prefixes to local taxonomies, or null to resolve over http
+         * @return this resolver
+         */
+        private ResolverImpl withUrlMapping(UrlMapping urlMapping) {
+            this.urlMapping = urlMapping;
+            return this;
+        }
+
+        private ResolverImpl withParser(XmlParser parser) {
+            this.parser = parser;
+            return this;
+        }
+
+        @Override
+        public Executor getExecutor() {
+            return executor;
+        }
+
         public String getRootPath() {
             if (rootUrl != null) {
                 return rootUrl.toString();
@@ -576,7 +1011,19 @@ public class XbrlReader {
             }
         }
 
+        private interface BodyReader<T> {
+            T read(ResponseBody responseBody) throws Exception;
+        }
+
         private Element fromUrl(HttpUrl httpUrl) throws Exception {
+            return fromUrl(httpUrl, responseBody -> {
+                Reader reader = responseBody.charStream();
+                Document document = parser.read(reader);
+                return document.getRootElement();
+            });
+        }
+
+        private <T> T fromUrl(HttpUrl httpUrl, BodyReader<T> bodyReader) throws Exception {
             Request request = new Request.Builder().url(httpUrl).build();
             try (Response response = client.newCall(request).execute(); ResponseBody responseBody = response.body()) {
                 assert (responseBody != null);
@@ -596,10 +1043,7 @@ public class XbrlReader {
                         log.debug("Cache hit [{}]", httpUrl);
                     }
                 }
-                Reader reader = responseBody.charStream();
-                SAXReader saxReader = XbrlReader.saxReader();
-                Document document = saxReader.read(reader);
-                return document.getRootElement();
+                return bodyReader.read(responseBody);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
@@ -610,14 +1054,26 @@ public class XbrlReader {
                 HttpUrl httpUrl = HttpUrl.parse(absolutePath);
                 assert (httpUrl != null);
 
+                if (urlMapping != null && urlMapping.isMapped(absolutePath)) {
+                    return fromBytes(absolutePath, urlMapping.getContents(absolutePath));
+                }
+
                 if (contentCache != null) {
                     String name = lastComponentOf(absolutePath);
                     byte[] buffer = contentCache.getContents(name);
                     if (buffer != null) {
-                        return fromBytes(buffer);
+                        return fromBytes(absolutePath, buffer);
                     }
                 }
 
+                if (urlMapping != null) {
+                    throw new FileNotFoundException("Reading offline, [" + absolutePath + "] is not mapped");
+                }
+
+                if (documentCache != null) {
+                    return fromBytes(absolutePath, fromUrl(httpUrl, ResponseBody::bytes));
+                }
+
                 return fromUrl(httpUrl);
             } else {
                 Path path = fs.getPath(absolutePath);
@@ -625,14 +1081,17 @@ public class XbrlReader {
                     String name = lastComponentOf(absolutePath);
                     byte[] buffer = contentCache.getContents(name);
                     if (buffer != null) {
-                        return fromBytes(buffer);
+                        return fromBytes(absolutePath, buffer);
                     }
                 }
 
                 log.debug("Reading [{}] from [{}]", absolutePath, path);
+                if (documentCache != null) {
+                    return fromBytes(absolutePath, Files.readAllBytes(path));
+                }
+
                 try (BufferedReader reader = Files.newBufferedReader(path)) {
-                    SAXReader saxReader = XbrlReader.saxReader();
-                    Document document = saxReader.read(reader);
+                    Document document = parser.read(reader);
                     return document.getRootElement();
                 } catch (Exception e) {
                     throw new RuntimeException(e);
@@ -640,10 +1099,16 @@ public class XbrlReader {
             }
         }
 
+        private Element fromBytes(String absolutePath, byte[] buffer) throws Exception {
+            if (documentCache != null)
+                return documentCache.getRootElement(absolutePath, buffer, this::fromBytes);
+
+            return fromBytes(buffer);
+        }
+
         Element fromBytes(byte[] buffer) throws Exception {
             try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(buffer)) {
-                SAXReader saxReader = XbrlReader.saxReader();
-                Document document = saxReader.read(byteArrayInputStream);
+                Document document = parser.read(byteArrayInputStream);
                 return document.getRootElement();
             } catch (Exception e) {
                 throw new RuntimeException(e);
@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 
 public class CalculationNetwork extends CalculationTaxonomy {
     private static final Logger log = LoggerFactory.getLogger(CalculationNetwork.class);
@@ -140,13 +141,11 @@ public class CalculationNetwork extends CalculationTaxonomy {
 
         // TODO: Do we need to assert for monetary facts?
 
+        Set<Context> reportedContexts = instance.query().concept(root.getConcept()).contexts();
         List<Context> rootContexts = new ArrayList<>();
         for (Context context : contexts) {
-            for (Fact fact : context.getFacts()) {
-                if (fact.getConcept().equals(root.getConcept())) {
-                    rootContexts.add(context);
-                    break;
-                }
+            if (reportedContexts.contains(context)) {
+                rootContexts.add(context);
             }
         }
 
@@ -189,7 +188,7 @@ public class CalculationNetwork extends CalculationTaxonomy {
 
     private Result calculate(CalculationGraphNode parent, int level, PrintWriter writer, Context context) {
         Concept parentConcept = parent.getConcept();
-        Fact summation = context.getFact(parent.getConcept());
+        Fact summation = instance.getFact(context, parent.getConcept());
         if (summation == null)
             return Result.COMPLETE;
 
@@ -223,7 +222,7 @@ public class CalculationNetwork extends CalculationTaxonomy {
 
             CalculationArc arc = child.getArc();
             Concept childConcept = child.getConcept();
-            Fact item = context.getFact(childConcept);
+            Fact item = instance.getFact(context, childConcept);
             if (item == null)
                 continue;
 
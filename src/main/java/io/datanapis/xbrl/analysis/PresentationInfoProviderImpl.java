@@ -6,11 +6,12 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.time.temporal.ChronoField;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Slf4j
 class PresentationInfoProviderImpl implements PresentationInfoProvider {
     private final List<PresentationHypercube> hypercubes;
+    /* The axes of each hypercube */
+    private final Map<PresentationHypercube,Set<Concept>> hypercubeAxes = new IdentityHashMap<>();
 
     PresentationInfoProviderImpl(Collection<PresentationHypercube> hypercubes) {
         /*
@@ -336,14 +337,20 @@ class PresentationInfoProviderImpl implements PresentationInfoProvider {
     public boolean contains(PresentationGraphNode node, List<ExplicitMember> dimensions) {
         /* The dimensions of the fact must be a proper subset of the dimensions of this hypercube */
         /* We don't check members since some domains may be left unspecified in the presentation network */
-        Set<Concept> factDimensions = dimensions.stream().map(ExplicitMember::getDimension).collect(Collectors.toSet());
-
-        assert !factDimensions.isEmpty();
+        assert !dimensions.isEmpty();
         PresentationHypercube hypercube = selectHypercube(node);
-        Set<Concept> axes = hypercube.getAxes().stream().map(PresentationHypercube.PresentationAxis::getDimension)
-                .map(PresentationGraphNode::getConcept).collect(Collectors.toSet());
-        factDimensions.removeAll(axes);
-        return factDimensions.isEmpty();
+        Set<Concept> axes = hypercubeAxes.computeIfAbsent(hypercube, h -> {
+            Set<Concept> concepts = new HashSet<>();
+            for (PresentationHypercube.PresentationAxis axis : h.getAxes()) {
+                concepts.add(axis.getDimension().getConcept());
+            }
+            return concepts;
+        });
+        for (ExplicitMember member : dimensions) {
+            if (!axes.contains(member.getDimension()))
+                return false;
+        }
+        return true;
     }
 
     private PresentationHypercube.PresentationAxis getAxis(PresentationGraphNode node, Concept axis) {
@@ -20,7 +20,11 @@ import org.dom4j.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public final class ArcroleType {
+import java.io.Serializable;
+
+public final class ArcroleType implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private static final String DYNAMIC = "Dynamic";
     private static final String PREDEFINED = "predefined";
 
@@ -172,6 +176,13 @@ public final class ArcroleType {
         EXPLANATORY_FACT.definition = "Arcrole for linking fact with explanatory fact in instance document footnote link";
     }
 
+    private static final ArcroleType[] PREDEFINED_TYPES = {
+            ALL, NOT_ALL, CONCEPT_LABEL, DIMENSION_DEFAULT, DIMENSION_DOMAIN, DOMAIN_MEMBER, FACT_FOOTNOTE,
+            HYPERCUBE_DIMENSION, PARENT_CHILD, SUMMATION_ITEM, GENERAL_SPECIAL, ESSENCE_ALIAS, SIMILAR_TUPLES,
+            REQUIRES_ELEMENT, DEPRECATED_PART_CONCEPT, DEPRECATED_CONCEPT, DIMENSIONALLY_QUALIFIED_DEPRECATED_CONCEPT,
+            MUTUALLY_EXCLUSIVE_DEPRECATED_CONCEPT, DEPRECATED_AGGREGATE_CONCEPT, EXPLANATORY_FACT,
+    };
+
     private final String sourceUrl;
     private String id;
     private String arcroleURI;
@@ -287,6 +298,21 @@ public final class ArcroleType {
         return arcroleType;
     }
 
+    /**
+     * Predefined arcroles are shared constants. When a taxonomy is loaded from a compiled snapshot, map them back to
+     * the canonical instances so that identity comparisons against the constants continue to work.
+     */
+    private Object readResolve() {
+        if (PREDEFINED.equals(sourceUrl)) {
+            for (ArcroleType arcroleType : PREDEFINED_TYPES) {
+                if (arcroleType.arcroleURI.equals(arcroleURI))
+                    return arcroleType;
+            }
+        }
+
+        return this;
+    }
+
     private ArcroleType(String sourceUrl) {
         this.sourceUrl = sourceUrl;
     }
@@ -24,11 +24,14 @@ import org.dom4j.QName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Stream;
 
-public final class Concept {
+public final class Concept implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> CONCEPT_ATTRIBUTES = new HashSet<>();
     static {
         CONCEPT_ATTRIBUTES.add(TagNames.ABSTRACT_TAG);
@@ -141,7 +144,6 @@ public final class Concept {
     private LocalDate deprecatedDate;
     private final RoleLabelMap labelMap = new RoleLabelMap();
     private List<Reference> references = null;
-    private final List<Fact> facts = new ArrayList<>();
 
     public String getSourceUrl() {
         return sourceUrl;
@@ -271,18 +273,8 @@ public final class Concept {
         return labelMap.values();
     }
 
-    public List<Fact> getFacts() {
-        return facts;
-    }
-
     public void clear() {
         labelMap.clear();
-        facts.clear();
-    }
-
-    void addFact(Fact fact) {
-        assert fact.getConcept().equals(this);
-        this.facts.add(fact);
     }
 
     @Override
@@ -399,6 +391,38 @@ public final class Concept {
         return concept;
     }
 
+    /**
+     * Returns a copy of concept with its labels and references. Used when a per-filing
+     * taxonomy needs to modify (e.g. relabel) a concept that belongs to a shared base taxonomy.
+     *
+     * @param concept The concept to copy
+     * @return A copy of concept
+     */
+    public static Concept copyOf(Concept concept) {
+        Concept copy = new Concept(concept.sourceUrl);
+        copy.namespace = concept.namespace;
+        copy.prefix = concept.prefix;
+        copy.key = concept.key;
+        copy.id = concept.id;
+        copy.name = concept.name;
+        copy.qualifiedName = concept.qualifiedName;
+        copy.fixed = concept.fixed;
+        copy.abstractConcept = concept.abstractConcept;
+        copy.nillable = concept.nillable;
+        copy.substitutionGroup = concept.substitutionGroup;
+        copy.type = concept.type;
+        copy.balance = concept.balance;
+        copy.period = concept.period;
+        copy.typedDomainRef = concept.typedDomainRef;
+        copy.deprecatedDate = concept.deprecatedDate;
+        copy.labelMap.addAll(concept.labelMap);
+        if (Objects.nonNull(concept.references)) {
+            copy.references = new ArrayList<>(concept.references);
+        }
+
+        return copy;
+    }
+
     private Concept(String sourceUrl) {
         this.sourceUrl = sourceUrl;
     }
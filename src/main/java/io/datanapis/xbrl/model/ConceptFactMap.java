@@ -39,6 +39,10 @@ public class ConceptFactMap {
         return conceptFactListMap.get(concept);
     }
 
+    public Collection<FactList> getFactLists() {
+        return conceptFactListMap.values();
+    }
+
     public void sort() {
         for (Map.Entry<Concept,FactList> entry : conceptFactListMap.entrySet()) {
             entry.getValue().sort();
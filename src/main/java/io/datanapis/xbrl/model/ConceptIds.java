@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.model;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dense int ids for the axes and members of a taxonomy, used by {@link DimensionSignature}. Concepts that are equal
+ * have the same id, even if they are different objects, e.g. a base concept and its copy in an overlay taxonomy.
+ * <p>
+ * Ids are only comparable within one registry. A registry belongs to a {@link io.datanapis.xbrl.DiscoverableTaxonomySet}
+ * and goes away with it, so ids do not accumulate across filings.
+ */
+public final class ConceptIds {
+    private final Map<String,Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * @param concept An axis or member
+     * @return The id of concept
+     */
+    public int idOf(Concept concept) {
+        Integer id = ids.get(concept.getId());
+        if (id != null)
+            return id;
+        return ids.computeIfAbsent(concept.getId(), k -> nextId.getAndIncrement());
+    }
+
+    /**
+     * @param concepts Axes
+     * @return The ids of concepts, sorted and without duplicates, for {@link DimensionSignature#axesWithin(int[])}
+     */
+    public int[] axisIds(Collection<Concept> concepts) {
+        return concepts.stream().mapToInt(this::idOf).sorted().distinct().toArray();
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    public void clear() {
+        ids.clear();
+    }
+}
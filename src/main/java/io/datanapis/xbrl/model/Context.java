@@ -23,7 +23,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Set;
 
 public final class Context {
@@ -88,7 +87,8 @@ public final class Context {
     private final String namespaceUri;
     private final Entity entity;
     private final Period period;
-    private final FactList facts = new FactList();
+    /* Shared with the other contexts of the entity */
+    private final DimensionSignature signature;
 
     private Context(String namespaceUri, String id, Entity entity, Period period) {
         if (namespaceUri == null || id == null || entity == null || period == null)
@@ -98,10 +98,7 @@ public final class Context {
         this.id = id;
         this.entity = entity;
         this.period = period;
-    }
-
-    public void clear() {
-        facts.clear();
+        this.signature = entity.getSignature();
     }
 
     public String getNamespaceUri() {
@@ -120,21 +117,20 @@ public final class Context {
         return period;
     }
 
-    public List<Fact> getFacts() {
-        return facts;
-    }
-
-    void addFact(Fact fact) {
-        assert fact.getContext().equals(this);
-        this.facts.add(fact);
+    public boolean hasDimensions() {
+        return signature.hasDimensions();
     }
 
-    public void sortFacts() {
-        this.facts.sort();
+    public DimensionSignature getSignature() {
+        return signature;
     }
 
-    public boolean hasDimensions() {
-        return entity.hasDimensions();
+    /**
+     * @param other Another context
+     * @return true if both contexts have the same explicit members
+     */
+    public boolean sameDimensionsAs(Context other) {
+        return signature.sameDimensionsAs(other.signature);
     }
 
     public Set<ExplicitMember> getDimensions() {
@@ -145,18 +141,6 @@ public final class Context {
         return entity.getTypedMembers();
     }
 
-    private static boolean equalOrAfter(LocalDate inner, LocalDate outer) {
-        return inner.isEqual(outer) || inner.isAfter(outer);
-    }
-
-    private static boolean equalOrBefore(LocalDate inner, LocalDate outer) {
-        return inner.equals(outer) || inner.isBefore(outer);
-    }
-
-    private static boolean between(LocalDate date, LocalDate start, LocalDate end) {
-        return equalOrAfter(date, start) && equalOrBefore(date, end);
-    }
-
     /**
      * Check if this context is relevant to the given end date. A context is relevant if it has a period type of
      * Instant and the date of the instant matches the given end date. A context is also relevant if it has a
@@ -166,30 +150,9 @@ public final class Context {
      * @return true if this context is relevant as described above and false otherwise.
      */
     public boolean isRelevantTo(LocalDate periodEndDate) {
-        Period period = this.getPeriod();
-        if (period instanceof Instant instant) {
-            return instant.getDate().equals(periodEndDate);
-        } else {
-            assert (period instanceof Duration);
-            Duration duration = (Duration)period;
-            return between(periodEndDate, duration.getStartDate(), duration.getEndDate());
-        }
-    }
-
-    /**
-     * Get fact corresponding to Concept.
-     *
-     * @param concept The concept for the fact
-     * @return The fact is one is available, null otherwise
-     */
-    public Fact getFact(Concept concept) {
-        /* Look for a direct match - we should be considering the decimals of facts before returning them but are not */
-        for (Fact fact : facts) {
-            if (fact.getConcept().equals(concept))
-                return fact;
-        }
-
-        return null;
+        /* An instant starts and ends on its date */
+        long day = periodEndDate.toEpochDay();
+        return period.getStartEpochDay() <= day && day <= period.getEndEpochDay();
     }
 
     @Override
@@ -219,6 +182,19 @@ public final class Context {
     }
 
     public static Context fromElement(DiscoverableTaxonomySet dts, Element element) {
+        return fromElement(dts, element, new EntityPool());
+    }
+
+    /**
+     * Read a context. Periods are interned, see {@link Instant#of(LocalDate)} and
+     * {@link Duration#of(LocalDate, LocalDate)}, and the entity is interned in pool
+     *
+     * @param dts The taxonomy of the instance
+     * @param element The context element
+     * @param pool The entities of the instance
+     * @return The context
+     */
+    public static Context fromElement(DiscoverableTaxonomySet dts, Element element, EntityPool pool) {
         Namespace namespace = element.getNamespace();
         String namespaceUri = namespace.getURI();
 
@@ -230,7 +206,7 @@ public final class Context {
             String childName = child.getName();
             switch (childName) {
                 case TagNames.ENTITY_TAG:
-                    entity = Entity.fromElement(dts, child);
+                    entity = Entity.fromElement(dts, child, pool);
                     break;
                 case TagNames.PERIOD_TAG:
                     period = Period.fromElement(child);
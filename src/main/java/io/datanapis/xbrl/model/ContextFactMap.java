@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ContextFactMap {
+    /* Contexts with fewer facts are scanned, an index costs more than it saves */
+    private static final int MIN_INDEXED_FACTS = 8;
+
+    private final Map<Context,FactList> contextFactListMap = new HashMap<>();
+    /* The concept index of a context, built on the first getFact and dropped when the facts of the context change */
+    private final Map<Context,Map<Concept,Fact>> conceptIndexes = new ConcurrentHashMap<>();
+
+    public ContextFactMap() {
+    }
+
+    public void clear() {
+        contextFactListMap.forEach((k, v) -> v.clear());
+        contextFactListMap.clear();
+        conceptIndexes.clear();
+    }
+
+    public void add(Fact fact) {
+        FactList factList = contextFactListMap.computeIfAbsent(fact.getContext(), k -> new FactList());
+        factList.add(fact);
+        conceptIndexes.remove(fact.getContext());
+    }
+
+    public List<Fact> getFactsFor(Context context) {
+        FactList factList = contextFactListMap.get(context);
+        return (factList != null) ? factList : Collections.emptyList();
+    }
+
+    /**
+     * Get fact corresponding to concept in context. If the context has more than one fact for concept, the first
+     * in the order of {@link #getFactsFor(Context)} is returned, i.e. the first after {@link #sort()}.
+     *
+     * @param context The context of the fact
+     * @param concept The concept for the fact
+     * @return The fact is one is available, null otherwise
+     */
+    public Fact getFact(Context context, Concept concept) {
+        List<Fact> facts = getFactsFor(context);
+        if (facts.size() < MIN_INDEXED_FACTS) {
+            /* Look for a direct match - we should be considering the decimals of facts before returning them but are not */
+            for (Fact fact : facts) {
+                if (fact.getConcept().equals(concept))
+                    return fact;
+            }
+            return null;
+        }
+
+        return conceptIndexes.computeIfAbsent(context, k -> index(facts)).get(concept);
+    }
+
+    private static Map<Concept,Fact> index(List<Fact> facts) {
+        Map<Concept,Fact> index = new HashMap<>((int)(facts.size() / 0.75f) + 1);
+        for (Fact fact : facts) {
+            /* Keep the first fact of a concept, as a scan would */
+            index.putIfAbsent(fact.getConcept(), fact);
+        }
+        return index;
+    }
+
+    public void sort() {
+        for (Map.Entry<Context,FactList> entry : contextFactListMap.entrySet()) {
+            entry.getValue().sort();
+        }
+        conceptIndexes.clear();
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.model;
+
+import java.util.*;
+
+/**
+ * The dimensions of a context in a form that is cheap to compare: the explicit members sorted by axis id, with their
+ * member ids, the typed members sorted by axis id, and a 64-bit hash of both. Axis and member ids are those of the
+ * taxonomy of the instance (see {@link ConceptIds}), so signatures are comparable within an instance.
+ * <p>
+ * A signature is computed when a context is read and is immutable. None of the checks allocate.
+ */
+public final class DimensionSignature {
+    public static final DimensionSignature NO_DIMENSIONS = of(new ConceptIds(), List.of(), List.of());
+
+    /* Explicit members sorted by axis id; members[i] is the member id of explicitMembers[i] */
+    private final int[] axes;
+    private final int[] members;
+    private final ExplicitMember[] explicitMembers;
+    /* Typed members sorted by axis id */
+    private final int[] typedAxes;
+    private final String[] typedValues;
+    private final long hash;
+
+    /**
+     * @param ids The concept ids of the taxonomy of the members
+     * @param explicitMemberCollection The explicit members
+     * @param typedMemberCollection The typed members
+     * @return The signature of the members
+     */
+    public static DimensionSignature of(ConceptIds ids, Collection<ExplicitMember> explicitMemberCollection,
+                                        Collection<TypedMember> typedMemberCollection) {
+        return new DimensionSignature(ids, explicitMemberCollection, typedMemberCollection);
+    }
+
+    private DimensionSignature(ConceptIds ids, Collection<ExplicitMember> explicitMemberCollection,
+                               Collection<TypedMember> typedMemberCollection) {
+        ExplicitMember[] unsorted = explicitMemberCollection.toArray(new ExplicitMember[0]);
+        int[] axisIds = new int[unsorted.length];
+        int[] memberIds = new int[unsorted.length];
+        Integer[] explicitOrder = new Integer[unsorted.length];
+        for (int i = 0; i < unsorted.length; i++) {
+            axisIds[i] = ids.idOf(unsorted[i].getDimension());
+            memberIds[i] = ids.idOf(unsorted[i].getMember());
+            explicitOrder[i] = i;
+        }
+        Arrays.sort(explicitOrder, Comparator.comparingInt((Integer i) -> axisIds[i]).thenComparingInt(i -> memberIds[i]));
+        explicitMembers = new ExplicitMember[unsorted.length];
+        axes = new int[unsorted.length];
+        members = new int[unsorted.length];
+        for (int i = 0; i < explicitOrder.length; i++) {
+            explicitMembers[i] = unsorted[explicitOrder[i]];
+            axes[i] = axisIds[explicitOrder[i]];
+            members[i] = memberIds[explicitOrder[i]];
+        }
+
+        TypedMember[] typedMembers = typedMemberCollection.toArray(new TypedMember[0]);
+        int[] typedAxisIds = new int[typedMembers.length];
+        for (int i = 0; i < typedMembers.length; i++) {
+            typedAxisIds[i] = ids.idOf(typedMembers[i].getDimension());
+        }
+        Integer[] order = new Integer[typedMembers.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> typedAxisIds[i])
+                .thenComparing(i -> typedMembers[i].getMember()));
+        typedAxes = new int[typedMembers.length];
+        typedValues = new String[typedMembers.length];
+        for (int i = 0; i < order.length; i++) {
+            typedAxes[i] = typedAxisIds[order[i]];
+            typedValues[i] = typedMembers[order[i]].getMember();
+        }
+
+        long h = 1;
+        for (int i = 0; i < axes.length; i++) {
+            h = 31 * h + (((long)axes[i] << 32) | (members[i] & 0xffffffffL));
+        }
+        for (int i = 0; i < typedAxes.length; i++) {
+            h = 31 * h + (((long)typedAxes[i] << 32) | (typedValues[i].hashCode() & 0xffffffffL));
+        }
+        hash = mix(h);
+    }
+
+    /* The finalizer of SplitMix64, so that the bits of the hash are well distributed */
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * @return true if there are explicit members. As for {@link Context#hasDimensions()}, typed members are not counted
+     */
+    public boolean hasDimensions() {
+        return axes.length > 0;
+    }
+
+    public boolean hasTypedMembers() {
+        return typedAxes.length > 0;
+    }
+
+    /**
+     * @return The number of explicit members
+     */
+    public int size() {
+        return axes.length;
+    }
+
+    public int getAxis(int index) {
+        return axes[index];
+    }
+
+    public int getMember(int index) {
+        return members[index];
+    }
+
+    public ExplicitMember getExplicitMember(int index) {
+        return explicitMembers[index];
+    }
+
+    /**
+     * @param axisId The id of an axis
+     * @return The index of the explicit member on the axis, or a negative value if there is none
+     */
+    public int indexOf(int axisId) {
+        return Arrays.binarySearch(axes, axisId);
+    }
+
+    public boolean hasAxis(int axisId) {
+        return indexOf(axisId) >= 0;
+    }
+
+    /**
+     * @param axisId The id of an axis
+     * @param memberId The id of a member
+     * @return true if the explicit member on the axis is the member
+     */
+    public boolean hasMember(int axisId, int memberId) {
+        int index = indexOf(axisId);
+        return index >= 0 && members[index] == memberId;
+    }
+
+    /**
+     * @param axisIds Axis ids, sorted and without duplicates, see {@link ConceptIds#axisIds(Collection)}
+     * @return true if every axis of the explicit members is one of axisIds
+     */
+    public boolean axesWithin(int[] axisIds) {
+        int j = 0;
+        for (int axis : axes) {
+            while (j < axisIds.length && axisIds[j] < axis)
+                ++j;
+            if (j == axisIds.length || axisIds[j] != axis)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param other Another signature
+     * @return true if both have the same explicit members
+     */
+    public boolean sameDimensionsAs(DimensionSignature other) {
+        return Arrays.equals(axes, other.axes) && Arrays.equals(members, other.members);
+    }
+
+    /**
+     * @return A 64-bit hash of the explicit and typed members
+     */
+    public long hash() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        DimensionSignature that = (DimensionSignature) o;
+
+        return hash == that.hash && sameDimensionsAs(that) && Arrays.equals(typedAxes, that.typedAxes) &&
+                Arrays.equals(typedValues, that.typedValues);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DimensionSignature(%s, %d typed, %016x)", Arrays.toString(explicitMembers),
+                typedAxes.length, hash);
+    }
+}
@@ -15,15 +15,32 @@
  */
 package io.datanapis.xbrl.model;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 
 public final class Duration implements Period {
+    private static final Interner<Duration> DURATIONS = Interners.newWeakInterner();
+
     private final LocalDate startDate, endDate;
+    /* Epoch days of startDate and endDate, used for all comparisons */
+    private final int startDay, endDay;
 
-    Duration(LocalDate startDate, LocalDate endDate) {
+    private Duration(LocalDate startDate, LocalDate endDate) {
         this.startDate = startDate;
         this.endDate = endDate;
+        this.startDay = (int)startDate.toEpochDay();
+        this.endDay = (int)endDate.toEpochDay();
+    }
+
+    /**
+     * @param startDate The start date
+     * @param endDate The end date
+     * @return The duration from startDate to endDate. Equal durations are the same instance
+     */
+    public static Duration of(LocalDate startDate, LocalDate endDate) {
+        return DURATIONS.intern(new Duration(startDate, endDate));
     }
 
     public LocalDate getStartDate() {
@@ -35,23 +52,25 @@ public final class Duration implements Period {
     }
 
     public Instant getEndDateAsInstant() {
-        return new Instant(endDate);
+        return Instant.of(endDate);
     }
 
-    public Type getType() {
-        return Type.DURATION;
+    @Override
+    public int getStartEpochDay() {
+        return startDay;
     }
 
-    private static boolean equalOrAfter(LocalDate inner, LocalDate outer) {
-        return inner.isEqual(outer) || inner.isAfter(outer);
+    @Override
+    public int getEndEpochDay() {
+        return endDay;
     }
 
-    private static boolean equalOrBefore(LocalDate inner, LocalDate outer) {
-        return inner.equals(outer) || inner.isBefore(outer);
+    public Type getType() {
+        return Type.DURATION;
     }
 
-    private static boolean between(LocalDate date, LocalDate start, LocalDate end) {
-        return equalOrAfter(date, start) && equalOrBefore(date, end);
+    private static boolean between(int day, int start, int end) {
+        return day >= start && day <= end;
     }
 
     public int compareTo(Duration rhs) {
@@ -80,30 +99,25 @@ public final class Duration implements Period {
          *         |-------|     (rhs)
          */
         Duration lhs = this;
-        if (lhs.endDate.isBefore(rhs.startDate)) {
+        if (lhs.endDay < rhs.startDay) {
             /* Clearly lhs.start has to be earlier than rhs.start as well */
             return -1;
         }
-        if (rhs.endDate.isBefore(lhs.startDate)) {
+        if (rhs.endDay < lhs.startDay) {
             /* Again, rhs.start has to be earlier than lhs.start */
             return 1;
         }
-        if (lhs.startDate.isBefore(rhs.startDate)) {
-            /* lhs starts before rhs */
-            return -1;
-        }
-        if (lhs.startDate.isAfter(rhs.startDate)) {
-            /* lhs starts after rhs */
-            return 1;
+        if (lhs.startDay != rhs.startDay) {
+            /* One starts before the other */
+            return Integer.compare(lhs.startDay, rhs.startDay);
         }
 
-        assert lhs.startDate.equals(rhs.startDate);
-        return lhs.endDate.compareTo(rhs.endDate);
+        return Integer.compare(lhs.endDay, rhs.endDay);
     }
 
     @Override
     public long durationInDays() {
-        return ChronoUnit.DAYS.between(startDate, endDate);
+        return endDay - startDay;
     }
 
     @Override
@@ -112,8 +126,7 @@ public final class Duration implements Period {
             return false;
 
         Duration outer = (Duration)rhs;
-        return (this.startDate.equals(outer.startDate) || between(this.startDate, outer.startDate, outer.endDate)) &&
-                this.endDate.equals(outer.endDate);
+        return between(this.startDay, outer.startDay, outer.endDay) && this.endDay == outer.endDay;
     }
 
     @Override
@@ -123,15 +136,12 @@ public final class Duration implements Period {
 
         Duration duration = (Duration) o;
 
-        if (!startDate.equals(duration.startDate)) return false;
-        return endDate.equals(duration.endDate);
+        return startDay == duration.startDay && endDay == duration.endDay;
     }
 
     @Override
     public int hashCode() {
-        int result = startDate.hashCode();
-        result = 31 * result + endDate.hashCode();
-        return result;
+        return 31 * startDay + endDay;
     }
 
     @Override
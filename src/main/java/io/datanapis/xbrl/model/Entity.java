@@ -50,12 +50,27 @@ public final class Entity {
      */
     private final Set<TypedMember> typedMembers = new LinkedHashSet<>();
 
+    /* Computed once the entity has been read and interned, with the concept ids of its taxonomy */
+    private volatile DimensionSignature signature = DimensionSignature.NO_DIMENSIONS;
+
     private static Concept getConcept(DiscoverableTaxonomySet dts, QName name) {
         Concept concept = dts.getConcept(name);
         return concept;
     }
 
     public static Entity fromElement(DiscoverableTaxonomySet dts, Element element) {
+        return fromElement(dts, element, new EntityPool());
+    }
+
+    /**
+     * Read an entity and intern it in pool. Contexts with equal entities then share the same entity
+     *
+     * @param dts The taxonomy of the instance
+     * @param element The entity element
+     * @param pool The entities of the instance
+     * @return The entity of pool equal to the entity read
+     */
+    public static Entity fromElement(DiscoverableTaxonomySet dts, Element element, EntityPool pool) {
         Entity entity = null;
         for (Element child : element.elements()) {
             Attribute attribute;
@@ -77,7 +92,7 @@ public final class Entity {
                                         new ExplicitMember(getConcept(dts, dimension),
                                                 getConcept(dts, member));
                                 assert entity != null;
-                                entity.addDimension(explicitMember);
+                                entity.addDimension(pool.intern(explicitMember));
                                 break;
                             case TagNames.TYPED_MEMBER_TAG:
                                 attribute = segmentChild.attribute(TagNames.DIMENSION_TAG);
@@ -105,7 +120,14 @@ public final class Entity {
             }
         }
 
-        return entity;
+        if (entity == null)
+            return null;
+
+        Entity canonical = pool.intern(entity);
+        if (canonical == entity && (entity.hasDimensions() || entity.hasTypedMembers())) {
+            entity.signature = DimensionSignature.of(dts.getConceptIds(), entity.explicitMembers, entity.typedMembers);
+        }
+        return canonical;
     }
 
     private Entity(String scheme, String id) {
@@ -140,21 +162,25 @@ public final class Entity {
     }
 
     public Set<ExplicitMember> getDimensions() {
-        return explicitMembers;
+        return Collections.unmodifiableSet(explicitMembers);
     }
 
-    public void addDimension(ExplicitMember member) {
+    private void addDimension(ExplicitMember member) {
         explicitMembers.add(member);
     }
 
     public Set<TypedMember> getTypedMembers() {
-        return typedMembers;
+        return Collections.unmodifiableSet(typedMembers);
     }
 
-    public void addTypedMember(TypedMember member) {
+    private void addTypedMember(TypedMember member) {
         typedMembers.add(member);
     }
 
+    public DimensionSignature getSignature() {
+        return signature;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -163,13 +189,17 @@ public final class Entity {
         Entity entity = (Entity) o;
 
         if (!scheme.equals(entity.scheme)) return false;
-        return id.equals(entity.id);
+        if (!id.equals(entity.id)) return false;
+        if (!explicitMembers.equals(entity.explicitMembers)) return false;
+        return typedMembers.equals(entity.typedMembers);
     }
 
     @Override
     public int hashCode() {
         int result = scheme.hashCode();
         result = 31 * result + id.hashCode();
+        result = 31 * result + explicitMembers.hashCode();
+        result = 31 * result + typedMembers.hashCode();
         return result;
     }
 
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The distinct entities and explicit members of an instance. A filing with thousands of contexts usually has only a
+ * few dozen distinct entities, so contexts with equal entities share one {@link Entity}, with one set of members and
+ * one {@link DimensionSignature}. Members are shared across entities as well.
+ * <p>
+ * Entities refer to the concepts of a taxonomy, so a pool belongs to one instance. A pool is not thread-safe.
+ */
+public final class EntityPool {
+    private final Map<Entity,Entity> entities = new HashMap<>();
+    private final Map<ExplicitMember,ExplicitMember> members = new HashMap<>();
+
+    /**
+     * @param entity A complete entity
+     * @return The entity of the pool equal to entity, adding entity if there is none
+     */
+    public Entity intern(Entity entity) {
+        Entity existing = entities.putIfAbsent(entity, entity);
+        return (existing != null) ? existing : entity;
+    }
+
+    /**
+     * @param member An explicit member
+     * @return The member of the pool equal to member, adding member if there is none
+     */
+    public ExplicitMember intern(ExplicitMember member) {
+        ExplicitMember existing = members.putIfAbsent(member, member);
+        return (existing != null) ? existing : member;
+    }
+
+    /**
+     * @return The number of distinct entities
+     */
+    public int size() {
+        return entities.size();
+    }
+
+    public void clear() {
+        entities.clear();
+        members.clear();
+    }
+}
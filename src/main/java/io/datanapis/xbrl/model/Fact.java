@@ -15,8 +15,11 @@
  */
 package io.datanapis.xbrl.model;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import io.datanapis.xbrl.TagNames;
 import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.utils.DecimalParser;
 import io.datanapis.xbrl.utils.IxtTransform;
 import io.datanapis.xbrl.utils.JsonUtils;
 import io.datanapis.xbrl.utils.XmlUtils;
@@ -25,13 +28,35 @@ import org.dom4j.Attribute;
 import org.dom4j.Element;
 import org.dom4j.QName;
 import org.jsoup.Jsoup;
+import org.jsoup.safety.Safelist;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A fact reported in an instance. Numeric values are held unboxed in a single long, with the kind of the value
+ * telling how to read it, and short values are shared through a weak, process-wide pool.
+ * For a columnar view of the facts of an instance see {@link FactTable}.
+ */
 public final class Fact {
     private static final Logger log = LoggerFactory.getLogger(Fact.class);
+    /* Read-only once built, so it can be shared by all threads. Use relaxed list to not skip tables */
+    private static final Safelist SAFELIST = JsonUtils.relaxed();
+    /*
+     * Short values repeat across facts and filings ("0", "true", "FY", dates, small amounts). They are shared
+     * by all facts of all instances; the pool holds them weakly so that it shrinks as instances are released.
+     */
+    private static final Interner<String> VALUES = Interners.newWeakInterner();
+    private static final int MAX_POOLED_LENGTH = 32;
+    /* Generated fact ids start with '~', which never appears in an XML id, so they cannot clash with document ids */
+    private static final AtomicLong GENERATED_IDS = new AtomicLong();
 
     /* Sample Facts
        -- XBRL facts
@@ -56,11 +81,15 @@ public final class Fact {
     private String id;
     private Context context;
     private Unit unit;
-    private String value;
-    private Long longValue;
-    private Double doubleValue;
+    /* Either the value or, for text facts that have not been read yet, the RawValue it is sanitized from */
+    private Object value;
+    /* Numeric values are held unboxed. kind tells whether bits holds a long, the raw bits of a double, or nothing */
+    private DecimalParser.Kind kind = DecimalParser.Kind.NONE;
+    private long bits;
     private int decimals;
     private boolean nil;
+    /* True if the value of an iXBRL fact does not match its format */
+    private boolean invalid;
     private Footnote footnote;
 
     public Concept getConcept() {
@@ -79,16 +108,37 @@ public final class Fact {
         return unit;
     }
 
+    /**
+     * Returns the value of this fact. The values of text facts are sanitized the first time they are read.
+     */
     public String getValue() {
-        return value;
+        Object v = value;
+        if (v instanceof RawValue rawValue) {
+            String sanitized = rawValue.sanitize();
+            value = sanitized;
+            return sanitized;
+        }
+        return (String)v;
     }
 
     public Long getLongValue() {
-        return longValue;
+        return (kind == DecimalParser.Kind.LONG) ? bits : null;
     }
 
     public Double getDoubleValue() {
-        return doubleValue;
+        return (kind == DecimalParser.Kind.DOUBLE) ? Double.longBitsToDouble(bits) : null;
+    }
+
+    /* The numeric value of this fact, or NaN if it does not have one */
+    double numericValue() {
+        switch (kind) {
+            case LONG:
+                return bits;
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            default:
+                return Double.NaN;
+        }
     }
 
     public int getDecimals() {
@@ -99,6 +149,14 @@ public final class Fact {
         return nil;
     }
 
+    /**
+     * Returns true if the content of this iXBRL fact does not match its format, e.g. "12a" for ixt:num-dot-decimal.
+     * The value of an invalid fact is its content as reported and it has no numeric value.
+     */
+    public boolean isInvalid() {
+        return invalid;
+    }
+
     public boolean hasExplicitMembers() {
         return context != null && context.hasDimensions();
     }
@@ -112,7 +170,7 @@ public final class Fact {
 
     public static int compareStringValue(Fact lhs, Fact rhs) {
         /* Sort on just the stringValue. Anything else can create an unstable sort. stringValue is always available! */
-        return lhs.value.compareTo(rhs.value);
+        return lhs.getValue().compareTo(rhs.getValue());
     }
 
     /**
@@ -151,20 +209,9 @@ public final class Fact {
         }
 
         /* Either both units are null or both have the same value */
-        double v1 = Double.NaN;
-        double v2 = Double.NaN;
-        if (lhs.longValue != null) {
-            v1 = lhs.longValue * multiplier;
-        } else if (lhs.doubleValue != null) {
-            v1 = lhs.doubleValue * multiplier;
-        }
-
+        double v1 = lhs.numericValue() * multiplier;
         if (!Double.isNaN(v1)) {
-            if (rhs.longValue != null) {
-                v2 = rhs.longValue * multiplier;
-            } else if (rhs.doubleValue != null) {
-                v2 = rhs.doubleValue * multiplier;
-            }
+            double v2 = rhs.numericValue() * multiplier;
             if (!Double.isNaN(v2)) {
                 if (lhs.decimals < 0 && rhs.decimals < 0) {
                     return Long.compare(Math.round(v1), Math.round(v2));
@@ -262,20 +309,9 @@ public final class Fact {
         }
 
         /* Either both units are null or both have the same value */
-        double v1 = Double.NaN;
-        double v2 = Double.NaN;
-        if (longValue != null) {
-            v1 = longValue * multiplier;
-        } else if (doubleValue != null) {
-            v1 = doubleValue * multiplier;
-        }
-
+        double v1 = numericValue() * multiplier;
         if (!Double.isNaN(v1)) {
-            if (fact.longValue != null) {
-                v2 = fact.longValue * multiplier;
-            } else if (fact.doubleValue != null) {
-                v2 = fact.doubleValue * multiplier;
-            }
+            double v2 = fact.numericValue() * multiplier;
             if (decimals < 0 && fact.decimals < 0) {
                 return Math.round(v1) == Math.round(v2);
             } else {
@@ -283,7 +319,7 @@ public final class Fact {
             }
         }
 
-        return value.compareTo(fact.value) == 0;
+        return getValue().compareTo(fact.getValue()) == 0;
     }
 
     @Override
@@ -300,11 +336,11 @@ public final class Fact {
 
     @Override
     public String toString() {
-        String factValue = value;
-        if (longValue != null) {
-            factValue = String.format("%d", longValue);
-        } else if (doubleValue != null) {
-            factValue = String.format("%.2f", doubleValue);
+        String factValue = getValue();
+        if (kind == DecimalParser.Kind.LONG) {
+            factValue = String.format("%d", bits);
+        } else if (kind == DecimalParser.Kind.DOUBLE) {
+            factValue = String.format("%.2f", Double.longBitsToDouble(bits));
         }
         return String.format("[%s][%s] = [%s/%d] (%s.%s/%s/%s)", concept.getQualifiedName(), context.getPeriod().toString(),
                 factValue, decimals, concept.getType().getName(), unit, concept.getBalance(), concept.getPeriod());
@@ -343,12 +379,12 @@ public final class Fact {
             fact.concept = instance.getConcept(name);
             assert (fact.concept != null) : String.format("Missing concept [%s]", name);
         }
-        fact.concept.addFact(fact);
 
         String format = null;
         boolean escape = !isInlineXBRL;
         int sign = 1;
         int scale = 0;
+        boolean numeric = false;
         for (Attribute attribute : element.attributes()) {
             switch (attribute.getName()) {
                 case TagNames.ID_TAG:
@@ -357,9 +393,10 @@ public final class Fact {
                 case TagNames.CONTEXT_REF_TAG:
                     String contextId = attribute.getValue();
                     fact.context = instance.getContext(contextId);
-                    fact.context.addFact(fact);
                     break;
                 case TagNames.UNIT_REF_TAG:
+                    /* Only numeric items have units */
+                    numeric = true;
                     String unitId = attribute.getValue();
                     fact.unit = instance.getUnit(unitId);
                     break;
@@ -417,17 +454,17 @@ public final class Fact {
         /*
          * ids are null sometimes. Fact ids are not that critical for correctness. However, ids are used to
          * connect facts to footnotes. Having null id's means that several parts of the code will need to deal
-         * with it. Hence, generating a random id for now.
+         * with it. Hence, such facts get a short id from a process-wide counter.
          */
         if (fact.id == null) {
-            fact.id = UUID.randomUUID().toString();
+            fact.id = "~" + Long.toString(GENERATED_IDS.incrementAndGet(), Character.MAX_RADIX);
         }
 
         /* Check and initialize value if fact is nil */
         if (fact.nil) {
             fact.value = "";
-            fact.longValue = 0L;
-            fact.doubleValue = null;
+            fact.kind = DecimalParser.Kind.LONG;
+            fact.bits = 0L;
             return fact;
         }
 
@@ -443,41 +480,152 @@ public final class Fact {
             } else {
                 elementContent = XmlUtils.asString(element);
             }
-            if (escape) {
-                elementContent = StringEscapeUtils.unescapeHtml4(elementContent);
-            }
             if (format != null) {
-                fact.value = IxtTransform.transformWithFormat(format, elementContent);
+                if (escape) {
+                    elementContent = StringEscapeUtils.unescapeHtml4(elementContent);
+                }
+                StringBuilder transformed = new StringBuilder(elementContent.length());
+                IxtTransform.Result result = IxtTransform.transform(format, elementContent, transformed);
+                if (result != IxtTransform.Result.OK) {
+                    log.warn("Fact [{}] of [{}]: value [{}] does not match format [{}]: [{}]",
+                            fact.id, conceptName, elementContent, format, result);
+                    fact.value = pooled(elementContent);
+                    fact.invalid = true;
+                    return fact;
+                }
+                fact.value = pooled(transformed.toString());
+            } else if (element.getName().equals(TagNames.NON_NUMERIC_TAG) || (!isInlineXBRL && fact.getConcept().isText())) {
+                /* Text values are never numeric. Sanitize them only if and when they are read */
+                fact.value = RawValue.of(elementContent, escape);
+                return fact;
             } else {
-                fact.value = Jsoup.clean(elementContent, JsonUtils.relaxed());    /* Use relaxed list to not skip tables */
+                fact.value = pooled(sanitize(elementContent, escape));
             }
 
-            if (element.getName().equals(TagNames.NON_NUMERIC_TAG)) {
+            if (element.getName().equals(TagNames.NON_NUMERIC_TAG) || !numeric) {
                 return fact;
             }
 
-            try {
-                double multiplier = Math.pow(10, scale);
-                double doubleValue = Double.parseDouble(fact.getValue()) * multiplier * sign;
-
-                /* Check if the double is actually a long and treat it as such if it is */
-                if (Math.abs(doubleValue - (long)doubleValue) < 0.0001) {
-                    fact.longValue = (long)doubleValue;
-                } else {
-                    fact.doubleValue = doubleValue;
-                }
-            } catch (NumberFormatException ignored) {
+            DecimalParser parser = new DecimalParser();
+            if (parser.parse(fact.getValue(), scale, sign)) {
+                fact.kind = parser.getKind();
+                fact.bits = (fact.kind == DecimalParser.Kind.LONG) ?
+                        parser.getLongValue() : Double.doubleToRawLongBits(parser.getDoubleValue());
             }
         } else {
             /* Only the value is from the value ixElement. All other attributes are from the original element */
-            fact.value = valueFact.value;
-            fact.longValue = valueFact.longValue;
-            fact.doubleValue = valueFact.doubleValue;
+            fact.value = valueFact.getValue();
+            fact.invalid = valueFact.invalid;
+            fact.kind = valueFact.kind;
+            fact.bits = valueFact.bits;
         }
 
         return fact;
     }
 
+    private static String pooled(String value) {
+        return (value != null && value.length() <= MAX_POOLED_LENGTH) ? VALUES.intern(value) : value;
+    }
+
+    /* Unescapes content if required and removes any markup that is not in SAFELIST */
+    private static String sanitize(String content, boolean escape) {
+        if (escape) {
+            content = StringEscapeUtils.unescapeHtml4(content);
+        }
+        if (isPlainText(content))
+            return content;
+
+        return Jsoup.clean(content, SAFELIST);
+    }
+
+    /**
+     * True if Jsoup.clean would return content unchanged, i.e. content has no markup, no characters that are
+     * escaped on output and no whitespace that is normalized on output. Most facts pass, skipping the HTML parse.
+     */
+    static boolean isPlainText(String content) {
+        int length = content.length();
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+            switch (c) {
+                case '<', '>', '&', '\u00a0':
+                    return false;
+                case ' ':
+                    if (i == 0 || i == length - 1 || content.charAt(i - 1) == ' ')
+                        return false;
+                    break;
+                default:
+                    if (Character.isWhitespace(c) || Character.isISOControl(c) || Character.isSurrogate(c))
+                        return false;
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The content of a text fact before it is unescaped and sanitized. Large contents are held compressed.
+     */
+    private static final class RawValue {
+        /* Contents at least this long are compressed */
+        private static final int COMPRESSION_THRESHOLD = 4096;
+
+        private final byte[] bytes;
+        /* The length of the uncompressed content in bytes, or -1 if bytes are not compressed */
+        private final int length;
+        private final boolean escape;
+
+        private RawValue(byte[] bytes, int length, boolean escape) {
+            this.bytes = bytes;
+            this.length = length;
+            this.escape = escape;
+        }
+
+        private static RawValue of(String content, boolean escape) {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length < COMPRESSION_THRESHOLD)
+                return new RawValue(bytes, -1, escape);
+
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(bytes);
+                deflater.finish();
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4);
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(buffer);
+                    outputStream.write(buffer, 0, n);
+                }
+                return new RawValue(outputStream.toByteArray(), bytes.length, escape);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private String content() {
+            if (length < 0)
+                return new String(bytes, StandardCharsets.UTF_8);
+
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(bytes);
+                byte[] content = new byte[length];
+                int offset = 0;
+                while (offset < length && !inflater.finished()) {
+                    offset += inflater.inflate(content, offset, length - offset);
+                }
+                return new String(content, 0, offset, StandardCharsets.UTF_8);
+            } catch (DataFormatException e) {
+                throw new RuntimeException(e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        private String sanitize() {
+            return Fact.sanitize(content(), escape);
+        }
+    }
+
     private Fact setValue(List<Element> elements) {
         return this;
     }
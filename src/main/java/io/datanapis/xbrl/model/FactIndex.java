@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.model;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * The indexes {@link FactQuery} answers from. The facts stay in the per-concept and per-context fact lists of the
+ * instance; the index only maps periods, end dates, axes and members to the contexts they occur in, which are few
+ * even when there are many facts. The index of units to the fact lists of the concepts reported in them is the only
+ * one that reads the facts, and is built on the first query that is driven by a unit.
+ * <p>
+ * An index is immutable once built and safe to share across threads.
+ */
+public final class FactIndex {
+    private final ConceptFactMap conceptFacts;
+    private final ContextFactMap contextFacts;
+    private final Map<Period,List<Context>> periodContexts = new HashMap<>();
+    /* The periods ending on a date, i.e. instants on the date and durations with the date as end date */
+    private final Map<LocalDate,List<Period>> periodsEndingOn = new HashMap<>();
+    /* The contexts without explicit members. As for Context.hasDimensions(), typed members are not counted */
+    private final List<Context> contextsWithoutDimensions = new ArrayList<>();
+    /* The contexts with a member, explicit or typed, on an axis */
+    private final Map<Concept,List<Context>> axisContexts = new HashMap<>();
+    private final Map<ExplicitMember,List<Context>> memberContexts = new HashMap<>();
+    /* Built on first use */
+    private volatile Map<Unit,List<FactList>> unitFactLists;
+
+    /**
+     * Builds the index of the facts of an instance
+     *
+     * @param contexts The contexts of the instance
+     * @param conceptFacts The facts of the instance by concept
+     * @param contextFacts The facts of the instance by context
+     * @return The index
+     */
+    public static FactIndex of(Collection<Context> contexts, ConceptFactMap conceptFacts, ContextFactMap contextFacts) {
+        return new FactIndex(contexts, conceptFacts, contextFacts);
+    }
+
+    private FactIndex(Collection<Context> contexts, ConceptFactMap conceptFacts, ContextFactMap contextFacts) {
+        this.conceptFacts = conceptFacts;
+        this.contextFacts = contextFacts;
+
+        for (Context context : contexts) {
+            Period period = context.getPeriod();
+            periodContexts.computeIfAbsent(period, k -> new ArrayList<>()).add(context);
+            if (!context.hasDimensions()) {
+                contextsWithoutDimensions.add(context);
+            }
+            for (ExplicitMember member : context.getDimensions()) {
+                axisContexts.computeIfAbsent(member.getDimension(), k -> new ArrayList<>()).add(context);
+                memberContexts.computeIfAbsent(member, k -> new ArrayList<>()).add(context);
+            }
+            for (TypedMember member : context.getTypedMembers()) {
+                axisContexts.computeIfAbsent(member.getDimension(), k -> new ArrayList<>()).add(context);
+            }
+        }
+
+        for (Period period : periodContexts.keySet()) {
+            LocalDate endDate = LocalDate.ofEpochDay(period.getEndEpochDay());
+            periodsEndingOn.computeIfAbsent(endDate, k -> new ArrayList<>()).add(period);
+        }
+    }
+
+    /**
+     * @return The distinct periods of the contexts
+     */
+    public Set<Period> getPeriods() {
+        return Collections.unmodifiableSet(periodContexts.keySet());
+    }
+
+    public List<Context> getContexts(Period period) {
+        return periodContexts.getOrDefault(period, List.of());
+    }
+
+    /**
+     * @param date A date
+     * @return The instants on date and the durations ending on date
+     */
+    public List<Period> getPeriodsEndingOn(LocalDate date) {
+        return periodsEndingOn.getOrDefault(date, List.of());
+    }
+
+    public List<Context> getContextsWithoutDimensions() {
+        return contextsWithoutDimensions;
+    }
+
+    /**
+     * @param axis An axis, explicit or typed
+     * @return The contexts with a member on axis
+     */
+    public List<Context> getAxisContexts(Concept axis) {
+        return axisContexts.getOrDefault(axis, List.of());
+    }
+
+    /**
+     * @param member An explicit member
+     * @return The contexts that include member
+     */
+    public List<Context> getMemberContexts(ExplicitMember member) {
+        return memberContexts.getOrDefault(member, List.of());
+    }
+
+    /**
+     * @param concept A concept
+     * @return The facts of concept, higher precision facts first
+     */
+    public Collection<Fact> getFacts(Concept concept) {
+        Collection<Fact> facts = conceptFacts.getFactsFor(concept);
+        return (facts != null) ? facts : List.of();
+    }
+
+    public List<Fact> getFacts(Context context) {
+        return contextFacts.getFactsFor(context);
+    }
+
+    /**
+     * @return The fact lists of all concepts
+     */
+    public Collection<FactList> getFactLists() {
+        return conceptFacts.getFactLists();
+    }
+
+    /**
+     * @param unit A unit
+     * @return The fact lists of the concepts with at least one fact in unit
+     */
+    public List<FactList> getFactLists(Unit unit) {
+        Map<Unit,List<FactList>> index = unitFactLists;
+        if (index == null) {
+            index = new HashMap<>();
+            for (FactList factList : conceptFacts.getFactLists()) {
+                Set<Unit> units = new HashSet<>();
+                for (Fact fact : factList) {
+                    if (fact.getUnit() != null && units.add(fact.getUnit())) {
+                        index.computeIfAbsent(fact.getUnit(), k -> new ArrayList<>()).add(factList);
+                    }
+                }
+            }
+            /* Building it twice on a race is harmless */
+            unitFactLists = index;
+        }
+        return index.getOrDefault(unit, List.of());
+    }
+}
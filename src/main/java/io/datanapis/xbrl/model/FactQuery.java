@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.model;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A query over the facts of an instance, answered from its {@link FactIndex}. Each condition narrows the query, e.g.
+ * to get the facts of a concept without dimensions for the durations ending on a date
+ * <pre>
+ *     instance.query().concept(revenues).withoutDimensions().durationsEndingOn(date).facts()
+ * </pre>
+ * and to get the facts with a member on an axis
+ * <pre>
+ *     instance.query().member(segmentAxis, productMember).facts()
+ * </pre>
+ * Conditions on periods and dimensions are resolved to the contexts they allow through the index, and conditions on
+ * concepts to the concepts they allow. The facts are then read from the per-concept or per-context fact lists,
+ * whichever are shorter, and the remaining conditions are checked per fact, so a query does not scan every fact. As
+ * for {@link Context#hasDimensions()}, typed members are not dimensions for {@link #withoutDimensions()}.
+ * <p>
+ * A query is not thread-safe; create one per use.
+ */
+public final class FactQuery {
+    private final FactIndex index;
+    /* What each condition allows, or null if there is no condition of the kind */
+    private Set<Concept> concepts = null;
+    private List<Pattern> conceptNames = null;
+    private Set<Context> contexts = null;
+    private Set<Unit> units = null;
+
+    public FactQuery(FactIndex index) {
+        this.index = index;
+    }
+
+    /* Narrows current to allowed */
+    private static <T> Set<T> and(Set<T> current, Set<T> allowed) {
+        if (current != null) {
+            allowed.retainAll(current);
+        }
+        return allowed;
+    }
+
+    public FactQuery concept(Concept concept) {
+        return concepts(List.of(concept));
+    }
+
+    public FactQuery concepts(Collection<Concept> conceptCollection) {
+        concepts = and(concepts, new LinkedHashSet<>(conceptCollection));
+        return this;
+    }
+
+    /**
+     * Narrow to the concepts whose name (without prefix) matches pattern
+     */
+    public FactQuery conceptName(Pattern pattern) {
+        if (conceptNames == null) {
+            conceptNames = new ArrayList<>();
+        }
+        conceptNames.add(pattern);
+        return this;
+    }
+
+    public FactQuery period(Period period) {
+        contexts = and(contexts, new LinkedHashSet<>(index.getContexts(period)));
+        return this;
+    }
+
+    /**
+     * Narrow to the periods matching predicate
+     */
+    public FactQuery periods(Predicate<Period> predicate) {
+        Set<Context> allowed = new LinkedHashSet<>();
+        for (Period period : index.getPeriods()) {
+            if (predicate.test(period)) {
+                allowed.addAll(index.getContexts(period));
+            }
+        }
+        contexts = and(contexts, allowed);
+        return this;
+    }
+
+    private FactQuery endingOn(LocalDate date, Period.Type type) {
+        Set<Context> allowed = new LinkedHashSet<>();
+        for (Period period : index.getPeriodsEndingOn(date)) {
+            if (type == null || period.getType() == type) {
+                allowed.addAll(index.getContexts(period));
+            }
+        }
+        contexts = and(contexts, allowed);
+        return this;
+    }
+
+    /**
+     * Narrow to the instant on date and the durations ending on date
+     */
+    public FactQuery endingOn(LocalDate date) {
+        return endingOn(date, null);
+    }
+
+    public FactQuery instantOn(LocalDate date) {
+        return endingOn(date, Period.Type.INSTANT);
+    }
+
+    public FactQuery durationsEndingOn(LocalDate date) {
+        return endingOn(date, Period.Type.DURATION);
+    }
+
+    public FactQuery unit(Unit unit) {
+        Set<Unit> allowed = new HashSet<>();
+        allowed.add(unit);
+        units = and(units, allowed);
+        return this;
+    }
+
+    /**
+     * Narrow to facts without explicit members
+     */
+    public FactQuery withoutDimensions() {
+        contexts = and(contexts, new LinkedHashSet<>(index.getContextsWithoutDimensions()));
+        return this;
+    }
+
+    /**
+     * Narrow to facts with a member, explicit or typed, on axis
+     */
+    public FactQuery axis(Concept axis) {
+        contexts = and(contexts, new LinkedHashSet<>(index.getAxisContexts(axis)));
+        return this;
+    }
+
+    /**
+     * Narrow to facts with member on axis. The facts may have members on other axes too
+     */
+    public FactQuery member(Concept axis, Concept member) {
+        return member(new ExplicitMember(axis, member));
+    }
+
+    public FactQuery member(ExplicitMember member) {
+        contexts = and(contexts, new LinkedHashSet<>(index.getMemberContexts(member)));
+        return this;
+    }
+
+    private boolean acceptsConcept(Concept concept) {
+        if (concepts != null && !concepts.contains(concept))
+            return false;
+        if (conceptNames != null) {
+            for (Pattern pattern : conceptNames) {
+                if (!pattern.matcher(concept.getName()).matches())
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean accepts(Fact fact) {
+        return (contexts == null || contexts.contains(fact.getContext())) &&
+                (units == null || units.contains(fact.getUnit()));
+    }
+
+    /* Adds the facts of factList that match the query to facts. The concept of factList is already accepted */
+    private void addAccepted(Collection<Fact> factList, List<Fact> facts) {
+        for (Fact fact : factList) {
+            if (accepts(fact))
+                facts.add(fact);
+        }
+    }
+
+    /**
+     * @return The facts matching the query. Facts of the same concept or of the same context, depending on the fact
+     * lists the query is read from, are adjacent and in the order of their list
+     */
+    public List<Fact> facts() {
+        List<Fact> facts = new ArrayList<>();
+
+        long conceptCost = Long.MAX_VALUE;
+        if (concepts != null) {
+            conceptCost = 0;
+            for (Concept concept : concepts) {
+                conceptCost += index.getFacts(concept).size();
+            }
+        }
+        long contextCost = Long.MAX_VALUE;
+        if (contexts != null) {
+            contextCost = 0;
+            for (Context context : contexts) {
+                contextCost += index.getFacts(context).size();
+            }
+        }
+
+        if (contexts != null && contextCost < conceptCost) {
+            Map<Concept,Boolean> acceptedConcepts = new HashMap<>();
+            for (Context context : contexts) {
+                for (Fact fact : index.getFacts(context)) {
+                    if (acceptedConcepts.computeIfAbsent(fact.getConcept(), this::acceptsConcept) &&
+                            (units == null || units.contains(fact.getUnit())))
+                        facts.add(fact);
+                }
+            }
+        } else if (concepts != null) {
+            for (Concept concept : concepts) {
+                if (acceptsConcept(concept)) {
+                    addAccepted(index.getFacts(concept), facts);
+                }
+            }
+        } else {
+            /* Driven by the concepts, all of them or those in one of the units */
+            Collection<FactList> factLists = (units != null && units.size() == 1) ?
+                    index.getFactLists(units.iterator().next()) : index.getFactLists();
+            for (FactList factList : factLists) {
+                if (!factList.isEmpty() && acceptsConcept(factList.get(0).getConcept())) {
+                    addAccepted(factList, facts);
+                }
+            }
+        }
+
+        return facts;
+    }
+
+    /**
+     * @return The distinct contexts of the facts matching the query
+     */
+    public Set<Context> contexts() {
+        Set<Context> contextSet = new LinkedHashSet<>();
+        for (Fact fact : facts()) {
+            Context context = fact.getContext();
+            if (context != null)
+                contextSet.add(context);
+        }
+        return contextSet;
+    }
+
+    public int count() {
+        return facts().size();
+    }
+
+    /**
+     * @return The sum of the numeric values of the facts matching the query, ignoring facts without a numeric value
+     */
+    public double sum() {
+        double sum = 0;
+        for (Fact fact : facts()) {
+            double value = fact.isNil() ? Double.NaN : fact.numericValue();
+            if (!Double.isNaN(value))
+                sum += value;
+        }
+        return sum;
+    }
+}
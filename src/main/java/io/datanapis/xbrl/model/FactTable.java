@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.model;
+
+import java.util.*;
+
+/**
+ * A columnar view of the facts of an instance. Each fact is a row; concepts, contexts, periods, units and dimension
+ * sets are replaced by dense int ids, and numeric values and decimals are held in primitive columns, so that scans
+ * and aggregations run over arrays rather than through Fact, Context and Entity objects.
+ * <p>
+ * Rows are grouped by concept, in order of qualified name, so the rows of a concept are contiguous (see
+ * {@link #conceptStart(int)} and {@link #conceptEnd(int)}). Within a concept, rows keep the order in which the facts
+ * are given; the table of an instance has them in the order of {@link io.datanapis.xbrl.XbrlInstance#getFacts(Concept)}.
+ * Dimension set {@link #NO_DIMENSIONS} is the set of contexts
+ * without explicit or typed members. A table is immutable and safe to share across threads. Queries over the facts of
+ * an instance do not need a table, see {@link FactQuery}.
+ */
+public final class FactTable {
+    /** The id of a column value that is absent, e.g. the unit of a non-numeric fact */
+    public static final int NONE = -1;
+    /** Matches any id in {@link #select(int, int, int, int)} */
+    public static final int ANY = -2;
+    /** The id of the dimension set of contexts without dimensions */
+    public static final int NO_DIMENSIONS = 0;
+
+    /* The members of a dimension set, i.e. the segment of a context */
+    private record DimensionSet(Set<ExplicitMember> explicitMembers, Set<TypedMember> typedMembers) {
+    }
+
+    /* Assigns dense ids to distinct values in order of first appearance */
+    private static final class Dictionary<T> {
+        private final List<T> values = new ArrayList<>();
+        private final Map<T,Integer> ids = new HashMap<>();
+
+        private int idOf(T value) {
+            if (value == null)
+                return NONE;
+            return ids.computeIfAbsent(value, k -> {
+                values.add(k);
+                return values.size() - 1;
+            });
+        }
+
+        private int find(Object value) {
+            Integer id = ids.get(value);
+            return (id != null) ? id : NONE;
+        }
+
+        private T get(int id) {
+            return values.get(id);
+        }
+
+        private int size() {
+            return values.size();
+        }
+    }
+
+    private final Fact[] facts;
+    private final int[] conceptIds;
+    private final int[] contextIds;
+    private final int[] periodIds;
+    private final int[] unitIds;
+    private final int[] dimensionSetIds;
+    /* NaN for facts without a numeric value, i.e. non-numeric and nil facts */
+    private final double[] values;
+    private final int[] decimals;
+    /* The rows of concept i are conceptStarts[i] to conceptStarts[i + 1] */
+    private final int[] conceptStarts;
+
+    private final Dictionary<Concept> concepts = new Dictionary<>();
+    private final Dictionary<Context> contexts = new Dictionary<>();
+    private final Dictionary<Period> periods = new Dictionary<>();
+    private final Dictionary<Unit> units = new Dictionary<>();
+    /* Dimension sets are identified by the signature of their contexts */
+    private final Dictionary<DimensionSignature> dimensionSets = new Dictionary<>();
+    private final List<DimensionSet> dimensionSetMembers = new ArrayList<>();
+
+    /**
+     * Builds the table of facts
+     *
+     * @param facts The facts of an instance, in the order rows of the same concept should have
+     * @return The table
+     */
+    public static FactTable of(Collection<Fact> facts) {
+        return new FactTable(facts);
+    }
+
+    private FactTable(Collection<Fact> factCollection) {
+        this.facts = factCollection.toArray(new Fact[0]);
+        /* Stable, so the facts of a concept keep their order */
+        Arrays.sort(this.facts, Comparator.comparing((Fact fact) -> fact.getConcept().getQualifiedName()));
+
+        int size = facts.length;
+        conceptIds = new int[size];
+        contextIds = new int[size];
+        periodIds = new int[size];
+        unitIds = new int[size];
+        dimensionSetIds = new int[size];
+        values = new double[size];
+        decimals = new int[size];
+
+        dimensionSets.idOf(DimensionSignature.NO_DIMENSIONS);
+        dimensionSetMembers.add(new DimensionSet(Set.of(), Set.of()));
+        for (int row = 0; row < size; row++) {
+            Fact fact = facts[row];
+            conceptIds[row] = concepts.idOf(fact.getConcept());
+            Context context = fact.getContext();
+            if (context != null) {
+                contextIds[row] = contexts.idOf(context);
+                periodIds[row] = periods.idOf(context.getPeriod());
+                dimensionSetIds[row] = dimensionSets.idOf(context.getSignature());
+                if (dimensionSetIds[row] == dimensionSetMembers.size()) {
+                    dimensionSetMembers.add(new DimensionSet(context.getDimensions(), context.getTypedMembers()));
+                }
+            } else {
+                contextIds[row] = NONE;
+                periodIds[row] = NONE;
+                dimensionSetIds[row] = NONE;
+            }
+            unitIds[row] = units.idOf(fact.getUnit());
+            values[row] = fact.isNil() ? Double.NaN : fact.numericValue();
+            decimals[row] = fact.getDecimals();
+        }
+
+        conceptStarts = new int[concepts.size() + 1];
+        for (int row = 0; row < size; row++) {
+            ++conceptStarts[conceptIds[row] + 1];
+        }
+        for (int i = 0; i < concepts.size(); i++) {
+            conceptStarts[i + 1] += conceptStarts[i];
+        }
+    }
+
+    public int size() {
+        return facts.length;
+    }
+
+    public Fact getFact(int row) {
+        return facts[row];
+    }
+
+    public int getConceptId(int row) {
+        return conceptIds[row];
+    }
+
+    public int getContextId(int row) {
+        return contextIds[row];
+    }
+
+    public int getPeriodId(int row) {
+        return periodIds[row];
+    }
+
+    public int getUnitId(int row) {
+        return unitIds[row];
+    }
+
+    public int getDimensionSetId(int row) {
+        return dimensionSetIds[row];
+    }
+
+    /**
+     * @param row The row
+     * @return The numeric value of the fact in row, or NaN if it does not have one
+     */
+    public double getValue(int row) {
+        return values[row];
+    }
+
+    public int getDecimals(int row) {
+        return decimals[row];
+    }
+
+    /**
+     * @param row The row
+     * @return The string value of the fact in row, as returned by {@link Fact#getValue()}
+     */
+    public String getString(int row) {
+        return facts[row].getValue();
+    }
+
+    public int nOfConcepts() {
+        return concepts.size();
+    }
+
+    public Concept getConcept(int conceptId) {
+        return concepts.get(conceptId);
+    }
+
+    /**
+     * @param concept The concept
+     * @return The id of concept, or NONE if the instance has no facts for concept
+     */
+    public int getConceptId(Concept concept) {
+        return concepts.find(concept);
+    }
+
+    /**
+     * @param conceptId The id of a concept
+     * @return The first row of the facts of the concept
+     */
+    public int conceptStart(int conceptId) {
+        return conceptStarts[conceptId];
+    }
+
+    /**
+     * @param conceptId The id of a concept
+     * @return One past the last row of the facts of the concept
+     */
+    public int conceptEnd(int conceptId) {
+        return conceptStarts[conceptId + 1];
+    }
+
+    public int nOfContexts() {
+        return contexts.size();
+    }
+
+    public Context getContext(int contextId) {
+        return contexts.get(contextId);
+    }
+
+    public int getContextId(Context context) {
+        return contexts.find(context);
+    }
+
+    public int nOfPeriods() {
+        return periods.size();
+    }
+
+    public Period getPeriod(int periodId) {
+        return periods.get(periodId);
+    }
+
+    public int getPeriodId(Period period) {
+        return periods.find(period);
+    }
+
+    public int nOfUnits() {
+        return units.size();
+    }
+
+    public Unit getUnit(int unitId) {
+        return units.get(unitId);
+    }
+
+    public int getUnitId(Unit unit) {
+        return units.find(unit);
+    }
+
+    public int nOfDimensionSets() {
+        return dimensionSets.size();
+    }
+
+    public Set<ExplicitMember> getDimensions(int dimensionSetId) {
+        return dimensionSetMembers.get(dimensionSetId).explicitMembers();
+    }
+
+    public Set<TypedMember> getTypedMembers(int dimensionSetId) {
+        return dimensionSetMembers.get(dimensionSetId).typedMembers();
+    }
+
+    /**
+     * @param context The context
+     * @return The id of the dimension set of context, or NONE if no fact is reported with the same dimensions
+     */
+    public int getDimensionSetId(Context context) {
+        return dimensionSets.find(context.getSignature());
+    }
+
+    private static boolean matches(int id, int wanted) {
+        return wanted == ANY || id == wanted;
+    }
+
+    /**
+     * Returns the rows matching the given ids. ANY matches every id, e.g. select(conceptId, ANY, ANY, NO_DIMENSIONS)
+     * returns the facts of a concept without dimensions for all periods and units. When conceptId is not ANY only
+     * the rows of the concept are scanned.
+     *
+     * @param conceptId A concept id or ANY
+     * @param periodId A period id or ANY
+     * @param unitId A unit id, NONE for non-numeric facts, or ANY
+     * @param dimensionSetId A dimension set id or ANY
+     * @return The matching rows in ascending order
+     */
+    public int[] select(int conceptId, int periodId, int unitId, int dimensionSetId) {
+        if (conceptId == NONE)
+            return new int[0];
+
+        int start = (conceptId == ANY) ? 0 : conceptStart(conceptId);
+        int end = (conceptId == ANY) ? facts.length : conceptEnd(conceptId);
+        int[] rows = new int[end - start];
+        int n = 0;
+        for (int row = start; row < end; row++) {
+            if (matches(periodIds[row], periodId) && matches(unitIds[row], unitId) &&
+                    matches(dimensionSetIds[row], dimensionSetId)) {
+                rows[n++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, n);
+    }
+
+    /**
+     * @param rows Rows of this table
+     * @return The sum of the numeric values in rows, ignoring rows without a numeric value
+     */
+    public double sum(int[] rows) {
+        double sum = 0;
+        for (int row : rows) {
+            double value = values[row];
+            if (!Double.isNaN(value))
+                sum += value;
+        }
+        return sum;
+    }
+}
@@ -15,19 +15,44 @@
  */
 package io.datanapis.xbrl.model;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 import java.time.LocalDate;
 
 public final class Instant implements Period {
+    private static final Interner<Instant> INSTANTS = Interners.newWeakInterner();
+
     private final LocalDate date;
+    private final int day;
 
-    Instant(LocalDate date) {
+    private Instant(LocalDate date) {
         this.date = date;
+        this.day = (int)date.toEpochDay();
+    }
+
+    /**
+     * @param date The date
+     * @return The instant on date. Equal instants are the same instance
+     */
+    public static Instant of(LocalDate date) {
+        return INSTANTS.intern(new Instant(date));
     }
 
     public LocalDate getDate() {
         return date;
     }
 
+    @Override
+    public int getStartEpochDay() {
+        return day;
+    }
+
+    @Override
+    public int getEndEpochDay() {
+        return day;
+    }
+
     public Type getType() {
         return Type.INSTANT;
     }
@@ -49,12 +74,12 @@ public final class Instant implements Period {
 
         Instant instant = (Instant) o;
 
-        return date.equals(instant.date);
+        return day == instant.day;
     }
 
     @Override
     public int hashCode() {
-        return date.hashCode();
+        return day;
     }
 
     @Override
@@ -23,11 +23,14 @@ import org.dom4j.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
-public final class Label {
+public final class Label implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     /* Non-standard labels */
     public static final String ROLE_TYPE_NEGATED_US = "http://xbrl.us/us-gaap/role/label/negated";
     public static final String ROLE_TYPE_NEGATED_PERIOD_END_US = "http://xbrl.us/us-gaap/role/label/negatedPeriodEnd";
@@ -20,9 +20,12 @@ import io.datanapis.xbrl.utils.Utils;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.dom4j.Element;
 
+import java.io.Serializable;
 import java.util.Objects;
 
-public final class Location {
+public final class Location implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The source url where this location was defined.
      */
@@ -57,64 +57,53 @@ public interface Period extends Comparable<Period> {
         return period.getType().equals(Type.DURATION);
     }
 
+    /**
+     * @return The first day of the period as an epoch day, see {@link java.time.LocalDate#toEpochDay()}. For an
+     * instant, the day of the instant
+     */
+    int getStartEpochDay();
+
+    /**
+     * @return The last day of the period as an epoch day. For an instant, the day of the instant
+     */
+    int getEndEpochDay();
+
     @Override
     default int compareTo(@NotNull Period rhs) {
+        if (this == rhs)
+            return 0;
+
+        int start1 = this.getStartEpochDay(), end1 = this.getEndEpochDay();
+        int start2 = rhs.getStartEpochDay(), end2 = rhs.getEndEpochDay();
         switch (this.getType()) {
             case INSTANT:
-                Instant i1 = (Instant)this;
                 switch (rhs.getType()) {
                     case INSTANT:
-                        Instant i2 = (Instant)rhs;
-                        if (i1.getDate().isBefore(i2.getDate())) {
-                            return -1;
-                        } else if (i1.getDate().isAfter(i2.getDate())) {
-                            return 1;
-                        } else {
-                            return 0;
-                        }
+                        return Integer.compare(start1, start2);
                     case DURATION:
-                        Duration r2 = (Duration)rhs;
-                        if (i1.getDate().isBefore(r2.getStartDate())) {
+                        if (start1 < start2) {
                             return -1;
-                        } else if (i1.getDate().isAfter(r2.getEndDate())) {
-                            return 1;
                         } else {
-                            /* i1 falls within r2. Prioritize duration over instant, since it begins earlier */
+                            /* Either i1 is after r2 or it falls within r2. Prioritize duration over instant, since it begins earlier */
                             return 1;
                         }
                 }
                 break;
             case DURATION:
-                Duration r1 = (Duration)this;
                 switch (rhs.getType()) {
                     case INSTANT:
-                        Instant i2 = (Instant)rhs;
-                        if (r1.getEndDate().isBefore(i2.getDate())) {
-                            return -1;
-                        } else if (r1.getStartDate().isAfter(i2.getDate())) {
+                        if (start1 > start2) {
                             return 1;
                         } else {
-                            /* i2 falls within r1. Prioritize range over instant since instant begins later */
+                            /* Either r1 is before i2 or i2 falls within r1. Prioritize range over instant since instant begins later */
                             return -1;
                         }
                     case DURATION:
-                        Duration r2 = (Duration)rhs;
-                        /* compare start dates, the one that start earlier goes first */
-                        if (r1.getStartDate().isBefore(r2.getStartDate())) {
-                            return -1;
-                        } else if (r1.getStartDate().isAfter(r2.getStartDate())) {
-                            return 1;
-                        }
-
-                        /* start dates are the same */
-                        assert r1.getStartDate().equals(r2.getStartDate());
-                        if (r1.getEndDate().isBefore(r2.getEndDate())) {
-                            return -1;
-                        } else if (r1.getEndDate().isAfter(r2.getEndDate())) {
-                            return 1;
+                        /* compare start dates, the one that start earlier goes first; then the end dates */
+                        if (start1 != start2) {
+                            return Integer.compare(start1, start2);
                         }
-
-                        return 0;
+                        return Integer.compare(end1, end2);
                 }
                 break;
         }
@@ -142,9 +131,9 @@ public interface Period extends Comparable<Period> {
         }
 
         if (instant != null) {
-            return new Instant(Utils.asDate(instant));
+            return Instant.of(Utils.asDate(instant));
         } else if (startDate != null && endDate != null) {
-            return new Duration(Utils.asDate(startDate), Utils.asDate(endDate));
+            return Duration.of(Utils.asDate(startDate), Utils.asDate(endDate));
         }
 
         return null;
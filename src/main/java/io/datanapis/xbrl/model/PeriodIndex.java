@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.model;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * The periods of an instance relative to its period end date: the contexts of the most recent quarter (MRQ) and
+ * of the year to date (YTD), the current instant, the durations ending at the period end date and the prior-year
+ * comparable of each period. The views are computed once over the distinct periods of the instance, which are few
+ * even when there are thousands of contexts, and are immutable.
+ * <p>
+ * As elsewhere, a period ends at the period end date if it ends up to 3 days before or after it.
+ */
+public final class PeriodIndex {
+    /* Days a period may end before or after the period end date */
+    private static final int END_ALLOWANCE = 3;
+    /* Days a duration may differ from a quarter, half year etc. */
+    private static final int DAYS_ALLOWANCE = 10;
+
+    private final LocalDate periodEndDate;
+    /* The distinct periods, by end date and then by start date */
+    private final List<Period> periods;
+    private final List<Context> mrqContexts;
+    private final List<Context> ytdContexts;
+    private final Instant currentInstant;
+    private final List<Duration> durationsEndingAtPeriodEnd;
+    private final Map<Period,Period> priorYearComparables;
+
+    private PeriodIndex(LocalDate periodEndDate, List<Period> periods, List<Context> mrqContexts,
+                        List<Context> ytdContexts, Instant currentInstant, List<Duration> durationsEndingAtPeriodEnd,
+                        Map<Period,Period> priorYearComparables) {
+        this.periodEndDate = periodEndDate;
+        this.periods = periods;
+        this.mrqContexts = mrqContexts;
+        this.ytdContexts = ytdContexts;
+        this.currentInstant = currentInstant;
+        this.durationsEndingAtPeriodEnd = durationsEndingAtPeriodEnd;
+        this.priorYearComparables = priorYearComparables;
+    }
+
+    /**
+     * @param contexts The contexts of an instance
+     * @param dei The DEI of the instance, for the period end date, the document type and the fiscal period
+     * @return The index of the periods of contexts
+     */
+    public static PeriodIndex of(Collection<Context> contexts, Dei dei) {
+        Set<Period> distinct = new HashSet<>();
+        for (Context context : contexts) {
+            distinct.add(context.getPeriod());
+        }
+        Period[] periods = distinct.toArray(new Period[0]);
+        Arrays.sort(periods, Comparator.comparingInt(Period::getEndEpochDay).thenComparingInt(Period::getStartEpochDay)
+                .thenComparing(Period::getType));
+        Map<Period,Period> priorYearComparables = priorYearComparables(periods);
+
+        LocalDate periodEndDate = dei.getEstimatedPeriodEndDate();
+        if (periodEndDate == null) {
+            return new PeriodIndex(null, List.of(periods), List.of(), List.of(), null, List.of(), priorYearComparables);
+        }
+
+        /* Decide once per distinct period */
+        int endDay = (int)periodEndDate.toEpochDay();
+        int ytdDays = ytdDays(dei, periodEndDate);
+        Set<Period> mrq = new HashSet<>();
+        Set<Period> ytd = new HashSet<>();
+        Instant currentInstant = null;
+        List<Duration> durationsEndingAtPeriodEnd = new ArrayList<>();
+        for (Period period : periods) {
+            int distance = Math.abs(period.getEndEpochDay() - endDay);
+            if (distance > END_ALLOWANCE)
+                continue;
+
+            if (period instanceof Instant instant) {
+                mrq.add(instant);
+                ytd.add(instant);
+                if (currentInstant == null || distance < Math.abs(currentInstant.getEndEpochDay() - endDay))
+                    currentInstant = instant;
+            } else if (period instanceof Duration duration) {
+                durationsEndingAtPeriodEnd.add(duration);
+                long days = duration.durationInDays();
+                if (isMRQ(dei, days))
+                    mrq.add(duration);
+                if (Math.abs(days - ytdDays) < DAYS_ALLOWANCE)
+                    ytd.add(duration);
+            }
+        }
+        durationsEndingAtPeriodEnd.sort(Comparator.naturalOrder());
+
+        /* The contexts, in the order of the instance */
+        List<Context> mrqContexts = new ArrayList<>();
+        List<Context> ytdContexts = new ArrayList<>();
+        for (Context context : contexts) {
+            if (mrq.contains(context.getPeriod()))
+                mrqContexts.add(context);
+            if (ytd.contains(context.getPeriod()))
+                ytdContexts.add(context);
+        }
+
+        return new PeriodIndex(periodEndDate, List.of(periods), Collections.unmodifiableList(mrqContexts),
+                Collections.unmodifiableList(ytdContexts), currentInstant, List.copyOf(durationsEndingAtPeriodEnd),
+                priorYearComparables);
+    }
+
+    private static boolean isMRQ(Dei dei, long days) {
+        /* The logic below can potentially be simplified, but it requires extensive testing */
+        if (dei.getDocumentInformation().isQuarterlyReport()) {
+            return Math.abs(days - 90) < DAYS_ALLOWANCE;
+        } else if (dei.getDocumentInformation().isAnnualReport()) {
+            if (Math.abs(days - 365) >= DAYS_ALLOWANCE) {
+                return false;
+            } else {
+                /* Annual reports could have quarterly information i.e., Q4 which needs to be considered */
+                return Math.abs(days - 90) < DAYS_ALLOWANCE;
+            }
+        }
+        return true;
+    }
+
+    /* The length of the year to date duration for the fiscal period ending at periodEndDate */
+    private static int ytdDays(Dei dei, LocalDate periodEndDate) {
+        String fiscalPeriod = (dei.getYearEndDate() != null) ? Dei.guessFiscalPeriod(dei, periodEndDate) : null;
+        if (fiscalPeriod == null) {
+            /* Default to fiscalPeriod in DEI, if the guess is null */
+            fiscalPeriod = dei.getFiscalPeriod();
+        }
+        if (fiscalPeriod == null)
+            return 365;
+
+        return switch (fiscalPeriod) {
+            case "Q1" -> 90;
+            case "Q2" -> 180;
+            case "Q3" -> 270;
+            default -> 365;
+        };
+    }
+
+    /* For each period, the period of the same type and about the same length ending about a year earlier */
+    private static Map<Period,Period> priorYearComparables(Period[] periods) {
+        int[] endDays = new int[periods.length];
+        for (int i = 0; i < periods.length; i++) {
+            endDays[i] = periods[i].getEndEpochDay();
+        }
+
+        Map<Period,Period> comparables = new HashMap<>();
+        for (Period period : periods) {
+            LocalDate end = LocalDate.ofEpochDay(period.getEndEpochDay());
+            int target = (int)end.minusYears(1).toEpochDay();
+            int i = lowerBound(endDays, target - END_ALLOWANCE);
+            Period best = null;
+            long bestScore = Long.MAX_VALUE;
+            for (; i < periods.length && endDays[i] <= target + END_ALLOWANCE; i++) {
+                Period candidate = periods[i];
+                if (candidate.getType() != period.getType())
+                    continue;
+                long lengthDifference = Math.abs(candidate.durationInDays() - period.durationInDays());
+                if (lengthDifference >= DAYS_ALLOWANCE)
+                    continue;
+                long score = Math.abs(endDays[i] - target) * (long)DAYS_ALLOWANCE + lengthDifference;
+                if (score < bestScore) {
+                    best = candidate;
+                    bestScore = score;
+                }
+            }
+            if (best != null)
+                comparables.put(period, best);
+        }
+        return Collections.unmodifiableMap(comparables);
+    }
+
+    /* The first index of sorted with a value of at least key */
+    private static int lowerBound(int[] sorted, int key) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The period end date the index was built for, or null if the instance has none
+     */
+    public LocalDate getPeriodEndDate() {
+        return periodEndDate;
+    }
+
+    /**
+     * @return The distinct periods of the instance, by end date and then by start date
+     */
+    public List<Period> getPeriods() {
+        return periods;
+    }
+
+    /**
+     * @return The contexts of the most recent quarter, see {@link io.datanapis.xbrl.XbrlInstance#getMRQContexts()}
+     */
+    public List<Context> getMRQContexts() {
+        return mrqContexts;
+    }
+
+    /**
+     * @return The contexts of the year to date, see {@link io.datanapis.xbrl.XbrlInstance#getYTDContexts()}
+     */
+    public List<Context> getYTDContexts() {
+        return ytdContexts;
+    }
+
+    /**
+     * @return The instant closest to the period end date, i.e. the balance sheet date, or null if there is none
+     */
+    public Instant getCurrentInstant() {
+        return currentInstant;
+    }
+
+    /**
+     * @return The durations ending at the period end date, longest first
+     */
+    public List<Duration> getDurationsEndingAtPeriodEnd() {
+        return durationsEndingAtPeriodEnd;
+    }
+
+    /**
+     * @param period A period of the instance
+     * @return The period of the same type and about the same length that ends about a year before period, e.g. the
+     * prior fiscal year for a fiscal year, or null if the instance has none
+     */
+    public Period getPriorYearComparable(Period period) {
+        return priorYearComparables.get(period);
+    }
+}
@@ -8,13 +8,16 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
-public final class Reference {
+public final class Reference implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private static final Logger log = LoggerFactory.getLogger(Reference.class);
 
     public static final String TIN_IMPLEMENTATION_NOTE = "http://fasb.org/us-gaap/role/tin/taxonomyImplementationNote";
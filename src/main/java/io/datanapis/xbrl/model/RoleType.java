@@ -24,7 +24,17 @@ import org.dom4j.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public final class RoleType {
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A role type declared by a taxonomy schema. The predefined role types (DEPRECATED, DISCLOSURE etc.) are shared by
+ * every taxonomy in the JVM and are therefore immutable. A {@link io.datanapis.xbrl.DiscoverableTaxonomySet} holds
+ * its own copies of them and calculation, presentation and definition links are only ever attached to those copies.
+ */
+public final class RoleType implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private static final String DYNAMIC = "Dynamic";
     private static final String PREDEFINED = "predefined";
 
@@ -63,6 +73,9 @@ public final class RoleType {
         RECOGNITION_REF.definition = "Reference for recognition and derecognition. Enables the expression of additional financial reporting semantic for a concept";
     }
 
+    private static final List<RoleType> PREDEFINED_TYPES = List.of(
+            DEPRECATED, DISCLOSURE, COMMON_PRACTICE_REF, NON_AUTHORITATIVE_LITERATURE_REF, RECOGNITION_REF);
+
     private final boolean reportable;
     private final String sourceUrl;
     private String id;
@@ -71,6 +84,8 @@ public final class RoleType {
     private CalculationLink calculationLink = null;
     private PresentationLink presentationLink = null;
     private DefinitionLink definitionLink = null;
+    /* The roleType this is a copy of. Its links are read through until this roleType gets a link of its own */
+    private RoleType original = null;
 
     public boolean isReportable() {
         return reportable;
@@ -97,10 +112,17 @@ public final class RoleType {
     }
 
     public CalculationLink getCalculationLink() {
+        if (calculationLink == null && original != null)
+            return original.getCalculationLink();
         return calculationLink;
     }
     public void setCalculationLink(CalculationLink link) {
-        if (calculationLink != null) {
+        checkMutable();
+        if (calculationLink == null && original != null && original.getCalculationLink() != null) {
+            /* never modify the original's link, merge it into our own */
+            link.merge(original.getCalculationLink());
+            calculationLink = link;
+        } else if (calculationLink != null) {
             /* merge with existing link */
             calculationLink.merge(link);
         } else {
@@ -109,10 +131,17 @@ public final class RoleType {
     }
 
     public PresentationLink getPresentationLink() {
+        if (presentationLink == null && original != null)
+            return original.getPresentationLink();
         return presentationLink;
     }
     public void setPresentationLink(PresentationLink link) {
-        if (presentationLink != null) {
+        checkMutable();
+        if (presentationLink == null && original != null && original.getPresentationLink() != null) {
+            /* never modify the original's link, merge it into our own */
+            link.merge(original.getPresentationLink());
+            presentationLink = link;
+        } else if (presentationLink != null) {
             /* merge with existing link */
             presentationLink.merge(link);
         } else {
@@ -121,10 +150,17 @@ public final class RoleType {
     }
 
     public DefinitionLink getDefinitionLink() {
+        if (definitionLink == null && original != null)
+            return original.getDefinitionLink();
         return definitionLink;
     }
     public void setDefinitionLink(DefinitionLink link) {
-        if (definitionLink != null) {
+        checkMutable();
+        if (definitionLink == null && original != null && original.getDefinitionLink() != null) {
+            /* never modify the original's link, merge it into our own */
+            link.merge(original.getDefinitionLink());
+            definitionLink = link;
+        } else if (definitionLink != null) {
             definitionLink.merge(link);
         } else {
             definitionLink = link;
@@ -183,11 +219,33 @@ public final class RoleType {
         return roleType;
     }
 
-    public static void clear() {
-        DEPRECATED.reset();
-        COMMON_PRACTICE_REF.reset();
-        NON_AUTHORITATIVE_LITERATURE_REF.reset();
-        RECOGNITION_REF.reset();
+    /**
+     * Returns a copy of roleType that a per-filing taxonomy can attach its own links to when roleType belongs to a
+     * shared base taxonomy. The copy reads the calculation, presentation and definition links of roleType until it
+     * is given a link of its own, which is then merged with the link of roleType. roleType itself is never modified.
+     *
+     * @param roleType The roleType to copy
+     * @return A copy of roleType
+     */
+    public static RoleType copyOf(RoleType roleType) {
+        RoleType copy = new RoleType(roleType.sourceUrl, roleType.reportable);
+
+        copy.id = roleType.id;
+        copy.roleURI = roleType.roleURI;
+        copy.definition = roleType.definition;
+        copy.original = roleType;
+
+        return copy;
+    }
+
+    /**
+     * Returns the predefined role types. These are immutable, use {@link #copyOf(RoleType)} to obtain a roleType
+     * that links can be attached to.
+     *
+     * @return The predefined role types
+     */
+    public static List<RoleType> predefined() {
+        return PREDEFINED_TYPES;
     }
 
     private RoleType(String sourceUrl, boolean reportable) {
@@ -195,9 +253,10 @@ public final class RoleType {
         this.sourceUrl = sourceUrl;
     }
 
-    private void reset() {
-        this.calculationLink = null;
-        this.presentationLink = null;
-        this.definitionLink = null;
+    private void checkMutable() {
+        for (RoleType roleType : PREDEFINED_TYPES) {
+            if (this == roleType)
+                throw new UnsupportedOperationException("Predefined roleType [" + roleURI + "] is immutable");
+        }
     }
 }
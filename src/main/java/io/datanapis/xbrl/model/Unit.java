@@ -15,6 +15,8 @@
  */
 package io.datanapis.xbrl.model;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import io.datanapis.xbrl.TagNames;
 import io.datanapis.xbrl.utils.XmlUtils;
 import org.dom4j.Element;
@@ -26,11 +28,13 @@ import java.util.List;
 
 public final class Unit {
     private static final Logger log = LoggerFactory.getLogger(Unit.class);
-    public static final Unit USD = new Unit("usd", new Measure("iso4217:USD"));
-    public static final Unit CAD = new Unit("cad", new Measure("iso4217:CAD"));
-    public static final Unit EUR = new Unit("eur", new Measure("iso4217:EUR"));
-    public static final Unit GBP = new Unit("gbp", new Measure("iso4217:GBP"));
-    public static final Unit JPY = new Unit("jpy", new Measure("iso4217:JPY"));
+    /* Measures are shared by every unit of every instance */
+    private static final Interner<Measure> MEASURES = Interners.newWeakInterner();
+    public static final Unit USD = new Unit("usd", Measure.of("iso4217:USD"));
+    public static final Unit CAD = new Unit("cad", Measure.of("iso4217:CAD"));
+    public static final Unit EUR = new Unit("eur", Measure.of("iso4217:EUR"));
+    public static final Unit GBP = new Unit("gbp", Measure.of("iso4217:GBP"));
+    public static final Unit JPY = new Unit("jpy", Measure.of("iso4217:JPY"));
 
     /* Sample Unit
        <xbrli:unit id="usdPerShare">
@@ -129,7 +133,16 @@ public final class Unit {
     @Override
     public int hashCode() {
         int result = type.hashCode();
-        result = 31 * result + (measures != null ? measures.hashCode() : 0);
+        if (measures != null) {
+            /* As for equals, the order of the measures does not matter */
+            int sum = 0;
+            for (Measure measure : measures) {
+                sum += measure.hashCode();
+            }
+            result = 31 * result + sum;
+        } else {
+            result = 31 * result;
+        }
         result = 31 * result + (fraction != null ? fraction.hashCode() : 0);
         return result;
     }
@@ -159,12 +172,12 @@ public final class Unit {
             String childName = child.getName();
             switch (childName) {
                 case TagNames.MEASURE_TAG:
-                    Measure measure = new Measure(child.getText());
+                    Measure measure = Measure.of(child.getText());
                     measures.add(measure);
                     break;
                 case TagNames.DIVIDE_TAG:
-                    Measure numerator = new Measure(XmlUtils.getChild(child, TagNames.UNIT_NUMERATOR_TAG, TagNames.MEASURE_TAG).getText());
-                    Measure denominator = new Measure(XmlUtils.getChild(child, TagNames.UNIT_DENOMINATOR_TAG, TagNames.MEASURE_TAG).getText());
+                    Measure numerator = Measure.of(XmlUtils.getChild(child, TagNames.UNIT_NUMERATOR_TAG, TagNames.MEASURE_TAG).getText());
+                    Measure denominator = Measure.of(XmlUtils.getChild(child, TagNames.UNIT_DENOMINATOR_TAG, TagNames.MEASURE_TAG).getText());
                     fraction = new Fraction(numerator, denominator);
                     break;
                 default:
@@ -184,6 +197,14 @@ public final class Unit {
         private final String unit;
         private final String trimmedUnit;
 
+        /**
+         * @param unit The measure, e.g. iso4217:USD
+         * @return The measure. Equal measures are the same instance
+         */
+        public static Measure of(String unit) {
+            return MEASURES.intern(new Measure(unit));
+        }
+
         private Measure(String unit) {
             this.unit = unit;
             int index = unit.indexOf(':');
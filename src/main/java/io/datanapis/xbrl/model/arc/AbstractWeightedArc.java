@@ -21,6 +21,8 @@ import io.datanapis.xbrl.model.Locator;
 import org.dom4j.Element;
 
 public abstract class AbstractWeightedArc extends FromArc {
+    private static final long serialVersionUID = 1L;
+
     private double weight;
 
     public double getWeight() {
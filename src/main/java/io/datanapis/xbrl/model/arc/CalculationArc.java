@@ -25,6 +25,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 public final class CalculationArc extends FromToArc<CalculationArc> {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> CALCULATION_ARC_ATTRIBUTES = new HashSet<>();
     static {
         CALCULATION_ARC_ATTRIBUTES.addAll(ABSTRACT_ARC_ATTRIBUTES);
@@ -25,6 +25,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 public final class DefinitionArc extends FromToArc<DefinitionArc> {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> DEFINITION_ARC_ATTRIBUTES = new HashSet<>();
     static {
         DEFINITION_ARC_ATTRIBUTES.addAll(ABSTRACT_ARC_ATTRIBUTES);
@@ -26,6 +26,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 public final class FootnoteArc extends FromArc {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> FOOTNOTE_ARC_ATTRIBUTES = new HashSet<>();
     static {
         FOOTNOTE_ARC_ATTRIBUTES.addAll(ABSTRACT_ARC_ATTRIBUTES);
@@ -24,11 +24,13 @@ import org.dom4j.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
-public abstract class FromArc implements Comparable<FromArc> {
+public abstract class FromArc implements Comparable<FromArc>, Serializable {
+    private static final long serialVersionUID = 1L;
     static final Set<String> ABSTRACT_ARC_ATTRIBUTES = new HashSet<>();
     static {
         ABSTRACT_ARC_ATTRIBUTES.add(TagNames.ORDER_TAG);
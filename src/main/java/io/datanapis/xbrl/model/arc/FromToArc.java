@@ -28,6 +28,8 @@ import java.util.Comparator;
 import java.util.List;
 
 public abstract class FromToArc<ArcType extends FromToArc<ArcType>> extends FromArc {
+    private static final long serialVersionUID = 1L;
+
     private Location to;
     boolean hasParent = false;
     private final List<ArcType> children = new ArrayList<>();
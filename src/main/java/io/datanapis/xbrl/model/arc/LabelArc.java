@@ -26,6 +26,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 public final class LabelArc extends FromArc {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> LABEL_ARC_ATTRIBUTES = new HashSet<>();
     static {
         LABEL_ARC_ATTRIBUTES.addAll(ABSTRACT_ARC_ATTRIBUTES);
@@ -26,6 +26,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 public final class PresentationArc extends FromToArc<PresentationArc> {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> PRESENTATION_ARC_ATTRIBUTES = new HashSet<>();
     static {
         PRESENTATION_ARC_ATTRIBUTES.addAll(ABSTRACT_ARC_ATTRIBUTES);
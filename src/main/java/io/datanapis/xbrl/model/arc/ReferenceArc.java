@@ -11,6 +11,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 public final class ReferenceArc extends FromArc {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> REFERENCE_ARC_ATTRIBUTES = new HashSet<>();
     static {
         REFERENCE_ARC_ATTRIBUTES.addAll(ABSTRACT_ARC_ATTRIBUTES);
@@ -24,9 +24,11 @@ import org.dom4j.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
 import java.util.*;
 
-public abstract class AbstractLink implements Locator {
+public abstract class AbstractLink implements Locator, Serializable {
+    private static final long serialVersionUID = 1L;
     static final Logger log = LoggerFactory.getLogger(AbstractLink.class);
     static final Set<String> ABSTRACT_LINK_ATTRIBUTES = new HashSet<>();
     static {
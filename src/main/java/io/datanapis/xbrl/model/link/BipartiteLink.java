@@ -23,6 +23,8 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 public abstract class BipartiteLink<T extends FromArc> extends AbstractLink {
+    private static final long serialVersionUID = 1L;
+
     final Map<Location,T> arcs = new HashMap<>();
 
     public T getArc(Location location) {
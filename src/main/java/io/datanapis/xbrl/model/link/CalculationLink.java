@@ -25,6 +25,8 @@ import org.dom4j.Element;
 import java.util.*;
 
 public final class CalculationLink extends DirectedAcyclicLink<CalculationArc> {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> CALCULATION_LINK_ATTRIBUTES = new HashSet<>();
     static {
         CALCULATION_LINK_ATTRIBUTES.addAll(ABSTRACT_LINK_ATTRIBUTES);
@@ -26,6 +26,8 @@ import java.util.Set;
 import java.util.HashSet;
 
 public final class DefinitionLink extends DirectedAcyclicLink<DefinitionArc> {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> DEFINITION_LINK_ATTRIBUTES = new HashSet<>();
     static {
         DEFINITION_LINK_ATTRIBUTES.addAll(ABSTRACT_LINK_ATTRIBUTES);
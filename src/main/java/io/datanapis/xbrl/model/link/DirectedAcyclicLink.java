@@ -21,6 +21,8 @@ import io.datanapis.xbrl.model.arc.FromToArc;
 import java.util.*;
 
 public abstract class DirectedAcyclicLink<ArcType extends FromToArc<ArcType>> extends AbstractLink {
+    private static final long serialVersionUID = 1L;
+
     final List<ArcType> arcs = new ArrayList<>();
 
     public void merge(DirectedAcyclicLink<ArcType> other) {
@@ -29,6 +29,8 @@ import java.util.Map;
 import java.util.Set;
 
 public final class FootnoteLink extends BipartiteLink<FootnoteArc> {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> FOOTNOTE_LINK_ATTRIBUTES = new HashSet<>();
     static {
         FOOTNOTE_LINK_ATTRIBUTES.addAll(ABSTRACT_LINK_ATTRIBUTES);
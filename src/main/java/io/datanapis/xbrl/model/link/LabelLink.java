@@ -27,6 +27,8 @@ import org.dom4j.Element;
 import java.util.*;
 
 public final class LabelLink extends BipartiteLink<LabelArc> {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> LABEL_LINK_ATTRIBUTES = new HashSet<>();
     static {
         LABEL_LINK_ATTRIBUTES.addAll(ABSTRACT_LINK_ATTRIBUTES);
@@ -25,6 +25,8 @@ import org.dom4j.Element;
 import java.util.*;
 
 public final class PresentationLink extends DirectedAcyclicLink<PresentationArc> {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> PRESENTATION_LINK_ATTRIBUTES = new HashSet<>();
     static {
         PRESENTATION_LINK_ATTRIBUTES.addAll(ABSTRACT_LINK_ATTRIBUTES);
@@ -11,6 +11,8 @@ import org.dom4j.Element;
 import java.util.*;
 
 public final class ReferenceLink extends BipartiteLink<ReferenceArc> {
+    private static final long serialVersionUID = 1L;
+
     private static final Set<String> REFERENCE_LINK_ATTRIBUTES = new HashSet<>();
     static {
         REFERENCE_LINK_ATTRIBUTES.addAll(ABSTRACT_LINK_ATTRIBUTES);
@@ -28,6 +28,10 @@ import java.util.*;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+/**
+ * @deprecated Scans the taxonomy zips sequentially on every miss. Use {@link ZipContentCache} instead.
+ */
+@Deprecated
 public class AdaptiveContentCache implements ContentCache {
     private final Map<String,byte[]> contentMap;
     private final Map<String,String> keyMap;
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.reader;
+
+/**
+ * Looks up content in a per-filing cache first and then in a shared cache (e.g. a {@link ZipContentCache} over the
+ * standard taxonomies). Only the per-filing cache is written to or cleared.
+ */
+public class ChainedContentCache implements ContentCache {
+    private final ContentCache first;
+    private final ContentCache shared;
+
+    public ChainedContentCache(ContentCache first, ContentCache shared) {
+        this.first = first;
+        this.shared = shared;
+    }
+
+    @Override
+    public byte[] getContents(String key) {
+        byte[] bytes = (first != null) ? first.getContents(key) : null;
+        if (bytes != null)
+            return bytes;
+
+        return shared.getContents(key);
+    }
+
+    @Override
+    public void putContents(String key, byte[] bytes) {
+        if (first != null) {
+            first.putContents(key, bytes);
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (first != null) {
+            first.clear();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.reader;
+
+import com.google.common.hash.Hashing;
+import org.dom4j.Element;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of parsed schema and linkbase documents shared across instances. Most filings reference the same standard
+ * taxonomy schemas and linkbases, and without this cache each of them is parsed again for every filing.
+ * <p>
+ * Documents are keyed by their absolute path and a hash of their content, so a changed document is never served
+ * from the cache. The cached trees are shared and must be treated as read-only. The size of a tree is estimated
+ * from the size of its source and the least recently used trees are evicted once the estimated size of all cached
+ * trees exceeds maxBytes. The cache is thread-safe.
+ */
+public class DocumentCache {
+    public static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+
+    /* A dom4j tree takes roughly this many times the size of the XML it was parsed from */
+    static final int TREE_EXPANSION = 8;
+
+    public interface Parser {
+        Element parse(byte[] bytes) throws Exception;
+    }
+
+    private final long maxBytes;
+
+    /* Guarded by this */
+    private final LinkedHashMap<String,Entry> documents = new LinkedHashMap<>(64, 0.75f, true);
+    private long estimatedBytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    public DocumentCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes The maximum estimated size of the cached trees
+     */
+    public DocumentCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    private static String keyOf(String absolutePath, byte[] bytes) {
+        return absolutePath + '#' + Hashing.murmur3_128().hashBytes(bytes);
+    }
+
+    /**
+     * Returns the root element of the document at absolutePath whose content is bytes, parsing it with parser if
+     * it is not already cached.
+     *
+     * @param absolutePath The absolute path or url of the document
+     * @param bytes The content of the document
+     * @param parser Parses bytes into a document
+     * @return The (shared, read-only) root element of the document
+     * @throws Exception Any exception thrown by parser
+     */
+    public Element getRootElement(String absolutePath, byte[] bytes, Parser parser) throws Exception {
+        String key = keyOf(absolutePath, bytes);
+
+        Entry entry;
+        synchronized (this) {
+            entry = documents.get(key);
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            bytesSaved.addAndGet(bytes.length);
+            return entry.root;
+        }
+
+        misses.incrementAndGet();
+        Element root = parser.parse(bytes);
+        put(key, new Entry(root, (long)bytes.length * TREE_EXPANSION));
+        return root;
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        if (entry.estimatedBytes > maxBytes)
+            return;
+
+        Entry previous = documents.put(key, entry);
+        if (previous != null) {
+            estimatedBytes -= previous.estimatedBytes;
+        }
+        estimatedBytes += entry.estimatedBytes;
+
+        Iterator<Entry> iterator = documents.values().iterator();
+        while (estimatedBytes > maxBytes && iterator.hasNext()) {
+            estimatedBytes -= iterator.next().estimatedBytes;
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void clear() {
+        documents.clear();
+        estimatedBytes = 0;
+    }
+
+    public static class Statistics {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        /* Bytes of XML that were served from the cache instead of being parsed */
+        public final long bytesSaved;
+        public final int nOfDocuments;
+        public final long estimatedBytes;
+
+        private Statistics(DocumentCache cache) {
+            this.hits = cache.hits.get();
+            this.misses = cache.misses.get();
+            this.evictions = cache.evictions.get();
+            this.bytesSaved = cache.bytesSaved.get();
+            synchronized (cache) {
+                this.nOfDocuments = cache.documents.size();
+                this.estimatedBytes = cache.estimatedBytes;
+            }
+        }
+
+        public double hitRate() {
+            long total = hits + misses;
+            return (total > 0) ? (double)hits / total : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits: [%d], misses: [%d], hit rate: [%.2f], evictions: [%d], bytes saved: [%d], documents: [%d], estimated bytes: [%d]",
+                    hits, misses, hitRate(), evictions, bytesSaved, nOfDocuments, estimatedBytes);
+        }
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    private static class Entry {
+        private final Element root;
+        private final long estimatedBytes;
+
+        private Entry(Element root, long estimatedBytes) {
+            this.root = root;
+            this.estimatedBytes = estimatedBytes;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.reader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Maps url prefixes onto local folders or zips, e.g. https://xbrl.fasb.org/us-gaap/2023/ onto the folder
+ * us-gaap-2023/ inside us-gaap-2023.zip. A url is resolved by replacing the longest matching prefix with its
+ * location, so the same url always resolves to the same file regardless of the file name. The scheme is ignored
+ * when matching, since filings reference the standard taxonomies over both http and https.
+ * <p>
+ * Mappings are added before the mapping is used; lookups are thread-safe. Close the mapping to release the zips.
+ */
+public class UrlMapping implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(UrlMapping.class);
+
+    /* Ordered by decreasing prefix length so that the longest prefix wins */
+    private final List<Location> locations = new ArrayList<>();
+    private final Map<Path,ZipFile> zipFiles = new HashMap<>();
+
+    private static String withoutScheme(String url) {
+        int index = url.indexOf("://");
+        return (index >= 0) ? url.substring(index + 3) : url;
+    }
+
+    private static String asFolder(String prefix) {
+        return prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+
+    /**
+     * Map urls starting with prefix onto folder, e.g. "https://xbrl.sec.gov/dei/2023/" onto /taxonomies/dei-2023
+     *
+     * @param prefix The url prefix
+     * @param folder The local folder holding the documents below prefix
+     * @return this mapping
+     */
+    public UrlMapping mapToFolder(String prefix, Path folder) {
+        if (!Files.isDirectory(folder))
+            throw new IllegalArgumentException("Not a folder [" + folder + "]");
+
+        add(new Location(asFolder(withoutScheme(prefix)), folder.toAbsolutePath().normalize(), null, null));
+        return this;
+    }
+
+    /**
+     * Map urls starting with prefix onto the entries below entryPrefix in zip, e.g. "https://xbrl.fasb.org/us-gaap/2023/"
+     * onto the entries below "us-gaap-2023/" in us-gaap-2023.zip
+     *
+     * @param prefix The url prefix
+     * @param zip The zip holding the documents below prefix
+     * @param entryPrefix The folder inside zip that corresponds to prefix, or "" for the top of the zip
+     * @return this mapping
+     * @throws IOException If zip cannot be opened
+     */
+    public UrlMapping mapToZip(String prefix, Path zip, String entryPrefix) throws IOException {
+        Path key = zip.toAbsolutePath().normalize();
+        ZipFile zipFile = zipFiles.get(key);
+        if (zipFile == null) {
+            zipFile = new ZipFile(key.toFile());
+            zipFiles.put(key, zipFile);
+        }
+
+        String folder = entryPrefix.isEmpty() ? "" : asFolder(entryPrefix);
+        add(new Location(asFolder(withoutScheme(prefix)), null, zipFile, folder));
+        return this;
+    }
+
+    private void add(Location location) {
+        locations.add(location);
+        locations.sort(Comparator.comparingInt((Location l) -> l.prefix.length()).reversed());
+    }
+
+    private Location locationOf(String schemeless) {
+        for (Location location : locations) {
+            if (schemeless.startsWith(location.prefix))
+                return location;
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if url starts with one of the mapped prefixes
+     */
+    public boolean isMapped(String url) {
+        return locationOf(withoutScheme(url)) != null;
+    }
+
+    /**
+     * Returns the contents of the document at url.
+     *
+     * @param url The url of the document
+     * @return The contents of the document, or null if url is not mapped
+     * @throws FileNotFoundException If url is mapped but the document is not present at the mapped location
+     * @throws IOException If the document cannot be read
+     */
+    public byte[] getContents(String url) throws IOException {
+        String schemeless = withoutScheme(url);
+        Location location = locationOf(schemeless);
+        if (location == null)
+            return null;
+
+        String relativePath = schemeless.substring(location.prefix.length());
+        if (location.zipFile != null) {
+            ZipEntry entry = location.zipFile.getEntry(location.entryPrefix + relativePath);
+            if (entry == null || entry.isDirectory())
+                throw new FileNotFoundException(url + " => " + location.zipFile.getName() + "!" + location.entryPrefix + relativePath);
+
+            try (InputStream inputStream = location.zipFile.getInputStream(entry)) {
+                return inputStream.readAllBytes();
+            }
+        }
+
+        Path path = location.folder.resolve(relativePath).normalize();
+        if (!path.startsWith(location.folder) || !Files.isRegularFile(path))
+            throw new FileNotFoundException(url + " => " + path);
+
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public void close() {
+        for (ZipFile zipFile : zipFiles.values()) {
+            try {
+                zipFile.close();
+            } catch (IOException e) {
+                log.info("Unable to close [{}]: [{}]", zipFile.getName(), e.toString());
+            }
+        }
+        zipFiles.clear();
+    }
+
+    private static class Location {
+        private final String prefix;
+        private final Path folder;
+        private final ZipFile zipFile;
+        private final String entryPrefix;
+
+        private Location(String prefix, Path folder, ZipFile zipFile, String entryPrefix) {
+            this.prefix = prefix;
+            this.folder = folder;
+            this.zipFile = zipFile;
+            this.entryPrefix = entryPrefix;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.reader;
+
+import com.ctc.wstx.api.WstxInputProperties;
+import com.ctc.wstx.sax.WstxSAXParserFactory;
+import com.ctc.wstx.stax.WstxInputFactory;
+import org.dom4j.*;
+import org.dom4j.io.SAXReader;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The XML parser used to build dom4j trees. All parsers produce the same tree and none of them resolve external
+ * entities or load external DTDs. Parsers and their DocumentFactory (and therefore its QName cache) are created once
+ * per thread and reused for every document parsed on that thread.
+ * <ul>
+ *     <li>JDK_SAX - the JDK's default SAX parser feeding dom4j's SAXReader</li>
+ *     <li>WOODSTOX_SAX - Woodstox's SAX parser feeding dom4j's SAXReader</li>
+ *     <li>WOODSTOX_STAX - Woodstox's StAX stream reader feeding a tree builder, without the SAX callbacks</li>
+ * </ul>
+ */
+public enum XmlParser {
+    JDK_SAX,
+    WOODSTOX_SAX,
+    WOODSTOX_STAX;
+
+    public static final XmlParser DEFAULT = JDK_SAX;
+
+    /* Configured once, thread-safe afterwards */
+    private static final WstxInputFactory WOODSTOX = woodstox();
+
+    private static final ThreadLocal<DocumentFactory> DOCUMENT_FACTORY = ThreadLocal.withInitial(DocumentFactory::new);
+    private static final ThreadLocal<SAXReader> JDK_SAX_READER = ThreadLocal.withInitial(() -> saxReader(jdkXmlReader()));
+    private static final ThreadLocal<SAXReader> WOODSTOX_SAX_READER = ThreadLocal.withInitial(() -> saxReader(woodstoxXmlReader()));
+
+    private static WstxInputFactory woodstox() {
+        WstxInputFactory factory = new WstxInputFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(WstxInputProperties.P_INPUT_PARSING_MODE, WstxInputProperties.PARSING_MODE_DOCUMENT);
+        factory.setXMLResolver((publicId, systemId, baseUri, namespace) -> new StringReader(""));
+        return factory;
+    }
+
+    private static XMLReader jdkXmlReader() {
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            return factory.newSAXParser().getXMLReader();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static XMLReader woodstoxXmlReader() {
+        try {
+            WstxSAXParserFactory factory = new WstxSAXParserFactory(woodstox());
+            factory.setNamespaceAware(true);
+            return factory.newSAXParser().getXMLReader();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static SAXReader saxReader(XMLReader xmlReader) {
+        SAXReader saxReader = new SAXReader(DOCUMENT_FACTORY.get());
+        saxReader.setXMLReader(xmlReader);
+        /* Never resolve entities, even if a parser ignores the features that disable them */
+        saxReader.setEntityResolver((publicId, systemId) -> new InputSource(new StringReader("")));
+        return saxReader;
+    }
+
+    public Document read(InputStream inputStream) throws DocumentException {
+        switch (this) {
+            case JDK_SAX:
+                return JDK_SAX_READER.get().read(inputStream);
+            case WOODSTOX_SAX:
+                return WOODSTOX_SAX_READER.get().read(inputStream);
+            default:
+                try {
+                    return build(WOODSTOX.createXMLStreamReader(inputStream));
+                } catch (XMLStreamException e) {
+                    throw new DocumentException(e.getMessage(), e);
+                }
+        }
+    }
+
+    public Document read(Reader reader) throws DocumentException {
+        switch (this) {
+            case JDK_SAX:
+                return JDK_SAX_READER.get().read(reader);
+            case WOODSTOX_SAX:
+                return WOODSTOX_SAX_READER.get().read(reader);
+            default:
+                try {
+                    return build(WOODSTOX.createXMLStreamReader(reader));
+                } catch (XMLStreamException e) {
+                    throw new DocumentException(e.getMessage(), e);
+                }
+        }
+    }
+
+    private static String nonNull(String value) {
+        return (value != null) ? value : "";
+    }
+
+    /**
+     * Returns a StAX reader over inputStream with the same secure settings as the other parsers. Used to stream
+     * documents that are too large to hold as a single tree.
+     *
+     * @param inputStream The document
+     * @return A stream reader positioned at the start of the document
+     * @throws XMLStreamException If the reader cannot be created
+     */
+    public static XMLStreamReader streamReader(InputStream inputStream) throws XMLStreamException {
+        return WOODSTOX.createXMLStreamReader(inputStream);
+    }
+
+    /**
+     * Returns the element at the START_ELEMENT event streamReader is positioned at, with its namespaces and
+     * attributes but without its content. streamReader is not advanced.
+     *
+     * @param streamReader A stream reader positioned at a START_ELEMENT
+     * @return A detached element
+     */
+    public static Element startElement(XMLStreamReader streamReader) {
+        DocumentFactory factory = DOCUMENT_FACTORY.get();
+        QName qName = factory.createQName(streamReader.getLocalName(),
+                nonNull(streamReader.getPrefix()), nonNull(streamReader.getNamespaceURI()));
+        Element element = factory.createElement(qName);
+        for (int i = 0; i < streamReader.getNamespaceCount(); i++) {
+            element.addNamespace(nonNull(streamReader.getNamespacePrefix(i)), nonNull(streamReader.getNamespaceURI(i)));
+        }
+        for (int i = 0; i < streamReader.getAttributeCount(); i++) {
+            QName attributeName = factory.createQName(streamReader.getAttributeLocalName(i),
+                    nonNull(streamReader.getAttributePrefix(i)), nonNull(streamReader.getAttributeNamespace(i)));
+            element.addAttribute(attributeName, streamReader.getAttributeValue(i));
+        }
+        return element;
+    }
+
+    /**
+     * Returns the element at the START_ELEMENT event streamReader is positioned at, including all its content, and
+     * leaves streamReader at the matching END_ELEMENT.
+     *
+     * @param streamReader A stream reader positioned at a START_ELEMENT
+     * @return A detached element
+     * @throws XMLStreamException If the element is not well-formed
+     */
+    public static Element readElement(XMLStreamReader streamReader) throws XMLStreamException {
+        Element element = startElement(streamReader);
+        Deque<Element> elements = new ArrayDeque<>();
+        elements.push(element);
+        while (!elements.isEmpty()) {
+            append(streamReader, streamReader.next(), null, elements);
+        }
+        return element;
+    }
+
+    /**
+     * Skips the element at the START_ELEMENT event streamReader is positioned at, including all its content, and
+     * leaves streamReader at the matching END_ELEMENT.
+     *
+     * @param streamReader A stream reader positioned at a START_ELEMENT
+     * @throws XMLStreamException If the element is not well-formed
+     */
+    public static void skipElement(XMLStreamReader streamReader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = streamReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                ++depth;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                --depth;
+            }
+        }
+    }
+
+    /**
+     * Builds the same tree as SAXReader from the events of streamReader
+     */
+    private static Document build(XMLStreamReader streamReader) throws XMLStreamException {
+        Document document = DOCUMENT_FACTORY.get().createDocument();
+        Deque<Element> elements = new ArrayDeque<>();
+
+        try {
+            while (streamReader.hasNext()) {
+                append(streamReader, streamReader.next(), document, elements);
+            }
+        } finally {
+            streamReader.close();
+        }
+
+        return document;
+    }
+
+    /* Adds the node for event to the innermost open element, or to document if no element is open */
+    private static void append(XMLStreamReader streamReader, int event, Document document, Deque<Element> elements) {
+        Branch branch = elements.isEmpty() ? document : elements.peek();
+        switch (event) {
+            case XMLStreamConstants.START_ELEMENT: {
+                Element element = startElement(streamReader);
+                if (branch != null) {
+                    branch.add(element);
+                }
+                elements.push(element);
+                break;
+            }
+            case XMLStreamConstants.END_ELEMENT:
+                elements.pop();
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+                if (!elements.isEmpty()) {
+                    elements.peek().addText(streamReader.getText());
+                }
+                break;
+            case XMLStreamConstants.CDATA:
+                if (!elements.isEmpty()) {
+                    elements.peek().addCDATA(streamReader.getText());
+                }
+                break;
+            case XMLStreamConstants.COMMENT:
+                if (branch instanceof Element element) {
+                    element.addComment(streamReader.getText());
+                } else if (branch instanceof Document root) {
+                    root.addComment(streamReader.getText());
+                }
+                break;
+            case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                if (branch instanceof Element element) {
+                    element.addProcessingInstruction(streamReader.getPITarget(), nonNull(streamReader.getPIData()));
+                } else if (branch instanceof Document root) {
+                    root.addProcessingInstruction(streamReader.getPITarget(), nonNull(streamReader.getPIData()));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.reader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A ContentCache over one or more taxonomy zips (e.g. us-gaap-2022.zip). The central directory of every zip is
+ * indexed once when the cache is created, keyed by the last component of the entry name in the same way as
+ * {@link io.datanapis.xbrl.utils.TaxonomyUtils#buildCacheFromZip(Path)}. A miss reads the single entry directly
+ * from its zip instead of scanning the zip.
+ * <p>
+ * Entries read from the zips are kept in memory until the total size of the cached content exceeds maxBytes, at
+ * which point the least recently used entries are evicted. The cache is thread-safe and can be shared across
+ * readers. Close the cache to release the zip files.
+ */
+public class ZipContentCache implements ContentCache, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ZipContentCache.class);
+
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private final List<ZipFile> zipFiles = new ArrayList<>();
+    private final Map<String,Location> index = new HashMap<>();
+    private final long maxBytes;
+
+    /* Guarded by this */
+    private final LinkedHashMap<String,byte[]> contents = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong loadTimeNanos = new AtomicLong();
+
+    public ZipContentCache(Path path) throws IOException {
+        this(path, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param path A taxonomy zip or a folder of taxonomy zips
+     * @param maxBytes The maximum number of bytes of content to keep in memory
+     * @throws IOException If a zip cannot be opened
+     */
+    public ZipContentCache(Path path, long maxBytes) throws IOException {
+        this(zipsOf(path), maxBytes);
+    }
+
+    public ZipContentCache(Collection<Path> zips, long maxBytes) throws IOException {
+        this(zips, maxBytes, name -> true);
+    }
+
+    /**
+     * @param zips The zips to index
+     * @param maxBytes The maximum number of bytes of content to keep in memory
+     * @param filter Only entries whose name (last component) matches filter are indexed
+     * @throws IOException If a zip cannot be opened
+     */
+    public ZipContentCache(Collection<Path> zips, long maxBytes, Predicate<String> filter) throws IOException {
+        this.maxBytes = maxBytes;
+
+        Set<String> collisions = new HashSet<>();
+        try {
+            for (Path zip : zips) {
+                ZipFile zipFile = new ZipFile(zip.toFile());
+                zipFiles.add(zipFile);
+                indexOf(zipFile, filter, collisions);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+
+        if (collisions.size() > 0) {
+            log.info("Ignoring [{}] entries that differ across [{}]", collisions.size(), zips);
+            index.keySet().removeAll(collisions);
+        }
+    }
+
+    private static List<Path> zipsOf(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> stream = Files.list(path)) {
+                return stream.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".zip"))
+                        .sorted().collect(Collectors.toList());
+            }
+        }
+
+        return List.of(path);
+    }
+
+    private static String lastComponentOf(String name) {
+        int index = name.lastIndexOf('/');
+        if (index >= 0) {
+            return name.substring(index + 1);
+        } else {
+            return name;
+        }
+    }
+
+    private void indexOf(ZipFile zipFile, Predicate<String> filter, Set<String> collisions) {
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (entry.isDirectory() || entry.getName().contains("META-INF/"))
+                continue;
+
+            String name = lastComponentOf(entry.getName());
+            if (name.length() == 0 || !filter.test(name))
+                continue;
+
+            Location existing = index.putIfAbsent(name, new Location(zipFile, entry));
+            if (existing != null && (existing.entry.getCrc() != entry.getCrc() || existing.entry.getSize() != entry.getSize())) {
+                /* The same file name with different content, e.g. in two different taxonomy years */
+                collisions.add(name);
+            }
+        }
+    }
+
+    public boolean containsKey(String key) {
+        return index.containsKey(key);
+    }
+
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    @Override
+    public byte[] getContents(String key) {
+        byte[] content;
+        synchronized (this) {
+            content = contents.get(key);
+        }
+        if (content != null) {
+            hits.incrementAndGet();
+            return content;
+        }
+
+        Location location = index.get(key);
+        if (location == null)
+            return null;
+
+        misses.incrementAndGet();
+        long start = System.nanoTime();
+        try (InputStream inputStream = location.zipFile.getInputStream(location.entry)) {
+            content = inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            loadTimeNanos.addAndGet(System.nanoTime() - start);
+        }
+
+        putContents(key, content);
+        return content;
+    }
+
+    @Override
+    public synchronized void putContents(String key, byte[] content) {
+        if (content.length > maxBytes)
+            return;
+
+        byte[] previous = contents.put(key, content);
+        if (previous != null) {
+            bytes -= previous.length;
+        }
+        bytes += content.length;
+
+        Iterator<byte[]> iterator = contents.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            bytes -= iterator.next().length;
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops the cached content. The zip index is retained.
+     */
+    @Override
+    public synchronized void clear() {
+        contents.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        for (ZipFile zipFile : zipFiles) {
+            try {
+                zipFile.close();
+            } catch (IOException e) {
+                log.info("Unable to close [{}]: [{}]", zipFile.getName(), e.toString());
+            }
+        }
+        zipFiles.clear();
+    }
+
+    public static class Statistics {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long loadTimeMillis;
+        public final int nOfEntries;
+        public final long nOfBytes;
+
+        private Statistics(ZipContentCache cache) {
+            this.hits = cache.hits.get();
+            this.misses = cache.misses.get();
+            this.evictions = cache.evictions.get();
+            this.loadTimeMillis = cache.loadTimeNanos.get() / 1_000_000;
+            synchronized (cache) {
+                this.nOfEntries = cache.contents.size();
+                this.nOfBytes = cache.bytes;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits: [%d], misses: [%d], evictions: [%d], load time: [%d] ms, entries: [%d], bytes: [%d]",
+                    hits, misses, evictions, loadTimeMillis, nOfEntries, nOfBytes);
+        }
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    private static class Location {
+        private final ZipFile zipFile;
+        private final ZipEntry entry;
+
+        private Location(ZipFile zipFile, ZipEntry entry) {
+            this.zipFile = zipFile;
+            this.entry = entry;
+        }
+    }
+}
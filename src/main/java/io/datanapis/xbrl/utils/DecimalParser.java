@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.xbrl.utils;
+
+/**
+ * Parses xs:decimal and xs:double values of numeric facts, applying an iXBRL scale and sign. The value is kept
+ * exact as a long when the scaled value is integral and fits in a long, and is a double otherwise. Scaling is done
+ * on the decimal digits, so large monetary values keep full precision. Values that are not numbers are reported
+ * by the return value of parse rather than by an exception.
+ * <p>
+ * A parser holds the result of the last parse and is not thread-safe.
+ */
+public final class DecimalParser {
+    public enum Kind {
+        NONE,
+        LONG,
+        DOUBLE
+    }
+
+    /* Powers of ten that are exact as doubles */
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /* Doubles represent integers up to 2^53 exactly */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /* Exponents beyond this overflow or underflow any double */
+    private static final int MAX_EXPONENT = 400;
+
+    private Kind kind = Kind.NONE;
+    private long longValue;
+    private double doubleValue;
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getLongValue() {
+        return longValue;
+    }
+
+    public double getDoubleValue() {
+        return doubleValue;
+    }
+
+    private boolean none() {
+        kind = Kind.NONE;
+        return false;
+    }
+
+    private boolean ofDouble(double value) {
+        kind = Kind.DOUBLE;
+        doubleValue = value;
+        return true;
+    }
+
+    private boolean ofLong(long value) {
+        kind = Kind.LONG;
+        longValue = value;
+        return true;
+    }
+
+    /**
+     * Parse value, e.g. "-1,234.5" is not a number, "1234.5" with scale 3 is 1234500 and with sign -1 is -1234500
+     *
+     * @param value The value; leading and trailing whitespace is ignored
+     * @param scale The power of ten value is multiplied by
+     * @param sign 1, or -1 to negate value
+     * @return true if value is a number, in which case getKind() is LONG or DOUBLE
+     */
+    public boolean parse(String value, int scale, int sign) {
+        int start = 0, end = value.length();
+        while (start < end && value.charAt(start) <= ' ')
+            ++start;
+        while (end > start && value.charAt(end - 1) <= ' ')
+            --end;
+
+        int i = start;
+        boolean negative = sign < 0;
+        if (i < end && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+            if (value.charAt(i) == '-')
+                negative = !negative;
+            ++i;
+        }
+        if (i == end)
+            return none();
+
+        /* Special values of xs:double */
+        if (value.startsWith("INF", i) && i + 3 == end)
+            return ofDouble(negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+        if (value.startsWith("NaN", i) && i + 3 == end && i == start)
+            return ofDouble(Double.NaN);
+
+        /* mantissa * 10^exponent, dropping any digits that do not fit in mantissa */
+        long mantissa = 0;
+        int exponent = 0;
+        int nOfDigits = 0;
+        boolean exact = true;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                ++nOfDigits;
+                if (exact && (mantissa < Long.MAX_VALUE / 10 || (mantissa == Long.MAX_VALUE / 10 && c - '0' <= Long.MAX_VALUE % 10))) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction)
+                        --exponent;
+                } else if (c != '0' || !fraction) {
+                    exact = exact && (c == '0' && !fraction);
+                    if (!fraction)
+                        ++exponent;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (nOfDigits == 0)
+            return none();
+
+        if (i < end && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            ++i;
+            boolean negativeExponent = false;
+            if (i < end && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+                negativeExponent = value.charAt(i) == '-';
+                ++i;
+            }
+            if (i == end)
+                return none();
+
+            int e = 0;
+            for (; i < end; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9')
+                    return none();
+                if (e < MAX_EXPONENT)
+                    e = e * 10 + (c - '0');
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != end)
+            return none();
+
+        if (mantissa == 0)
+            return ofLong(0);
+
+        exponent += scale;
+        if (negative)
+            mantissa = -mantissa;
+
+        /* Drop trailing zeros of the fraction */
+        while (exponent < 0 && mantissa % 10 == 0) {
+            mantissa /= 10;
+            ++exponent;
+        }
+
+        if (exact && exponent >= 0) {
+            long scaled = mantissa;
+            int remaining = exponent;
+            while (remaining > 0 && Math.abs(scaled) <= Long.MAX_VALUE / 10) {
+                scaled *= 10;
+                --remaining;
+            }
+            if (remaining == 0)
+                return ofLong(scaled);
+        }
+
+        if (exponent < -MAX_EXPONENT)
+            return ofDouble(negative ? -0.0 : 0.0);
+        if (exponent > MAX_EXPONENT)
+            return ofDouble(negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+
+        if (Math.abs(mantissa) <= MAX_EXACT_MANTISSA && Math.abs(exponent) < POW10.length) {
+            /* Both operands are exact, so the result is correctly rounded */
+            return ofDouble(exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent]);
+        }
+
+        /* Rare: more significant digits than a double holds. Let the JDK round the same digits */
+        return ofDouble(Double.parseDouble(mantissa + "E" + exponent));
+    }
+}
@@ -21,566 +21,465 @@ import com.google.common.collect.ImmutableMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
 import java.util.Map;
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The Inline XBRL transformation registries ixt-1 to ixt-5. A format, e.g. ixt:num-dot-decimal, is resolved once to
+ * a {@link Transformation} and the resolution is cached. Transformations scan the characters of a value and write
+ * the transformed value to a StringBuilder, without regular expressions or intermediate strings. A value that
+ * does not match its format is reported by a {@link Result} rather than by an exception.
+ * <p>
+ * Formats are matched on their local name, so the prefix bound to a registry does not matter. Formats that are not
+ * supported, e.g. durations and the CJK dates, leave values unchanged.
+ */
 public class IxtTransform {
     private static final Logger log = LoggerFactory.getLogger(IxtTransform.class);
 
-    /* Logic and regex is from https://github.com/Arelle/Arelle/blob/13205cc2f8ca0345dc20afd56ae4414f7509a5a4/arelle/FunctionIxt.py */
-    private static final Map<String,Integer> MONTH_NUMBER =
-            new ImmutableMap.Builder<String,Integer>()
-                    .put("january", 1).put("february", 2).put("march", 3).put("april", 4).put("may", 5).put("june", 6)
-                    .put("july", 7).put("august", 8).put("september", 9).put("october", 10).put("november", 11).put("december", 12)
-                    .put("jan", 1).put("feb", 2).put("mar", 3).put("apr", 4).put("jun", 6).put("jul", 7)
-                    .put("aug", 8).put("sep", 9).put("oct", 10).put("nov", 11).put("dec", 12)
-                    .build();
-
-    private static final Map<Integer,Integer> MAX_DAYS_IN_MONTH =
-            new ImmutableMap.Builder<Integer,Integer>()
-                    .put(1, 31).put(2, 29).put(3, 31).put(4, 30).put(5, 31).put(6, 30).put(7, 31).put(8, 31).put(9, 30)
-                    .put(10, 31).put(11, 30).put(12, 31).build();
-
-    private static final Pattern DECIMAL_PATTERN = Pattern.compile("^[+-]?([0-9]+(\\.[0-9]*)?|\\.[0-9]+)$");
-
-    private static final Pattern NUM_CANONICALIZATION = Pattern.compile("^[ \\t\\n\\r]*0*([1-9][0-9]*)?(([.]0*)[ \\t\\n\\r]*$|([.][0-9]*[1-9])0*[ \\t\\n\\r]*$|[ \\t\\n\\r]*$)");
-
-    private static final Pattern ZERO_DASH =
-            Pattern.compile("^[ \\t\\n\\r]*([-]|\u002D|\u058A|\u05BE|\u2010|\u2011|\u2012|\u2013|\u2014|\u2015|\uFE58|\uFE63|\uFF0D)[ \\t\\n\\r]*$");
-
-    private static final Pattern NUM_DOT_DECIMAL =
-            Pattern.compile("^[ \\t\\n\\r]*[0-9]{1,3}([, \u00A0]?[0-9]{3})*(\\.[0-9]+)?[ \\t\\n\\r]*$");
-
-    private static final Pattern NUM_DOT_DECIMAL_TR4 = Pattern.compile("^[ \\t\\n\\r]*[, \u00A00-9]*(\\.[ \u00A00-9]+)?[ \\t\\n\\r]*$");
-    private static final Pattern NUM_DOT_DECIMAL_APOS = Pattern.compile("^[ \\t\\n\\r]*[,'`´’′ \u00a00-9]*(\\.[ \u00a00-9]+)?[ \\t\\n\\r]*$");
-
-    private static final Pattern NUM_DOT_DECIMAL_IN =
-            Pattern.compile("^(([0-9]{1,2}[, \u00A0])?([0-9]{2}[, \u00A0])*[0-9]{3})([.][0-9]+)?$|^([0-9]+)([.][0-9]+)?$");
-
-    private static final Pattern NUM_COMMA_DECIMAL =
-            Pattern.compile("^[ \\t\\n\\r]*[0-9]{1,3}([. \u00A0]?[0-9]{3})*(,[0-9]+)?[ \\t\\n\\r]*$");
-
-    private static final Pattern NUM_UNIT_DECIMAL =
-            Pattern.compile("^([0]|([1-9][0-9]{0,2}([.,\uFF0C\uFF0E]?[0-9]{3})*))[^0-9,.\uFF0C\uFF0E]+([0-9]{1,2})[^0-9,.\uFF0C\uFF0E]*$");
-
-    private static final Pattern NUM_UNIT_DECIMAL_IN =
-            Pattern.compile("^(([0-9]{1,2}[, \u00A0])?([0-9]{2}[, \u00A0])*[0-9]{3})([^0-9]+)([0-9]{1,2})([^0-9]*)$|^([0-9]+)([^0-9]+)([0-9]{1,2})([^0-9]*)$");
-
-    private static final Pattern MONTH_DAY_YEAR =
-            Pattern.compile("^[ \\t\\n\\r]*([0-9]{1,2})[^0-9]+([0-9]{1,2})[^0-9]+([0-9]{4}|[0-9]{1,2})[ \\t\\n\\r]*$");
-
-    private static final Pattern MONTH_DAY_YEAR_EN =
-            Pattern.compile("^[ \\t\\n\\r]*(january|february|march|april|may|june|july|august|september|october|november|december" +
-                    "|jan|feb|mar|apr|jun|jul|aug|sep|oct|nov|dec)[^0-9]+([0-9]+)[^0-9]+([0-9]{4}|[0-9]{1,2})[ \\t\\n\\r]*$",
-                    Pattern.CASE_INSENSITIVE);
-
-    private static final Pattern MONTH_DAY =
-            Pattern.compile("^[ \\t\\n\\r]*([0-9]{1,2})[^0-9]+([0-9]{1,2})[A-Za-z]*[ \\t\\n\\r]*$");
-
-    private static final Pattern MONTH_DAY_EN =
-            Pattern.compile("^[ \\t\\n\\r]*(january|february|march|april|may|june|july|august|september|october|november|december" +
-                    "|jan|feb|mar|apr|jun|jul|aug|sep|oct|nov|dec)[^0-9]+([0-9]{1,2})[A-Za-z]{0,2}[ \\t\\n\\r]*$",
-                    Pattern.CASE_INSENSITIVE);
-
-    private static final Pattern DAY_MONTH_YEAR =
-            Pattern.compile("^[ \\t\\n\\r]*([0-9]{1,2})[^0-9]+([0-9]{1,2})[^0-9]+([0-9]{4}|[0-9]{1,2})[ \\t\\n\\r]*$");
-
-    private static final Pattern DAY_MONTH_YEAR_EN =
-            Pattern.compile("^[ \\t\\n\\r]*([0-9]{1,2})[^0-9]+(january|february|march|april|may|june|july|august|september|october|november|december" +
-                    "|jan|feb|mar|apr|jun|jul|aug|sep|oct|nov|dec)[^0-9]+([0-9]{4}|[0-9]{1,2})[ \\t\\n\\r]*$",
-                    Pattern.CASE_INSENSITIVE);
-
-    private static final Pattern MONTH_YEAR =
-            Pattern.compile("^[ \\t\\n\\r]*([0-9]{1,2})[^0-9]+([0-9]{4}|[0-9]{1,2})[ \\t\\n\\r]*$");
-
-    private static final Pattern MONTH_YEAR_EN =
-            Pattern.compile("^[ \\t\\n\\r]*(january|february|march|april|may|june|july|august|september|october|november|december" +
-                    "|jan|feb|mar|apr|jun|jul|aug|sep|oct|nov|dec)[^0-9]+([0-9]{1,2}|[0-9]{4})[ \\t\\n\\r]*$",
-                    Pattern.CASE_INSENSITIVE);
-
-    private static final Pattern YEAR_MONTH =
-            Pattern.compile("^[ \\t\\n\\r]*([0-9]{4}|[0-9]{1,2})[^0-9]+([0-9]{1,2})[^0-9]*$");
-
-    private static final Pattern YEAR_MONTH_DAY =
-            Pattern.compile("^[ \\t\\n\\r]*([0-9]{4}|[0-9]{1,2})[^0-9]+([0-9]{1,2})[^0-9]+([0-9]{1,2})[^0-9]*$");
-
-    public static String parseDate(String value, String format) {
-        switch (format) {
-            case "date-month-year":
-            case "datemonthyear":
-                return new IxtMonthYear.Builder().monthGroup(1).yearGroup(2).pattern(MONTH_YEAR).build().parse(value);
-
-            case "date-monthname-year-en":
-            case "datemonthyearen":
-                return new IxtMonthYear.Builder().monthGroup(1).yearGroup(2).pattern(MONTH_YEAR_EN).build().parse(value);
-
-            case "datedaymonthyear":
-                return new IxtDate.Builder()
-                        .dayGroup(1).monthGroup(2).yearGroup(3).pattern(DAY_MONTH_YEAR).build().parse(value).toString();
-
-            case "date-day-monthname-year-en":
-            case "datedaymonthyearen":
-                return new IxtDate.Builder()
-                        .dayGroup(1).monthGroup(2).yearGroup(3).pattern(DAY_MONTH_YEAR_EN).build().parse(value).toString();
-
-            case "dateyearmonthday":
-                return new IxtDate.Builder()
-                        .dayGroup(3).monthGroup(2).yearGroup(1).pattern(YEAR_MONTH_DAY).build().parse(value).toString();
-
-            case "datequarterend":
-                return value;
-
-            case "date-month-day":
-            case "datemonthday":
-                return new IxtMonthDay.Builder().dayGroup(2).monthGroup(1).pattern(MONTH_DAY).build().parse(value);
-
-            case "date-monthname-day-en":
-            case "date-month-day-en":
-            case "datemonthdayen":
-                return new IxtMonthDay.Builder().dayGroup(2).monthGroup(1).pattern(MONTH_DAY_EN).build().parse(value);
-
-            case "date-month-day-year":
-            case "datemonthdayyear":
-                return new IxtDate.Builder()
-                        .dayGroup(2).monthGroup(1).yearGroup(3).pattern(MONTH_DAY_YEAR).build().parse(value).toString();
-
-            case "datemonthdayyearen":
-            case "date-monthname-day-year-en":
-                return new IxtDate.Builder()
-                        .dayGroup(2).monthGroup(1).yearGroup(3).pattern(MONTH_DAY_YEAR_EN).build().parse(value).toString();
-
-            default:
-                log.info("Date format [{}] not yet supported", format);
-                return LocalDate.parse(value).toString();
-        }
+    public enum Result {
+        OK,
+        /* The value does not match the format */
+        NO_MATCH,
+        /* The value matches the format but is not a date, e.g. February 30 */
+        INVALID_DATE
     }
 
-    private static String cleanNumber(String value) {
-        char[] cleaned = new char[value.length()];
-        int j = 0, i = 0;
-        while (i < value.length()) {
-            switch (value.charAt(i)) {
-                case ',':
-                case ' ':
-                case '\'':
-                case '`':
-                case '´':
-                case '’':
-                case '′':
-                case '\u00A0':
-                    i++;
-                    continue;
-
-                default:
-                    cleaned[j++] = value.charAt(i++);
-                    break;
-            }
-        }
-        return new String(cleaned, 0, j);
+    public interface Transformation {
+        /**
+         * @param value The value to transform
+         * @param out The transformed value is appended to out. Nothing is appended unless the result is OK
+         * @return OK if value matches the transformation
+         */
+        Result transform(CharSequence value, StringBuilder out);
     }
 
-    private static String canonicalNumber(String value) {
-        Matcher matcher = NUM_CANONICALIZATION.matcher(value);
-        if (!matcher.matches())
-            return value;
-
-        int nOfGroups = matcher.groupCount();
-        String groupOne = null, groupFour = null;
-
-        if (nOfGroups >= 1) {
-            groupOne = matcher.group(1);
-        }
-        if (nOfGroups >= 4) {
-            groupFour = matcher.group(4);
-        }
-
-        if (Objects.nonNull(groupOne)) {
-            return Objects.nonNull(groupFour) ? groupOne + groupFour : groupOne;
-        } else if (Objects.nonNull(groupFour)) {
-            return groupFour;
+    /* Transformations whose result does not depend on the value */
+    private record Fixed(String value) implements Transformation {
+        @Override
+        public Result transform(CharSequence ignored, StringBuilder out) {
+            out.append(value);
+            return Result.OK;
         }
-
-        return "0";
     }
 
-    private static String valueOf(String value, String format, Pattern pattern) {
-        value = cleanNumber(value);
-        Matcher matcher = DECIMAL_PATTERN.matcher(value);
-        if (!matcher.matches()) {
-            log.info("Value [{}] does not match format [{}], pattern [{}]", value, format, pattern);
-            throw new RuntimeException("Bad value [" + value + "]");
-        }
+    private static final Transformation PASS_THROUGH = (value, out) -> {
+        out.append(value);
+        return Result.OK;
+    };
+
+    /* Whitespace allowed around values */
+    private static final String WHITESPACE = " \t\n\r";
+    private static final String DASHES = "-\u058A\u05BE\u2010\u2011\u2012\u2013\u2014\u2015\uFE58\uFE63\uFF0D";
+    private static final String[] MONTH_NAMES = {
+            "january", "february", "march", "april", "may", "june",
+            "july", "august", "september", "october", "november", "december"
+    };
+
+    private static final Transformation DOT_DECIMAL = (value, out) -> decimal(value, '.', ", \u00A0'`\u00B4\u2019\u2032", out);
+    private static final Transformation COMMA_DECIMAL = (value, out) -> decimal(value, ',', ". \u00A0", out);
+    private static final Transformation UNIT_DECIMAL = (value, out) -> unitDecimal(value, ".,\uFF0C\uFF0E", out);
+    private static final Transformation UNIT_DECIMAL_IN = (value, out) -> unitDecimal(value, ", \u00A0", out);
+    private static final Transformation ZERO_DASH = IxtTransform::zeroDash;
+
+    /* The registries by local name. The ixt-1 to ixt-3 names are concatenated words, the ixt-4 and ixt-5 names are hyphenated */
+    private static final Map<String,Transformation> REGISTRY = new ImmutableMap.Builder<String,Transformation>()
+            /* ixt-1 */
+            .put("numcommadot", DOT_DECIMAL).put("numspacedot", DOT_DECIMAL)
+            .put("numdotcomma", COMMA_DECIMAL).put("numspacecomma", COMMA_DECIMAL).put("numcomma", COMMA_DECIMAL)
+            .put("numdash", ZERO_DASH)
+            .put("dateslashus", new DateTransformation("MDY", false)).put("datedotus", new DateTransformation("MDY", false))
+            .put("dateslasheu", new DateTransformation("DMY", false)).put("datedoteu", new DateTransformation("DMY", false))
+            .put("datelongus", new DateTransformation("MDY", true)).put("dateshortus", new DateTransformation("MDY", true))
+            .put("datelonguk", new DateTransformation("DMY", true)).put("dateshortuk", new DateTransformation("DMY", true))
+            .put("dateslashmonthdayus", new DateTransformation("MD", false))
+            .put("dateslashdaymontheu", new DateTransformation("DM", false))
+            .put("datelongmonthdayus", new DateTransformation("MD", true))
+            .put("dateshortmonthdayus", new DateTransformation("MD", true))
+            .put("datelongdaymonthuk", new DateTransformation("DM", true))
+            .put("dateshortdaymonthuk", new DateTransformation("DM", true))
+            .put("datelongmonthyear", new DateTransformation("MY", true))
+            .put("dateshortmonthyear", new DateTransformation("MY", true))
+            .put("datelongyearmonth", new DateTransformation("YM", true))
+            .put("dateshortyearmonth", new DateTransformation("YM", true))
+            /* ixt-2 and ixt-3 */
+            .put("booleanfalse", new Fixed("false")).put("booleantrue", new Fixed("true"))
+            .put("nocontent", new Fixed(""))
+            .put("zerodash", ZERO_DASH)
+            .put("numdotdecimal", DOT_DECIMAL).put("numdotdecimalin", DOT_DECIMAL)
+            .put("numcommadecimal", COMMA_DECIMAL)
+            .put("numunitdecimal", UNIT_DECIMAL).put("numunitdecimalin", UNIT_DECIMAL_IN)
+            .put("datedaymonth", new DateTransformation("DM", false))
+            .put("datedaymonthen", new DateTransformation("DM", true))
+            .put("datedaymonthyear", new DateTransformation("DMY", false))
+            .put("datedaymonthyearen", new DateTransformation("DMY", true))
+            .put("datemonthday", new DateTransformation("MD", false))
+            .put("datemonthdayen", new DateTransformation("MD", true))
+            .put("datemonthdayyear", new DateTransformation("MDY", false))
+            .put("datemonthdayyearen", new DateTransformation("MDY", true))
+            .put("datemonthyear", new DateTransformation("MY", false))
+            .put("datemonthyearen", new DateTransformation("MY", true))
+            .put("dateyearmonthday", new DateTransformation("YMD", false))
+            .put("dateyearmonthen", new DateTransformation("YM", true))
+            /* ixt-4 and ixt-5 */
+            .put("fixed-empty", new Fixed("")).put("fixed-zero", new Fixed("0"))
+            .put("fixed-false", new Fixed("false")).put("fixed-true", new Fixed("true"))
+            .put("num-dot-decimal", DOT_DECIMAL).put("num-dot-decimal-in", DOT_DECIMAL)
+            .put("num-dot-decimal-apos", DOT_DECIMAL)
+            .put("num-comma-decimal", COMMA_DECIMAL).put("num-comma-decimal-apos", COMMA_DECIMAL)
+            .put("num-unit-decimal", UNIT_DECIMAL).put("num-unit-decimal-in", UNIT_DECIMAL_IN)
+            .put("date-day-month", new DateTransformation("DM", false))
+            .put("date-day-monthname-en", new DateTransformation("DM", true))
+            .put("date-day-month-year", new DateTransformation("DMY", false))
+            .put("date-day-monthname-year-en", new DateTransformation("DMY", true))
+            .put("date-month-day", new DateTransformation("MD", false))
+            .put("date-monthname-day-en", new DateTransformation("MD", true))
+            .put("date-month-day-en", new DateTransformation("MD", true))
+            .put("date-month-day-year", new DateTransformation("MDY", false))
+            .put("date-monthname-day-year-en", new DateTransformation("MDY", true))
+            .put("date-month-day-year-en", new DateTransformation("MDY", true))
+            .put("date-month-year", new DateTransformation("MY", false))
+            .put("date-monthname-year-en", new DateTransformation("MY", true))
+            .put("date-year-month", new DateTransformation("YM", false))
+            .put("date-year-monthname-en", new DateTransformation("YM", true))
+            .put("date-year-month-day", new DateTransformation("YMD", false))
+            /* Not yet supported, values are left unchanged */
+            .put("datequarterend", PASS_THROUGH)
+            .put("boolballotbox", PASS_THROUGH)
+            .put("durday", PASS_THROUGH).put("durhour", PASS_THROUGH).put("durweek", PASS_THROUGH)
+            .put("durmonth", PASS_THROUGH).put("durwordsen", PASS_THROUGH).put("duryear", PASS_THROUGH)
+            .put("entityfilercategoryen", PASS_THROUGH).put("edgarprovcountryen", PASS_THROUGH)
+            .put("exchnameen", PASS_THROUGH).put("numwordsen", PASS_THROUGH)
+            .put("stateprovnameen", PASS_THROUGH).put("countrynameen", PASS_THROUGH)
+            .build();
+
+    /* Formats as they appear in filings, resolved */
+    private static final Map<String,Transformation> RESOLVED = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(64));
+
+    /**
+     * @param qualifiedFormat A format, e.g. ixt:num-dot-decimal
+     * @return The transformation of the format. Formats that are not supported resolve to a transformation that
+     * leaves values unchanged
+     */
+    public static Transformation resolve(String qualifiedFormat) {
+        Transformation transformation = RESOLVED.get(qualifiedFormat);
+        if (transformation != null)
+            return transformation;
+
+        return RESOLVED.computeIfAbsent(qualifiedFormat, k -> {
+            int index = k.indexOf(':');
+            String format = (index > 0) ? k.substring(index + 1) : k;
+            Transformation result = REGISTRY.get(format);
+            if (result == null) {
+                log.info("Format [{}] not yet supported", k);
+                result = PASS_THROUGH;
+            }
+            return result;
+        });
+    }
 
-        return canonicalNumber(value);
+    /**
+     * Transform value per qualifiedFormat
+     *
+     * @param qualifiedFormat A format, e.g. ixt:num-dot-decimal
+     * @param value The value
+     * @param out The transformed value is appended to out
+     * @return OK if value matches the format
+     */
+    public static Result transform(String qualifiedFormat, CharSequence value, StringBuilder out) {
+        return resolve(qualifiedFormat).transform(value, out);
     }
 
+    /**
+     * @param qualifiedFormat A format, e.g. ixt:num-dot-decimal, or null
+     * @param value The value
+     * @return The transformed value. If value does not match the format, it is returned unchanged
+     */
     public static String transformWithFormat(String qualifiedFormat, String value) {
         if (qualifiedFormat == null)
             return value;
 
-        String prefix;
-        String format = qualifiedFormat;
-        int index = format.indexOf(':');
-        if (index > 0) {
-            prefix = format.substring(0, index);
-            format = format.substring(index + 1);
+        Transformation transformation = resolve(qualifiedFormat);
+        if (transformation == PASS_THROUGH)
+            return value;
+        if (transformation instanceof Fixed fixed)
+            return fixed.value();
+
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        Result result = transformation.transform(value, out);
+        if (result != Result.OK) {
+            log.info("Value [{}] does not match format [{}]: [{}]", value, qualifiedFormat, result);
+            return value;
         }
+        return out.toString();
+    }
 
-        /* TODO - the cases need to be completed either by validating against the spec or by examples */
-        switch (format) {
-            case "nocontent":
-                return "";
-
-            case "fixed-zero":
-                return "0";
-
-            case "zerodash": {
-                Matcher matcher = ZERO_DASH.matcher(value);
-                if (matcher.matches()) {
-                    return "0";
-                } else {
-                    log.info("Value [{}] does not match ZERO_DASH pattern [{}]", value, ZERO_DASH);
-                    throw new RuntimeException("Value [" + value + "] does not match ZERO_DASH pattern [" + ZERO_DASH + "]");
-                }
-            }
-
-            case "fixed-false":
-            case "booleanfalse":
-                return "false";
-
-            case "fixed-true":
-            case "booleantrue":
-                return "true";
-
-            case "num-dot-decimal":
-            case "numdotdecimal": {
-                Matcher matcher = NUM_DOT_DECIMAL.matcher(value);
-                if (matcher.matches())
-                    return cleanNumber(value);
-
-                matcher = NUM_DOT_DECIMAL_TR4.matcher(value);
-                if (matcher.matches())
-                    return valueOf(value, format, NUM_DOT_DECIMAL_TR4);
-
-                matcher = NUM_DOT_DECIMAL_APOS.matcher(value);
-                if (matcher.matches())
-                    return valueOf(value, format, NUM_DOT_DECIMAL_APOS);
-
-                log.info("Value [{}] does not match format [{}], pattern [{}]", value, format, NUM_DOT_DECIMAL);
-                throw new RuntimeException("Bad value [" + value + "]");
-            }
-
-            case "numdotdecimalin": {
-                Matcher matcher = NUM_DOT_DECIMAL_IN.matcher(value);
-                if (matcher.matches()) {
-                    int nOfGroups = matcher.groupCount();
-
-                    int lastValidIndex = nOfGroups;
-                    while (lastValidIndex > 0 && matcher.group(lastValidIndex) == null)
-                        --lastValidIndex;
-
-                    int firstValidIndex = 0;
-                    while (firstValidIndex <= nOfGroups && matcher.group(firstValidIndex) == null)
-                        ++firstValidIndex;
-
-                    if (lastValidIndex == 0 || firstValidIndex > nOfGroups) {
-                        log.info("Invalid last [{}] or first index [{}] for value [{}]", lastValidIndex, firstValidIndex, value);
-                        throw new RuntimeException("Bad value [" + value + "] for format [" + format + "]");
-                    }
-
-                    String fraction = matcher.group(lastValidIndex);
-                    if (fraction.length() > 0 && fraction.charAt(0) == '.') {
-                        return cleanNumber(matcher.group(firstValidIndex)) + fraction;
-                    } else {
-                        return cleanNumber(matcher.group(firstValidIndex));
-                    }
-                } else {
-                    log.info("Value [{}] does not match format [{}], pattern [{}]", value, format, NUM_DOT_DECIMAL_IN);
-                    throw new RuntimeException("Bad value [" + value + "] for format [" + format + "]");
-                }
-            }
-
-            case "numunitdecimalin": {
-                Matcher matcher = NUM_UNIT_DECIMAL_IN.matcher(value);
-                if (matcher.matches()) {
-                    int nOfGroups = matcher.groupCount();
-
-                    int firstValidIndex = 0;
-                    while (firstValidIndex <= nOfGroups && matcher.group(firstValidIndex) == null)
-                        ++firstValidIndex;
-
-                    int lastValidIndex = nOfGroups;
-                    while (lastValidIndex > 0 && matcher.group(lastValidIndex) == null)
-                        --lastValidIndex;
-
-                    if (lastValidIndex <= 1 || firstValidIndex > nOfGroups) {
-                        log.info("Invalid last [{}] or first index [{}] for value [{}]", lastValidIndex, firstValidIndex, value);
-                        throw new RuntimeException("Bad value [" + value + "] for format [" + format + "]");
-                    }
+    /**
+     * @param value A date
+     * @param format The local name of a date format, e.g. datemonthyearen
+     * @return The date, or null if value does not match format
+     */
+    public static String parseDate(String value, String format) {
+        StringBuilder out = new StringBuilder(10);
+        Result result = transform(format, value, out);
+        if (result != Result.OK) {
+            log.info("Date [{}] does not match format [{}]: [{}]", value, format, result);
+            return null;
+        }
+        return out.toString();
+    }
 
-                    return cleanNumber(matcher.group(firstValidIndex)) + "." +
-                            String.format("%02d", Integer.parseInt(matcher.group(lastValidIndex - 1)));
-                } else {
-                    log.info("Value [{}] does not match format [{}], pattern [{}]", value, format, NUM_UNIT_DECIMAL_IN);
-                    throw new RuntimeException("Bad value [" + value + "]");
-                }
-            }
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
 
-            case "numcommadecimal": {
-                Matcher matcher = NUM_COMMA_DECIMAL.matcher(value);
-                if (matcher.matches()) {
-                    return value.replace(".", "").replace(",", ".")
-                            .replace(" ", "").replace("\u00A0", "");
-                } else {
-                    log.info("Value [{}] does not match format [{}], pattern [{}]", value, format, NUM_COMMA_DECIMAL);
-                    throw new RuntimeException("Bad value [" + value + "]");
-                }
-            }
+    private static int skipWhitespace(CharSequence value, int index) {
+        while (index < value.length() && WHITESPACE.indexOf(value.charAt(index)) >= 0)
+            ++index;
+        return index;
+    }
 
-            case "date-month-year":
-            case "datemonthyear":
-            case "date-monthname-year-en":
-            case "datemonthyearen":
-            case "datedaymonthyear":
-            case "datedaymonthyearen":
-            case "date-day-monthname-year-en":
-            case "dateyearmonthday":
-            case "datequarterend":
-            case "date-month-day":
-            case "datemonthday":
-            case "date-month-day-en":
-            case "date-monthname-day-en":
-            case "datemonthdayen":
-            case "date-monthname-day-year-en":
-            case "date-month-day-year-en":
-            case "datemonthdayyearen":
-            case "date-month-day-year":
-            case "datemonthdayyear":
-                return parseDate(value, format);
-
-            case "boolballotbox":
-            case "durday":
-            case "durhour":
-            case "durweek":
-            case "durmonth":
-            case "durwordsen":
-            case "duryear":
-            case "entityfilercategoryen":
-            case "edgarprovcountryen":
-            case "exchnameen":
-            case "numwordsen":
-            case "stateprovnameen":
-            case "countrynameen":
-                return value;
-
-            default:
-                log.info("Format [{}]", qualifiedFormat);
-                return value;
-        }
+    private static int trimWhitespace(CharSequence value, int start) {
+        int end = value.length();
+        while (end > start && WHITESPACE.indexOf(value.charAt(end - 1)) >= 0)
+            --end;
+        return end;
     }
 
-    private static final class IxtDate {
-        private final Pattern pattern;
-        private final int dayGroup;
-        private final int monthGroup;
-        private final int yearGroup;
-        private final int maxGroups;
-
-        private IxtDate(Pattern pattern, int dayGroup, int monthGroup, int yearGroup, int maxGroups) {
-            this.pattern = pattern;
-            this.dayGroup = dayGroup;
-            this.monthGroup = monthGroup;
-            this.yearGroup = yearGroup;
-            this.maxGroups = maxGroups;
-        }
+    private static Result noMatch(StringBuilder out, int mark) {
+        out.setLength(mark);
+        return Result.NO_MATCH;
+    }
 
-        private LocalDate parse(String value) {
-            Matcher matcher = pattern.matcher(value);
-            boolean result = matcher.matches();
-            int groups = matcher.groupCount();
-            if (matcher.matches() && matcher.groupCount() == maxGroups) {
-                String d = matcher.group(dayGroup);
-                String y = matcher.group(yearGroup);
-                String m = matcher.group(monthGroup);
-
-                int day = Integer.parseInt(d);
-                int year = Integer.parseInt(y);
-                int month = Objects.requireNonNullElseGet(MONTH_NUMBER.get(m.toLowerCase()), () -> Integer.parseInt(m));
-                return LocalDate.of(year, month, day);
+    /*
+     * Digits with group separators, optionally followed by the decimal separator and more digits, e.g. 1,234.50 for
+     * num-dot-decimal. Group separators are dropped and the decimal separator becomes a '.'. Spaces are allowed in
+     * the fraction as well.
+     */
+    private static Result decimal(CharSequence value, char decimalSeparator, String groupSeparators, StringBuilder out) {
+        int mark = out.length();
+        int start = skipWhitespace(value, 0);
+        int end = trimWhitespace(value, start);
+        boolean digits = false, fraction = false;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (isDigit(c)) {
+                out.append(c);
+                digits = true;
+            } else if (c == decimalSeparator && !fraction) {
+                out.append('.');
+                fraction = true;
+            } else if (fraction ? (c == ' ' || c == '\u00A0') : groupSeparators.indexOf(c) >= 0) {
+                continue;
             } else {
-                log.info("Date [{}] does not match [{}]", value, pattern.toString());
-                throw new RuntimeException("Date [" + value + "] does not match [" + pattern.toString() + "]");
+                return noMatch(out, mark);
             }
         }
+        if (!digits)
+            return noMatch(out, mark);
 
-        private static final class Builder {
-            private Pattern pattern;
-            private int dayGroup;
-            private int monthGroup;
-            private int yearGroup;
-            private int maxGroups = 3;
-
-            private Builder pattern(Pattern pattern) {
-                this.pattern = pattern;
-                return this;
-            }
-
-            private Builder dayGroup(int dayGroup) {
-                this.dayGroup = dayGroup;
-                return this;
-            }
-
-            private Builder monthGroup(int monthGroup) {
-                this.monthGroup = monthGroup;
-                return this;
-            }
-
-            private Builder yearGroup(int yearGroup) {
-                this.yearGroup = yearGroup;
-                return this;
-            }
-
-            private Builder maxGroups(int maxGroups) {
-                this.maxGroups = maxGroups;
-                return this;
-            }
-
-            private IxtDate build() {
-                return new IxtDate(pattern, dayGroup, monthGroup, yearGroup, maxGroups);
-            }
-        }
+        /* 1. is 1 */
+        if (out.charAt(out.length() - 1) == '.')
+            out.setLength(out.length() - 1);
+        return Result.OK;
     }
 
-    private static final class IxtMonthDay {
-        private final Pattern pattern;
-        private final int dayGroup;
-        private final int monthGroup;
-        private final int maxGroups;
-
-        private IxtMonthDay(Pattern pattern, int dayGroup, int monthGroup, int maxGroups) {
-            this.pattern = pattern;
-            this.dayGroup = dayGroup;
-            this.monthGroup = monthGroup;
-            this.maxGroups = maxGroups;
-        }
-
-        private String parse(String value) {
-            Matcher matcher = pattern.matcher(value);
-            boolean result = matcher.matches();
-            int groups = matcher.groupCount();
-            if (matcher.matches() && matcher.groupCount() == maxGroups) {
-                String d = matcher.group(dayGroup);
-                String m = matcher.group(monthGroup);
-
-                int day = Integer.parseInt(d);
-                int month = Objects.requireNonNullElseGet(MONTH_NUMBER.get(m.toLowerCase()), () -> Integer.parseInt(m));
-                Integer maxDays = MAX_DAYS_IN_MONTH.get(month);
-                if (day > maxDays) {
-                    throw new RuntimeException("Invalid number of days [" + day + "] in month [" + month + "]");
-                }
-
-                return String.format("--{%02d}-{%d}", month, day);
+    /*
+     * An amount in units and sub-units, e.g. 5 dollars 25 cents is 5.25. The integer part may have group separators,
+     * the sub-units have one or two digits.
+     */
+    private static Result unitDecimal(CharSequence value, String groupSeparators, StringBuilder out) {
+        int mark = out.length();
+        int i = skipWhitespace(value, 0);
+        int end = value.length();
+        if (i == end || !isDigit(value.charAt(i)))
+            return noMatch(out, mark);
+
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+            if (isDigit(c)) {
+                out.append(c);
+            } else if (groupSeparators.indexOf(c) >= 0 && i + 1 < end && isDigit(value.charAt(i + 1))) {
+                continue;
             } else {
-                log.info("Month day [{}] does not match [{}]", value, pattern);
-                throw new RuntimeException("Month day [" + value + "] does not match [" + pattern + "]");
+                break;
             }
         }
 
-        private static final class Builder {
-            private Pattern pattern;
-            private int dayGroup;
-            private int monthGroup;
-            private int maxGroups = 2;
-
-            private Builder pattern(Pattern pattern) {
-                this.pattern = pattern;
-                return this;
-            }
+        /* The unit */
+        int unitStart = i;
+        while (i < end && !isDigit(value.charAt(i)))
+            ++i;
+        if (i == unitStart)
+            return noMatch(out, mark);
+
+        /* The sub-units */
+        int subUnitStart = i;
+        while (i < end && isDigit(value.charAt(i)))
+            ++i;
+        int nOfDigits = i - subUnitStart;
+        if (nOfDigits == 0 || nOfDigits > 2)
+            return noMatch(out, mark);
+        while (i < end) {
+            if (isDigit(value.charAt(i++)))
+                return noMatch(out, mark);
+        }
 
-            private Builder dayGroup(int dayGroup) {
-                this.dayGroup = dayGroup;
-                return this;
-            }
+        out.append('.');
+        if (nOfDigits == 1)
+            out.append('0');
+        out.append(value, subUnitStart, subUnitStart + nOfDigits);
+        return Result.OK;
+    }
 
-            private Builder monthGroup(int monthGroup) {
-                this.monthGroup = monthGroup;
-                return this;
-            }
+    /* A single dash is zero */
+    private static Result zeroDash(CharSequence value, StringBuilder out) {
+        int start = skipWhitespace(value, 0);
+        int end = trimWhitespace(value, start);
+        if (end - start != 1 || DASHES.indexOf(value.charAt(start)) < 0)
+            return Result.NO_MATCH;
 
-            private Builder maxGroups(int maxGroups) {
-                this.maxGroups = maxGroups;
-                return this;
-            }
+        out.append('0');
+        return Result.OK;
+    }
 
-            private IxtMonthDay build() {
-                return new IxtMonthDay(pattern, dayGroup, monthGroup, maxGroups);
-            }
+    /**
+     * @return The month of the word at value[start, end): a month name in English or a prefix of one that is at
+     * least three letters long, e.g. Sept, or 0 if the word is not a month
+     */
+    private static int monthOf(CharSequence value, int start, int end) {
+        int length = end - start;
+        if (length < 3)
+            return 0;
+        for (int month = 0; month < MONTH_NAMES.length; month++) {
+            String name = MONTH_NAMES[month];
+            if (length > name.length())
+                continue;
+            int i = 0;
+            while (i < length && Character.toLowerCase(value.charAt(start + i)) == name.charAt(i))
+                ++i;
+            if (i == length)
+                return month + 1;
         }
+        return 0;
     }
 
-    private static final class IxtMonthYear {
-        private final Pattern pattern;
-        private final int monthGroup;
-        private final int yearGroup;
-        private final int maxGroups;
-
-        private IxtMonthYear(Pattern pattern, int monthGroup, int yearGroup, int maxGroups) {
-            this.pattern = pattern;
-            this.monthGroup = monthGroup;
-            this.yearGroup = yearGroup;
-            this.maxGroups = maxGroups;
+    private static void pad(StringBuilder out, int value, int width) {
+        for (int limit = (width == 4) ? 1000 : 10; limit > 1 && value < limit; limit /= 10) {
+            out.append('0');
         }
+        out.append(value);
+    }
 
-        private String parse(String value) {
-            Matcher matcher = pattern.matcher(value);
-            boolean result = matcher.matches();
-            int groups = matcher.groupCount();
-            if (matcher.matches() && matcher.groupCount() == maxGroups) {
-                String m = matcher.group(monthGroup);
-                String y = matcher.group(yearGroup);
-
-                int year = Integer.parseInt(y);
-                int month = Objects.requireNonNullElseGet(MONTH_NUMBER.get(m.toLowerCase()), () -> Integer.parseInt(m));
-
-                return String.format("%d-%02d", year, month);
-            } else {
-                log.info("Month year [{}] does not match [{}]", value, pattern);
-                throw new RuntimeException("Month year [" + value + "] does not match [" + pattern + "]");
-            }
+    /**
+     * A date with numeric fields in a given order, e.g. 12/31/2023 for date-month-day-year, or with the month as
+     * a name, e.g. December 31, 2023 for date-monthname-day-year-en. Fields are separated by anything but digits.
+     * Days and months have one or two digits, years have four or, for years from 2000, one or two digits. The result
+     * is an xs:date, an xs:gMonthDay or an xs:gYearMonth depending on the fields.
+     */
+    private static final class DateTransformation implements Transformation {
+        /* The fields in the order they appear, D, M and Y */
+        private final String fields;
+        private final boolean monthName;
+        private final int monthIndex;
+
+        private DateTransformation(String fields, boolean monthName) {
+            this.fields = fields;
+            this.monthName = monthName;
+            this.monthIndex = fields.indexOf('M');
         }
 
-        private static final class Builder {
-            private Pattern pattern;
-            private int monthGroup;
-            private int yearGroup;
-            private int maxGroups = 2;
-
-            private Builder pattern(Pattern pattern) {
-                this.pattern = pattern;
-                return this;
-            }
-
-            private Builder monthGroup(int monthGroup) {
-                this.monthGroup = monthGroup;
-                return this;
-            }
-
-            private Builder yearGroup(int yearGroup) {
-                this.yearGroup = yearGroup;
-                return this;
+        @Override
+        public Result transform(CharSequence value, StringBuilder out) {
+            int day = 0, month = 0, year = 0;
+            int nOfNumbers = 0;
+            /* The number of numbers ahead of the month name */
+            int monthPosition = -1;
+            int end = value.length();
+            int i = 0;
+            while (i < end) {
+                char c = value.charAt(i);
+                if (isDigit(c)) {
+                    int start = i, number = 0;
+                    while (i < end && isDigit(value.charAt(i))) {
+                        number = number * 10 + (value.charAt(i++) - '0');
+                        if (i - start > 4)
+                            return Result.NO_MATCH;
+                    }
+                    int index = nOfNumbers++;
+                    if (monthName && monthPosition >= 0 && index >= monthPosition)
+                        ++index;
+                    if (index >= fields.length())
+                        return Result.NO_MATCH;
+                    int nOfDigits = i - start;
+                    switch (fields.charAt(index)) {
+                        case 'D':
+                            if (nOfDigits > 2)
+                                return Result.NO_MATCH;
+                            day = number;
+                            break;
+                        case 'M':
+                            if (monthName || nOfDigits > 2)
+                                return Result.NO_MATCH;
+                            month = number;
+                            break;
+                        case 'Y':
+                            if (nOfDigits == 3)
+                                return Result.NO_MATCH;
+                            year = (nOfDigits <= 2) ? 2000 + number : number;
+                            break;
+                    }
+                } else if (Character.isLetter(c)) {
+                    int start = i;
+                    while (i < end && Character.isLetter(value.charAt(i)))
+                        ++i;
+                    /* Other words, e.g. ordinal suffixes, are separators */
+                    if (monthName && monthPosition < 0) {
+                        int m = monthOf(value, start, i);
+                        if (m > 0) {
+                            if (nOfNumbers != monthIndex)
+                                return Result.NO_MATCH;
+                            month = m;
+                            monthPosition = nOfNumbers;
+                        }
+                    }
+                } else {
+                    ++i;
+                }
             }
 
-            private Builder maxGroups(int maxGroups) {
-                this.maxGroups = maxGroups;
-                return this;
+            if (nOfNumbers + (monthName ? 1 : 0) != fields.length() || (monthName && monthPosition < 0))
+                return Result.NO_MATCH;
+
+            if (month < 1 || month > 12)
+                return Result.INVALID_DATE;
+            boolean hasDay = fields.indexOf('D') >= 0;
+            boolean hasYear = fields.indexOf('Y') >= 0;
+            if (hasDay) {
+                int maxDays = hasYear ? Month.of(month).length(Year.isLeap(year)) : Month.of(month).maxLength();
+                if (day < 1 || day > maxDays)
+                    return Result.INVALID_DATE;
             }
 
-            private IxtMonthYear build() {
-                return new IxtMonthYear(pattern, monthGroup, yearGroup, maxGroups);
+            if (hasYear) {
+                pad(out, year, 4);
+                out.append('-');
+                pad(out, month, 2);
+                if (hasDay) {
+                    out.append('-');
+                    pad(out, day, 2);
+                }
+            } else {
+                out.append("--");
+                pad(out, month, 2);
+                out.append('-');
+                pad(out, day, 2);
             }
+            return Result.OK;
         }
     }
 }
@@ -16,6 +16,7 @@
 package io.datanapis.xbrl.utils;
 
 import io.datanapis.xbrl.TagNames;
+import io.datanapis.xbrl.XbrlException;
 import io.datanapis.xbrl.model.Concept;
 import io.datanapis.xbrl.model.ExplicitMember;
 import org.dom4j.Element;
@@ -267,6 +268,17 @@ public class Utils {
         }
     }
 
+    /**
+     * Stops a read whose thread has been interrupted, e.g. by XbrlBatchReader when the read times out or is
+     * cancelled. The interrupt status is left set.
+     *
+     * @throws XbrlException if the current thread has been interrupted
+     */
+    public static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted())
+            throw new XbrlException("Read interrupted");
+    }
+
     public static String join(Collection<ExplicitMember> l) {
         StringBuilder builder = new StringBuilder();
         for (ExplicitMember m : l) {
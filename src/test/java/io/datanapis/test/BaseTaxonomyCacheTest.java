@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.BaseTaxonomyCache;
+import io.datanapis.xbrl.DiscoverableTaxonomySet;
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.model.Concept;
+import io.datanapis.xbrl.model.Fact;
+import io.datanapis.xbrl.model.Label;
+import io.datanapis.xbrl.model.RoleType;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BaseTaxonomyCacheTest {
+    private static final String REGISTRANT_NAME = "dei-2023.xsd#dei_EntityRegistrantName";
+    private static final String COVER_PAGE = "http://xbrl.sec.gov/dei/role/CoverPage";
+
+    private static RoleType roleType(DiscoverableTaxonomySet dts, String roleURI) {
+        for (RoleType roleType : dts.getAllRoleTypes()) {
+            if (roleType.getRoleURI().equals(roleURI))
+                return roleType;
+        }
+        return null;
+    }
+
+    /* Treat the sample dei schema as the standard taxonomy */
+    static BaseTaxonomyCache sampleCache() throws Exception {
+        Path folder = SampleFiling.folder();
+        return new BaseTaxonomyCache(List.of(folder.resolve("dei-").toString()), null);
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testSharedBase() throws Exception {
+        String path = SampleFiling.samplePath();
+        BaseTaxonomyCache cache = sampleCache();
+        XbrlReader reader = new XbrlReader().shareBaseTaxonomies(cache);
+
+        XbrlInstance first = reader.getInstance(path);
+        XbrlInstance second = reader.getInstance(path);
+        DiscoverableTaxonomySet base = first.getTaxonomy().getBase();
+        assertNotNull(base);
+        assertSame(base, second.getTaxonomy().getBase());
+        assertNotSame(first.getTaxonomy(), second.getTaxonomy());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.hitCount());
+
+        /* The base holds just the standard concepts, the overlay falls through to them */
+        assertEquals(9, base.getAllConcepts().size());
+        assertNull(base.getConcept("smpl-20231231.xsd#smpl_Assets"));
+        assertNotNull(first.getTaxonomy().getConcept("smpl-20231231.xsd#smpl_Assets"));
+        Concept documentType = first.getTaxonomy().getConcept("dei-2023.xsd#dei_DocumentType");
+        assertSame(base.getConcept("dei-2023.xsd#dei_DocumentType"), documentType);
+
+        /* The filing relabels a base concept. The relabeled copy lives in the overlay and the base is untouched */
+        Concept registrant = first.getTaxonomy().getConcept(REGISTRANT_NAME);
+        assertNotSame(base.getConcept(REGISTRANT_NAME), registrant);
+        assertEquals("Registrant", registrant.getLabel(Label.ROLE_TYPE_TERSE_LABEL).getValue());
+        assertEquals("Entity Registrant Name", registrant.getLabel(Label.ROLE_TYPE_LABEL).getValue());
+        assertNull(base.getConcept(REGISTRANT_NAME).getLabel(Label.ROLE_TYPE_TERSE_LABEL));
+
+        assertEquals("10-K", first.getDei().getDocumentInformation().getDocumentType());
+        assertEquals("Sample Corp", first.getDei().getEntityInformation().getRegistrantName());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testLayeredMatchesFlat() throws Exception {
+        String path = SampleFiling.samplePath();
+        XbrlInstance flat = new XbrlReader().getInstance(path);
+        XbrlInstance layered = new XbrlReader().shareBaseTaxonomies(sampleCache()).getInstance(path);
+
+        DiscoverableTaxonomySet.Statistics expected = flat.getTaxonomy().getStatistics();
+        DiscoverableTaxonomySet.Statistics actual = layered.getTaxonomy().getStatistics();
+        assertEquals(expected.nOfConcepts, actual.nOfConcepts);
+        assertEquals(expected.nOfRoleTypes, actual.nOfRoleTypes);
+        assertEquals(expected.nOfReportableRoleTypes, actual.nOfReportableRoleTypes);
+        assertEquals(expected.uriConceptCount, actual.uriConceptCount);
+
+        assertEquals(flat.nOfFacts(), layered.nOfFacts());
+        for (Fact fact : flat.getAllFacts()) {
+            Concept concept = layered.getTaxonomy().getConcept(fact.getConcept().getKey());
+            assertNotNull(concept);
+            assertEquals(fact.getConcept().getLabel().getValue(), concept.getLabel().getValue());
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testFactsAreInstanceScoped() throws Exception {
+        String path = SampleFiling.samplePath();
+        XbrlReader reader = new XbrlReader().shareBaseTaxonomies(sampleCache());
+
+        XbrlInstance first = reader.getInstance(path);
+        XbrlInstance second = reader.getInstance(path);
+        Concept documentType = first.getTaxonomy().getConcept("dei-2023.xsd#dei_DocumentType");
+        assertSame(documentType, second.getTaxonomy().getConcept("dei-2023.xsd#dei_DocumentType"));
+
+        /* The shared concept only sees the facts of the instance it is queried through */
+        assertEquals(1, first.getFacts(documentType).size());
+        assertEquals(1, second.getFacts(documentType).size());
+        Fact fact = first.getFacts(documentType).iterator().next();
+        assertNotSame(fact, second.getFacts(documentType).iterator().next());
+        assertSame(fact, first.getFact(fact.getContext(), documentType));
+        assertTrue(first.getFacts(fact.getContext()).contains(fact));
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testBaseRetainsNoInstance() throws Exception {
+        String path = SampleFiling.samplePath();
+        BaseTaxonomyCache cache = sampleCache();
+        XbrlReader reader = new XbrlReader().shareBaseTaxonomies(cache);
+
+        XbrlInstance instance = reader.getInstance(path);
+        DiscoverableTaxonomySet base = instance.getTaxonomy().getBase();
+        WeakReference<XbrlInstance> instanceRef = new WeakReference<>(instance);
+        Concept documentType = base.getConcept("dei-2023.xsd#dei_DocumentType");
+        WeakReference<Fact> factRef = new WeakReference<>(instance.getFacts(documentType).iterator().next());
+        instance = null;
+
+        /* The cache keeps the base reachable. Nothing reachable from the base may keep the instance or its facts */
+        for (int i = 0; i < 50 && (instanceRef.get() != null || factRef.get() != null); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(instanceRef.get());
+        assertNull(factRef.get());
+        assertSame(base, reader.getInstance(path).getTaxonomy().getBase());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testOverlayKeepsBaseLinks() throws Exception {
+        String path = SampleFiling.samplePath();
+        XbrlInstance flat = new XbrlReader().getInstance(path);
+        XbrlReader reader = new XbrlReader().shareBaseTaxonomies(sampleCache());
+        XbrlInstance first = reader.getInstance(path);
+        XbrlInstance second = reader.getInstance(path);
+
+        /* The base cover page has 2 arcs, the filing refers to the role and adds a third */
+        RoleType baseCoverPage = roleType(first.getTaxonomy().getBase(), COVER_PAGE);
+        assertNotNull(baseCoverPage);
+        assertEquals(2, baseCoverPage.getPresentationLink().getAllArcs().size());
+        for (XbrlInstance instance : List.of(first, second)) {
+            RoleType coverPage = roleType(instance.getTaxonomy(), COVER_PAGE);
+            assertNotSame(baseCoverPage, coverPage);
+            assertEquals(3, coverPage.getPresentationLink().getAllArcs().size());
+        }
+        assertEquals(3, roleType(flat.getTaxonomy(), COVER_PAGE).getPresentationLink().getAllArcs().size());
+        assertEquals(2, baseCoverPage.getPresentationLink().getAllArcs().size());
+
+        /* A copy that only refers to the role reads the links of the original */
+        RoleType copy = RoleType.copyOf(baseCoverPage);
+        assertSame(baseCoverPage.getPresentationLink(), copy.getPresentationLink());
+        assertNull(copy.getCalculationLink());
+        assertNull(copy.getDefinitionLink());
+    }
+}
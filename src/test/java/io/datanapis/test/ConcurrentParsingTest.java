@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.analysis.data.XbrlInstancePath;
+import io.datanapis.xbrl.model.Fact;
+import io.datanapis.xbrl.model.RoleType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentParsingTest {
+    private static final int N_THREADS = 8;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /* Everything a parse produces that a concurrent parse could corrupt: facts, role types and their links */
+    static List<String> describe(XbrlInstance instance) {
+        List<String> lines = new ArrayList<>();
+        for (Fact fact : instance.getAllFacts()) {
+            lines.add(String.join("|", fact.getConcept().getKey(), fact.getContext().getId(),
+                    (fact.getUnit() != null) ? fact.getUnit().getId() : "", String.valueOf(fact.getValue()),
+                    String.valueOf(fact.getDecimals())));
+        }
+        for (RoleType roleType : instance.getTaxonomy().getAllRoleTypes()) {
+            lines.add(String.join("|", roleType.getRoleURI(),
+                    String.valueOf(roleType.getPresentationLink() != null ? roleType.getPresentationLink().getAllArcs().size() : -1),
+                    String.valueOf(roleType.getCalculationLink() != null ? roleType.getCalculationLink().getAllArcs().size() : -1),
+                    String.valueOf(roleType.getDefinitionLink() != null ? roleType.getDefinitionLink().getAllArcs().size() : -1)));
+        }
+        lines.add("concepts|" + instance.getTaxonomy().getAllConcepts().size());
+        Collections.sort(lines);
+
+        return lines;
+    }
+
+    private static List<String> parse(String path) throws Exception {
+        return describe(new XbrlReader().getInstance(path));
+    }
+
+    private static List<String> parse(XbrlInstancePath instancePath) throws Exception {
+        XbrlReader reader = new XbrlReader();
+        if (instancePath.getLocalPath() == null)
+            return describe(reader.getInstance(null, instancePath.getPath()));
+
+        try (InputStream is = new FileInputStream(instancePath.getLocalPath())) {
+            return describe(reader.getInstanceFromZipStream(null, instancePath.getPath(), is));
+        }
+    }
+
+    private interface Parser<T> {
+        List<String> parse(T source) throws Exception;
+    }
+
+    private static <T> void assertParallelMatchesSerial(List<T> sources, int rounds, Parser<T> parser) throws Exception {
+        Map<T,List<String>> expected = new HashMap<>();
+        for (T source : sources) {
+            expected.put(source, parser.parse(source));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(N_THREADS);
+        try {
+            List<T> submitted = new ArrayList<>();
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < rounds; i++) {
+                for (T source : sources) {
+                    submitted.add(source);
+                    futures.add(executor.submit(() -> parser.parse(source)));
+                }
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(submitted.get(i).toString(), expected.get(submitted.get(i)), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testPredefinedRoleTypesAreImmutable() throws Exception {
+        XbrlInstance instance = new XbrlReader().getInstance(SampleFiling.samplePath());
+        RoleType deprecated = instance.getTaxonomy().getRoleType(RoleType.DEPRECATED_URI);
+        assertNotSame(RoleType.DEPRECATED, deprecated);
+        assertEquals(RoleType.DEPRECATED, deprecated);
+
+        try {
+            RoleType.DEPRECATED.setPresentationLink(null);
+            fail("Predefined roleTypes must be immutable");
+        } catch (UnsupportedOperationException e) {
+            /* expected */
+        }
+        for (RoleType roleType : RoleType.predefined()) {
+            assertNull(roleType.getPresentationLink());
+            assertNull(roleType.getCalculationLink());
+            assertNull(roleType.getDefinitionLink());
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testConcurrentSample() throws Exception {
+        String path = SampleFiling.samplePath();
+        assertParallelMatchesSerial(List.of(path), 4 * N_THREADS, ConcurrentParsingTest::parse);
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testConcurrentDiscovery() throws Exception {
+        String path = SampleFiling.samplePath();
+        List<String> expected = parse(path);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            AtomicInteger fetches = new AtomicInteger();
+            XbrlReader reader = new XbrlReader().discoverConcurrently(command -> {
+                fetches.incrementAndGet();
+                executor.execute(command);
+            });
+            assertEquals(expected, describe(reader.getInstance(path)));
+            assertTrue(fetches.get() > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testDiscoveryOnOwnExecutor() throws Exception {
+        /* The instance is read on the only thread of the executor it fetches its documents on */
+        String path = SampleFiling.samplePath();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            XbrlReader reader = new XbrlReader().discoverConcurrently(executor);
+            Future<List<String>> future = executor.submit(() -> describe(reader.getInstance(path)));
+            assertEquals(parse(path), future.get(60, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testConcurrentDocuments() throws Exception {
+        String path = StreamingInlineXbrlTest.multiDocumentZip(folder).toString();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            for (boolean stream : List.of(false, true)) {
+                List<String> expected = describe(new XbrlReader().streamInstances(stream).getInstance(path));
+                for (int i = 0; i < 4; i++) {
+                    XbrlReader reader = new XbrlReader().streamInstances(stream).parseDocumentsConcurrently(executor);
+                    assertEquals(expected, describe(reader.getInstance(path)));
+                }
+
+                /* The instance is read on the only thread of the executor its documents are parsed on */
+                XbrlReader reader = new XbrlReader().streamInstances(stream).parseDocumentsConcurrently(single);
+                Future<List<String>> future = single.submit(() -> describe(reader.getInstance(path)));
+                assertEquals(expected, future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.SlowTest.class)
+    public void testConcurrentInstances() throws Exception {
+        List<XbrlInstancePath> instancePaths = new ArrayList<>();
+        for (XbrlInstancePath instancePath : XbrlInstancePath.values()) {
+            String localPath = (instancePath.getLocalPath() != null) ? instancePath.getLocalPath() : instancePath.getPath();
+            if (new File(localPath).isFile()) {
+                instancePaths.add(instancePath);
+            }
+        }
+        assertFalse("No local XbrlInstancePath fixtures found", instancePaths.isEmpty());
+
+        assertParallelMatchesSerial(instancePaths, 2, ConcurrentParsingTest::parse);
+    }
+}
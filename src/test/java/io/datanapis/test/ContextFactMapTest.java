@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.model.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ContextFactMapTest {
+    /* The fact a scan of the facts of context finds */
+    private static Fact scan(XbrlInstance instance, Context context, Concept concept) {
+        return instance.getFacts(context).stream().filter(f -> f.getConcept().equals(concept)).findFirst().orElse(null);
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testGetFact() throws Exception {
+        XbrlInstance instance = SampleFiling.sample();
+        Set<Concept> concepts = new HashSet<>();
+        for (Fact fact : instance.getAllFacts()) {
+            concepts.add(fact.getConcept());
+        }
+
+        for (Context context : instance.getAllContexts()) {
+            for (Concept concept : concepts) {
+                assertSame(scan(instance, context, concept), instance.getFact(context, concept));
+            }
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testIndexFollowsChanges() throws Exception {
+        XbrlInstance instance = SampleFiling.sample();
+        Context context = instance.getContext("c-FY2023");
+        List<Fact> facts = instance.getFacts(context);
+        assertTrue(facts.size() > 8);
+        Fact last = facts.get(facts.size() - 1);
+
+        ContextFactMap map = new ContextFactMap();
+        for (Fact fact : facts.subList(0, facts.size() - 1)) {
+            map.add(fact);
+        }
+        assertSame(facts.get(0), map.getFact(context, facts.get(0).getConcept()));
+        assertNull(map.getFact(context, last.getConcept()));
+
+        /* Facts added after the index was built are found */
+        map.add(last);
+        assertSame(last, map.getFact(context, last.getConcept()));
+
+        /* A duplicate does not replace the first fact of a concept */
+        map.add(last);
+        assertSame(map.getFactsFor(context).get(facts.size() - 1), map.getFact(context, last.getConcept()));
+
+        map.clear();
+        assertNull(map.getFact(context, last.getConcept()));
+    }
+}
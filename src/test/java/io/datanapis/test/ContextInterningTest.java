@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.model.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ContextInterningTest {
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testPeriods() throws Exception {
+        LocalDate start = LocalDate.of(2023, 1, 1);
+        LocalDate end = LocalDate.of(2023, 12, 31);
+        assertSame(Instant.of(end), Instant.of(LocalDate.parse("2023-12-31")));
+        assertSame(Duration.of(start, end), Duration.of(start, LocalDate.parse("2023-12-31")));
+        assertSame(Instant.of(end), Duration.of(start, end).getEndDateAsInstant());
+
+        Duration fy2023 = Duration.of(start, end);
+        assertEquals(start.toEpochDay(), fy2023.getStartEpochDay());
+        assertEquals(end.toEpochDay(), fy2023.getEndEpochDay());
+        assertEquals(364, fy2023.durationInDays());
+        assertEquals(end.toEpochDay(), Instant.of(end).getStartEpochDay());
+
+        /* Ordering is unchanged: durations before instants they contain, instants by date */
+        Duration q4 = Duration.of(LocalDate.of(2023, 10, 1), end);
+        assertTrue(fy2023.compareTo(q4) < 0);
+        assertTrue(fy2023.compareTo(Instant.of(end)) < 0);
+        assertTrue(Instant.of(end).compareTo(fy2023) > 0);
+        assertTrue(Instant.of(start.minusDays(1)).compareTo(fy2023) < 0);
+        assertTrue(Instant.of(start).compareTo(Instant.of(end)) < 0);
+        assertEquals(0, fy2023.compareTo(Duration.of(start, end)));
+
+        XbrlInstance instance = SampleFiling.sample();
+        Context context = instance.getContext("c-FY2023");
+        assertTrue(context.isRelevantTo(end));
+        assertTrue(context.isRelevantTo(start));
+        assertFalse(context.isRelevantTo(end.plusDays(1)));
+        assertSame(fy2023, context.getPeriod());
+        assertSame(context.getPeriod(), instance.getContext("c-FY2023-Product").getPeriod());
+        assertSame(context.getPeriod(), SampleFiling.sample().getContext("c-FY2023").getPeriod());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testEntities() throws Exception {
+        XbrlInstance instance = SampleFiling.sample();
+        Context fy2023 = instance.getContext("c-FY2023");
+        Context i2022 = instance.getContext("c-I2022");
+        Context product = instance.getContext("c-FY2023-Product");
+        Context service = instance.getContext("c-FY2023-Service");
+
+        /* Contexts with equal entities share the entity and its signature */
+        assertSame(fy2023.getEntity(), i2022.getEntity());
+        assertSame(fy2023.getSignature(), i2022.getSignature());
+        assertNotSame(fy2023.getEntity(), product.getEntity());
+        assertNotEquals(product.getEntity(), service.getEntity());
+        assertSame(product.getEntity().getSignature(), product.getSignature());
+
+        Set<Entity> entities = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Context context : instance.getAllContexts()) {
+            entities.add(context.getEntity());
+        }
+        assertEquals(new HashSet<>(entities).size(), entities.size());
+
+        /* Members are read-only once the entity has been read */
+        assertThrows(UnsupportedOperationException.class, () -> product.getDimensions().clear());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testUnits() throws Exception {
+        XbrlInstance instance = SampleFiling.sample();
+        XbrlInstance other = SampleFiling.sample();
+        Unit usd = instance.getUnit("usd");
+        assertSame(usd.getMeasure(), other.getUnit("usd").getMeasure());
+        assertSame(Unit.USD.getMeasure(), usd.getMeasure());
+        assertSame(Unit.Measure.of("iso4217:USD"), usd.getMeasure());
+        assertEquals(usd, Unit.USD);
+        assertEquals(usd.hashCode(), Unit.USD.hashCode());
+        assertSame(instance.getUnit("usdPerShare").getFraction().getNumerator(), usd.getMeasure());
+    }
+}
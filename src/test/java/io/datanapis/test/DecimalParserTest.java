@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.utils.DecimalParser;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DecimalParserTest {
+    private static void assertLong(long expected, String value, int scale, int sign) {
+        DecimalParser parser = new DecimalParser();
+        assertTrue(value, parser.parse(value, scale, sign));
+        assertEquals(value, DecimalParser.Kind.LONG, parser.getKind());
+        assertEquals(value, expected, parser.getLongValue());
+    }
+
+    private static void assertDouble(double expected, String value, int scale, int sign) {
+        DecimalParser parser = new DecimalParser();
+        assertTrue(value, parser.parse(value, scale, sign));
+        assertEquals(value, DecimalParser.Kind.DOUBLE, parser.getKind());
+        assertEquals(value, expected, parser.getDoubleValue(), 0.0);
+    }
+
+    private static void assertNotANumber(String value) {
+        DecimalParser parser = new DecimalParser();
+        assertFalse(value, parser.parse(value, 0, 1));
+        assertEquals(value, DecimalParser.Kind.NONE, parser.getKind());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testValues() {
+        assertLong(1200000000L, "1200", 6, 1);
+        assertLong(-120000000L, "120", 6, -1);
+        assertLong(42, " 42\n", 0, 1);
+        assertLong(15, "1.500", 1, 1);
+        assertLong(5, "5.", 0, 1);
+        assertLong(0, "-0.000", 0, 1);
+        assertLong(1000, "1e3", 0, 1);
+        assertLong(1000, "+1.0E+3", 0, 1);
+        assertLong(Long.MAX_VALUE, "9223372036854775807", 0, 1);
+        /* Exact where a double is not */
+        assertLong(1234567890123456789L, "12345678901234567.89", 2, 1);
+        assertLong(9007199254740993L, "9007199254.740993", 6, 1);
+
+        assertDouble(-1.25, "-1.25", 0, 1);
+        assertDouble(-1.25, "1.25", 0, -1);
+        assertDouble(0.83, "0.83", 0, 1);
+        assertDouble(0.5, ".5", 0, 1);
+        assertDouble(0.0125, "1.25", -2, 1);
+        assertDouble(9.223372036854776E19, "92233720368547758070", 0, 1);
+        assertDouble(1.0E25, "1", 25, 1);
+        assertDouble(Double.POSITIVE_INFINITY, "INF", 0, 1);
+        assertDouble(Double.NEGATIVE_INFINITY, "-INF", 0, 1);
+        assertTrue(Double.isNaN(parse("NaN")));
+
+        for (String value : new String[] { "", " ", "-", ".", "1,200", "abc", "10-K", "--12-31", "2023-12-31", "1e", "1e+", "1.2.3", "0x10", "Infinity", "-NaN", "12 34" }) {
+            assertNotANumber(value);
+        }
+    }
+
+    private static double parse(String value) {
+        DecimalParser parser = new DecimalParser();
+        assertTrue(value, parser.parse(value, 0, 1));
+        return parser.getDoubleValue();
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testMatchesBigDecimal() {
+        Random random = new Random(17);
+        DecimalParser parser = new DecimalParser();
+        for (int i = 0; i < 200_000; i++) {
+            long unscaled = random.nextLong() % 1_000_000_000_000_000L;
+            int fractionDigits = random.nextInt(12);
+            int scale = random.nextInt(13) - 3;
+            String value = BigDecimal.valueOf(unscaled, fractionDigits).toPlainString();
+            BigDecimal expected = new BigDecimal(value).scaleByPowerOfTen(scale).stripTrailingZeros();
+
+            assertTrue(value, parser.parse(value, scale, 1));
+            if (expected.scale() <= 0 && expected.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0
+                    && expected.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) >= 0) {
+                assertEquals(value + " " + scale, DecimalParser.Kind.LONG, parser.getKind());
+                assertEquals(value + " " + scale, expected.longValueExact(), parser.getLongValue());
+            } else {
+                assertEquals(value + " " + scale, DecimalParser.Kind.DOUBLE, parser.getKind());
+                assertEquals(value + " " + scale, expected.doubleValue(), parser.getDoubleValue(), 0.0);
+            }
+        }
+    }
+}
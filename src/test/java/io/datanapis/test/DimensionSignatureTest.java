@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.model.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DimensionSignatureTest {
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testContextSignatures() throws Exception {
+        XbrlInstance instance = SampleFiling.sample();
+        Context fy2023 = instance.getContext("c-FY2023");
+        Context product = instance.getContext("c-FY2023-Product");
+        Context service = instance.getContext("c-FY2023-Service");
+
+        assertFalse(fy2023.hasDimensions());
+        assertSame(DimensionSignature.NO_DIMENSIONS, fy2023.getSignature());
+        assertTrue(fy2023.sameDimensionsAs(instance.getContext("c-I2022")));
+        assertTrue(product.hasDimensions());
+        assertTrue(product.sameDimensionsAs(product));
+        assertFalse(product.sameDimensionsAs(service));
+        assertFalse(product.sameDimensionsAs(fy2023));
+        assertNotEquals(product.getSignature().hash(), service.getSignature().hash());
+
+        ConceptIds ids = instance.getTaxonomy().getConceptIds();
+        ExplicitMember productMember = SampleFiling.member(instance, "c-FY2023-Product");
+        int axisId = ids.idOf(productMember.getDimension());
+        DimensionSignature signature = product.getSignature();
+        assertEquals(1, signature.size());
+        assertEquals(axisId, signature.getAxis(0));
+        assertTrue(signature.hasMember(axisId, ids.idOf(productMember.getMember())));
+        assertFalse(signature.hasMember(axisId, ids.idOf(SampleFiling.member(instance, "c-FY2023-Service").getMember())));
+        assertSame(productMember, signature.getExplicitMember(signature.indexOf(axisId)));
+
+        /* Ids belong to the taxonomy, another instance has a registry of its own */
+        XbrlInstance other = SampleFiling.sample();
+        ConceptIds otherIds = other.getTaxonomy().getConceptIds();
+        assertNotSame(ids, otherIds);
+        assertTrue(otherIds.size() > 0);
+        assertEquals(signature, DimensionSignature.of(ids, other.getContext("c-FY2023-Product").getDimensions(), List.of()));
+
+        /* Clearing the taxonomy drops its ids */
+        other.getTaxonomy().clear();
+        assertEquals(0, otherIds.size());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testSignatures() throws Exception {
+        XbrlInstance instance = SampleFiling.sample();
+        ConceptIds ids = instance.getTaxonomy().getConceptIds();
+        ExplicitMember product = SampleFiling.member(instance, "c-FY2023-Product");
+        ExplicitMember service = SampleFiling.member(instance, "c-FY2023-Service");
+        Concept segmentAxis = product.getDimension();
+        /* Any concept serves as a second axis */
+        Concept otherAxis = instance.getAllFacts().iterator().next().getConcept();
+        ExplicitMember otherMember = new ExplicitMember(otherAxis, service.getMember());
+
+        /* The order of members does not matter */
+        DimensionSignature one = DimensionSignature.of(ids, List.of(product, otherMember), List.of());
+        DimensionSignature two = DimensionSignature.of(ids, List.of(otherMember, product), List.of());
+        assertEquals(one, two);
+        assertEquals(one.hash(), two.hash());
+        assertTrue(one.getAxis(0) < one.getAxis(1));
+
+        /* Axes within */
+        int[] segmentOnly = ids.axisIds(List.of(segmentAxis));
+        int[] both = ids.axisIds(List.of(otherAxis, segmentAxis, segmentAxis));
+        assertEquals(2, both.length);
+        assertFalse(one.axesWithin(segmentOnly));
+        assertTrue(one.axesWithin(both));
+        assertTrue(DimensionSignature.of(ids, List.of(product), List.of()).axesWithin(segmentOnly));
+        assertTrue(DimensionSignature.NO_DIMENSIONS.axesWithin(new int[0]));
+        assertFalse(DimensionSignature.of(ids, List.of(product), List.of()).axesWithin(new int[0]));
+
+        /* Typed members count for equality, not for dimensions */
+        DimensionSignature typed2023 = DimensionSignature.of(ids, List.of(product), List.of(new TypedMember(otherAxis, "2023")));
+        DimensionSignature typed2024 = DimensionSignature.of(ids, List.of(product), List.of(new TypedMember(otherAxis, "2024")));
+        assertNotEquals(typed2023, typed2024);
+        assertTrue(typed2023.sameDimensionsAs(typed2024));
+        assertTrue(typed2023.hasTypedMembers());
+        assertEquals(typed2023, DimensionSignature.of(ids, List.of(product), List.of(new TypedMember(otherAxis, "2023"))));
+        assertFalse(DimensionSignature.of(ids, List.of(), List.of(new TypedMember(otherAxis, "2023"))).hasDimensions());
+    }
+}
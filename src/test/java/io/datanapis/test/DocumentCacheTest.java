@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.reader.DocumentCache;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DocumentCacheTest {
+    private static final AtomicInteger parseCount = new AtomicInteger();
+
+    private static Element parse(byte[] bytes) throws Exception {
+        parseCount.incrementAndGet();
+        return DocumentHelper.parseText(new String(bytes, StandardCharsets.UTF_8)).getRootElement();
+    }
+
+    private static byte[] bytesOf(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testKeyedByPathAndContent() throws Exception {
+        DocumentCache cache = new DocumentCache();
+        parseCount.set(0);
+
+        Element first = cache.getRootElement("/a.xsd", bytesOf("<a/>"), DocumentCacheTest::parse);
+        assertSame(first, cache.getRootElement("/a.xsd", bytesOf("<a/>"), DocumentCacheTest::parse));
+        assertEquals(1, parseCount.get());
+
+        /* Same path with changed content, and same content at a different path */
+        Element changed = cache.getRootElement("/a.xsd", bytesOf("<b/>"), DocumentCacheTest::parse);
+        assertEquals("b", changed.getName());
+        assertNotSame(first, cache.getRootElement("/c.xsd", bytesOf("<a/>"), DocumentCacheTest::parse));
+        assertEquals(3, parseCount.get());
+
+        DocumentCache.Statistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.hits);
+        assertEquals(3, statistics.misses);
+        assertEquals(4, statistics.bytesSaved);
+        assertEquals(3, statistics.nOfDocuments);
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testEviction() throws Exception {
+        /* Each document below is estimated at 8 x 10 bytes */
+        DocumentCache cache = new DocumentCache(200);
+        cache.getRootElement("/a.xsd", bytesOf("<aaaaaaa/>"), DocumentCacheTest::parse);
+        cache.getRootElement("/b.xsd", bytesOf("<bbbbbbb/>"), DocumentCacheTest::parse);
+        cache.getRootElement("/a.xsd", bytesOf("<aaaaaaa/>"), DocumentCacheTest::parse);
+        cache.getRootElement("/c.xsd", bytesOf("<ccccccc/>"), DocumentCacheTest::parse);
+
+        DocumentCache.Statistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.evictions);
+        assertEquals(2, statistics.nOfDocuments);
+        assertEquals(160, statistics.estimatedBytes);
+
+        /* b.xsd was the least recently used */
+        parseCount.set(0);
+        cache.getRootElement("/a.xsd", bytesOf("<aaaaaaa/>"), DocumentCacheTest::parse);
+        cache.getRootElement("/b.xsd", bytesOf("<bbbbbbb/>"), DocumentCacheTest::parse);
+        assertEquals(1, parseCount.get());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testSharedAcrossInstances() throws Exception {
+        String path = SampleFiling.samplePath();
+        DocumentCache cache = new DocumentCache();
+
+        XbrlInstance first = new XbrlReader().shareDocuments(cache).getInstance(path);
+        DocumentCache.Statistics statistics = cache.getStatistics();
+        /* smpl-20231231.xsd and its 3 linkbases, dei-2023.xsd and its 2 linkbases. Collecting the taxonomy and
+           reading it each visit every document */
+        assertEquals(7, statistics.misses);
+        assertEquals(7, statistics.hits);
+
+        XbrlInstance second = new XbrlReader().shareDocuments(cache).getInstance(path);
+        statistics = cache.getStatistics();
+        assertEquals(7, statistics.misses);
+        assertEquals(21, statistics.hits);
+        assertTrue(statistics.bytesSaved > 0);
+
+        assertEquals(first.nOfFacts(), second.nOfFacts());
+        assertEquals(first.getTaxonomy().getAllConcepts().size(), second.getTaxonomy().getAllConcepts().size());
+        assertEquals(first.getTaxonomy().getReportableRoleTypes().size(), second.getTaxonomy().getReportableRoleTypes().size());
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.DiscoverableTaxonomySet;
+import io.datanapis.xbrl.DtsSnapshot;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.model.ArcroleType;
+import io.datanapis.xbrl.model.Concept;
+import io.datanapis.xbrl.model.Label;
+import io.datanapis.xbrl.model.RoleType;
+import io.datanapis.xbrl.model.arc.PresentationArc;
+import io.datanapis.xbrl.model.link.PresentationLink;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.*;
+
+public class DtsSnapshotTest {
+    private static final String SAMPLE_XSD = "/sample/smpl-20231231.xsd";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testSnapshotRoundTrip() throws Exception {
+        String xsd = SampleFiling.samplePath(SAMPLE_XSD);
+        Path snapshotFolder = folder.getRoot().toPath();
+
+        XbrlReader reader = new XbrlReader();
+        DiscoverableTaxonomySet expected = reader.getTaxonomy(xsd, false);
+        Path snapshot = reader.compileTaxonomy(xsd, false, snapshotFolder);
+        assertTrue(Files.isRegularFile(snapshot));
+
+        DiscoverableTaxonomySet actual = DtsSnapshot.read(snapshot, DtsSnapshot.keyOf(Paths.get(xsd), false));
+        assertNotNull(actual);
+        assertNull(DtsSnapshot.read(snapshot, DtsSnapshot.keyOf(Paths.get(xsd), true)));
+
+        assertEquals(expected.getAllConcepts().size(), actual.getAllConcepts().size());
+        for (Concept concept : expected.getAllConcepts()) {
+            Concept other = actual.getConcept(concept.getKey());
+            assertNotNull(other);
+            assertEquals(concept.getQualifiedName(), other.getQualifiedName());
+            assertEquals(concept.getType(), other.getType());
+            assertEquals(concept.getBalance(), other.getBalance());
+            assertEquals(concept.getLabel().getValue(), other.getLabel().getValue());
+            assertEquals(other, actual.getConcept(other.getNamespace(), other.getName()));
+        }
+
+        Concept assets = actual.getConcept("smpl-20231231.xsd#smpl_Assets");
+        assertEquals("Total assets", assets.getLabel(Label.ROLE_TYPE_TOTAL_LABEL).getValue());
+
+        RoleType balanceSheet = actual.getRoleType("http://www.example.com/role/BalanceSheet");
+        assertEquals("0001 - Statement - Balance Sheet", balanceSheet.getDefinition());
+        PresentationLink presentationLink = balanceSheet.getPresentationLink();
+        assertNotNull(presentationLink);
+        assertEquals(expected.getRoleType(balanceSheet.getRoleURI()).getPresentationLink().getAllArcs().size(),
+                presentationLink.getAllArcs().size());
+        for (PresentationArc arc : presentationLink.getAllArcs()) {
+            /* Predefined arcroles must stay canonical after loading */
+            assertSame(ArcroleType.PARENT_CHILD, arc.getArcrole());
+        }
+        assertNotNull(balanceSheet.getCalculationLink());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testReaderUsesSnapshot() throws Exception {
+        String xsd = SampleFiling.samplePath(SAMPLE_XSD);
+        Path snapshotFolder = folder.getRoot().toPath();
+        Path snapshot = DtsSnapshot.pathOf(snapshotFolder, DtsSnapshot.keyOf(Paths.get(xsd), false));
+
+        XbrlReader reader = new XbrlReader().useSnapshots(snapshotFolder);
+        assertFalse(Files.exists(snapshot));
+        DiscoverableTaxonomySet compiled = reader.getTaxonomy(xsd, false);
+        assertTrue(Files.isRegularFile(snapshot));
+
+        DiscoverableTaxonomySet loaded = reader.getTaxonomy(xsd, false);
+        assertNotSame(compiled, loaded);
+        assertEquals(compiled.getAllConcepts().size(), loaded.getAllConcepts().size());
+        assertEquals(compiled.getAllRoleTypes().size(), loaded.getAllRoleTypes().size());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testStaleSnapshotIsIgnored() throws Exception {
+        Path snapshot = folder.newFile("stale" + DtsSnapshot.SUFFIX).toPath();
+        Files.write(snapshot, new byte[] { 0x58, 0x44, 0x54, 0x53, 0, 0, 0, 0, 0, 0, 0, 0 });
+        assertNull(DtsSnapshot.read(snapshot, "stale"));
+        assertNull(DtsSnapshot.read(folder.getRoot().toPath().resolve("missing" + DtsSnapshot.SUFFIX), "missing"));
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testChangedDocumentIsIgnored() throws Exception {
+        Path copy = SampleFiling.copy(folder, "copy", path -> false);
+        Path xsd = copy.resolve(Paths.get(SampleFiling.samplePath(SAMPLE_XSD)).getFileName());
+        String key = DtsSnapshot.keyOf(xsd, false);
+        Path snapshot = new XbrlReader().compileTaxonomy(xsd.toString(), false, folder.newFolder("snapshots").toPath());
+
+        DiscoverableTaxonomySet dts = DtsSnapshot.read(snapshot, key);
+        assertNotNull(dts);
+        assertTrue(dts.getDocuments().contains(xsd.toString()));
+        assertTrue(dts.getDocuments().contains(copy.resolve("smpl-20231231_lab.xml").toString()));
+
+        /* A relabeled concept in a linkbase of the taxonomy makes the snapshot stale */
+        Path labels = copy.resolve("smpl-20231231_lab.xml");
+        SampleFiling.rewrite(labels, content -> content.replace("Total assets", "Total assets, net"));
+        Files.setLastModifiedTime(labels, FileTime.fromMillis(Files.getLastModifiedTime(labels).toMillis() + 1000));
+        assertNull(DtsSnapshot.read(snapshot, key));
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testChangedModelClassIsIgnored() throws Exception {
+        String xsd = SampleFiling.samplePath(SAMPLE_XSD);
+        String key = DtsSnapshot.keyOf(Paths.get(xsd), false);
+        Path snapshot = new XbrlReader().compileTaxonomy(xsd, false, folder.getRoot().toPath());
+        assertNotNull(DtsSnapshot.read(snapshot, key));
+
+        /* Rename a field of Concept in the stored class descriptor, as if the snapshot came from another version */
+        byte[] bytes = Files.readAllBytes(snapshot);
+        byte[] field = "typedDomainRef".getBytes(StandardCharsets.UTF_8);
+        int index = indexOf(bytes, field);
+        assertTrue(index > 0);
+        bytes[index + field.length - 1] = 'x';
+        Files.write(snapshot, bytes);
+        assertNull(DtsSnapshot.read(snapshot, key));
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target) {
+        outer:
+        for (int i = 0; i <= bytes.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j])
+                    continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testSnapshotsAreKeyedByEntryPoint() throws Exception {
+        /* A second copy of the sample taxonomy with the same file names in another folder */
+        Path copy = SampleFiling.copy(folder, "copy", path -> false);
+        String xsd = SampleFiling.samplePath(SAMPLE_XSD);
+        String other = copy.resolve(Paths.get(xsd).getFileName()).toString();
+        Path snapshotFolder = folder.newFolder("snapshots").toPath();
+
+        String key = DtsSnapshot.keyOf(Paths.get(xsd), false);
+        String otherKey = DtsSnapshot.keyOf(Paths.get(other), false);
+        assertNotEquals(DtsSnapshot.pathOf(snapshotFolder, key), DtsSnapshot.pathOf(snapshotFolder, otherKey));
+        assertNotEquals(DtsSnapshot.pathOf(snapshotFolder, key),
+                DtsSnapshot.pathOf(snapshotFolder, DtsSnapshot.keyOf(Paths.get(xsd), true)));
+
+        XbrlReader reader = new XbrlReader().useSnapshots(snapshotFolder);
+        reader.getTaxonomy(xsd, false);
+        reader.getTaxonomy(other, false);
+        assertTrue(Files.isRegularFile(DtsSnapshot.pathOf(snapshotFolder, key)));
+        assertTrue(Files.isRegularFile(DtsSnapshot.pathOf(snapshotFolder, otherKey)));
+
+        /* A snapshot only loads for the entry point it was built from */
+        Path snapshot = DtsSnapshot.pathOf(snapshotFolder, key);
+        assertNotNull(DtsSnapshot.read(snapshot, key));
+        assertNull(DtsSnapshot.read(snapshot, otherKey));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.FactFilter;
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.model.Fact;
+import io.datanapis.xbrl.utils.XbrlUtils;
+import org.dom4j.Namespace;
+import org.dom4j.QName;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class FactFilterTest {
+    private static final String SMPL_NS = "http://www.example.com/20231231";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /* Ids of the facts that are not DEI facts */
+    private static Set<String> factIds(XbrlInstance instance) {
+        Set<String> ids = new TreeSet<>();
+        for (Fact fact : instance.getAllFacts()) {
+            if (!XbrlUtils.isDei(fact.getConcept().getNamespace().getURI()))
+                ids.add(fact.getId());
+        }
+        return ids;
+    }
+
+    private static void assertDei(XbrlInstance instance) {
+        assertEquals("10-K", instance.getDei().getDocumentInformation().getDocumentType());
+        assertEquals(9, instance.nOfFacts() - factIds(instance).size());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testNumericOnly() throws Exception {
+        String path = SampleFiling.samplePath();
+        for (boolean stream : List.of(false, true)) {
+            XbrlInstance instance = new XbrlReader().streamInstances(stream).filterFacts(FactFilter.numeric()).getInstance(path);
+            assertDei(instance);
+            Set<String> ids = factIds(instance);
+            assertFalse(ids.contains("f-30"));
+            assertEquals(17, ids.size());
+            assertEquals(7, instance.getAllContexts().size());
+            assertEquals(2, instance.getAllUnits().size());
+            /* Footnotes still link to the facts that are read */
+            assertEquals("Includes a one-time impairment charge.",
+                    instance.getAllFacts().stream().filter(f -> "f-25".equals(f.getId())).findFirst().orElseThrow().getFootnote().getValue());
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testConceptsAndTypes() throws Exception {
+        String path = SampleFiling.samplePath();
+        FactFilter revenues = FactFilter.concepts(List.of(new QName("Revenues", Namespace.get(SMPL_NS))));
+        for (boolean stream : List.of(false, true)) {
+            XbrlReader reader = new XbrlReader().streamInstances(stream);
+            XbrlInstance instance = reader.filterFacts(revenues).getInstance(path);
+            assertDei(instance);
+            assertEquals(Set.of("f-20", "f-21", "f-22", "f-23", "f-24"), factIds(instance));
+
+            /* Earnings per share is a decimal, not a monetary item */
+            instance = reader.filterFacts(FactFilter.itemTypes("monetaryItemType").and(FactFilter.numeric())).getInstance(path);
+            assertEquals(15, factIds(instance).size());
+            assertFalse(factIds(instance).contains("f-28"));
+
+            instance = reader.filterFacts(revenues.or(FactFilter.of(c -> c.getName().equals("Cash")))).getInstance(path);
+            assertEquals(Set.of("f-10", "f-11", "f-20", "f-21", "f-22", "f-23", "f-24"), factIds(instance));
+
+            instance = reader.filterFacts(FactFilter.namespaces("http://fasb.org/us-gaap/")).getInstance(path);
+            assertDei(instance);
+            assertTrue(factIds(instance).isEmpty());
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testInlineXbrl() throws Exception {
+        String path = StreamingInlineXbrlTest.filing(folder).resolve("smpl-20231231.htm").toString();
+        for (boolean stream : List.of(false, true)) {
+            XbrlInstance instance = new XbrlReader().streamInstances(stream).filterFacts(FactFilter.numeric()).getInstance(path);
+            assertDei(instance);
+            /* The text block and its continuation are skipped, the fact nested in the text block is not */
+            assertEquals(Set.of("f-10", "f-11", "f-12", "f-13", "f-14", "f-16", "f-20", "f-22", "f-23", "f-25", "f-27", "f-28"),
+                    factIds(instance));
+
+            /* DEI facts are read even if nothing else is */
+            FactFilter none = (concept, numeric) -> false;
+            instance = new XbrlReader().streamInstances(stream).filterFacts(none).getInstance(path);
+            assertDei(instance);
+            assertTrue(factIds(instance).isEmpty());
+        }
+    }
+}
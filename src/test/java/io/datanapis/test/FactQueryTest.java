@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.model.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class FactQueryTest {
+    private static final LocalDate FY2023_END = LocalDate.of(2023, 12, 31);
+
+    private static Set<String> ids(Collection<Fact> facts) {
+        return facts.stream().map(Fact::getId).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static Set<String> ids(XbrlInstance instance, Predicate<Fact> predicate) {
+        return ids(instance.getAllFacts().stream().filter(predicate).toList());
+    }
+
+    private static LocalDate endDate(Period period) {
+        return (period instanceof Instant instant) ? instant.getDate() : ((Duration)period).getEndDate();
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testQueries() throws Exception {
+        XbrlInstance instance = SampleFiling.sample();
+        Concept revenues = SampleFiling.concept(instance, "Revenues");
+        ExplicitMember product = SampleFiling.member(instance, "c-FY2023-Product");
+
+        assertEquals(Set.of("f-20", "f-22"),
+                ids(instance.query().concept(revenues).withoutDimensions().durationsEndingOn(FY2023_END).facts()));
+        assertEquals(Set.of("f-23"), ids(instance.query().member(product.getDimension(), product.getMember()).facts()));
+        assertEquals(Set.of("f-23", "f-24"), ids(instance.query().axis(product.getDimension()).facts()));
+        assertEquals(Set.of("f-10", "f-12", "f-14", "f-16"), ids(instance.query().instantOn(FY2023_END).facts()));
+        assertEquals(Set.of("f-25", "f-26", "f-27"), ids(instance.query().conceptName(Pattern.compile("Net.*")).facts()));
+        assertEquals(Set.of("f-28", "f-29"), ids(instance.query().unit(instance.getUnit("usdPerShare")).facts()));
+        assertEquals(Set.of("f-20", "f-23", "f-24"),
+                ids(instance.query().period(instance.getContext("c-FY2023").getPeriod()).concept(revenues).facts()));
+        assertEquals(2 * 5400000000.0, instance.query().concept(revenues).durationsEndingOn(FY2023_END)
+                .periods(period -> period.durationInDays() > 100).sum(), 0.0);
+
+        /* Conditions that match nothing */
+        assertEquals(0, instance.query().concept(revenues).instantOn(FY2023_END).count());
+        assertEquals(0, instance.query().durationsEndingOn(LocalDate.of(2000, 1, 1)).count());
+        assertEquals(instance.nOfFacts(), instance.query().count());
+
+        /* The same facts as getMatchingFacts */
+        assertEquals(ids(instance, fact -> fact.getConcept().getName().startsWith("Net")),
+                ids(instance.getMatchingFacts(Pattern.compile("Net.*"), fact -> true)));
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testQueriesMatchScans() throws Exception {
+        XbrlInstance instance = SampleFiling.sample();
+        FactIndex index = instance.getFactIndex();
+        assertSame(index, instance.getFactIndex());
+        ExplicitMember product = SampleFiling.member(instance, "c-FY2023-Product");
+        Unit usd = instance.getUnit("usd");
+
+        Set<Concept> concepts = instance.getAllFacts().stream().map(Fact::getConcept).collect(Collectors.toSet());
+        for (Concept concept : concepts) {
+            assertEquals(ids(instance, f -> f.getConcept() == concept && f.getUnit() == usd),
+                    ids(instance.query().unit(usd).concept(concept).facts()));
+            for (Period period : index.getPeriods()) {
+                LocalDate end = endDate(period);
+
+                assertEquals(ids(instance, f -> f.getConcept() == concept && f.getContext().getPeriod().equals(period)),
+                        ids(instance.query().concept(concept).period(period).facts()));
+                assertEquals(ids(instance, f -> endDate(f.getContext().getPeriod()).equals(end) && !f.getContext().hasDimensions()),
+                        ids(instance.query().endingOn(end).withoutDimensions().facts()));
+                assertEquals(ids(instance, f -> f.getConcept() == concept && endDate(f.getContext().getPeriod()).equals(end) &&
+                                f.getContext().getDimensions().contains(product)),
+                        ids(instance.query().member(product).endingOn(end).concept(concept).facts()));
+            }
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testGetFactsFor() throws Exception {
+        XbrlInstance instance = SampleFiling.sample();
+        Concept revenues = SampleFiling.concept(instance, "Revenues");
+        ExplicitMember product = SampleFiling.member(instance, "c-FY2023-Product");
+        ExplicitMember service = SampleFiling.member(instance, "c-FY2023-Service");
+
+        TimeOrdered<DimensionedFact> simple = new TimeOrdered<>();
+        instance.getFactsFor(revenues, null, simple);
+        assertEquals(3, simple.values().stream().mapToInt(Collection::size).sum());
+
+        Axis segments = new Axis(product.getDimension());
+        segments.addMember(product.getMember());
+        segments.addMember(service.getMember());
+        TimeOrdered<DimensionedFact> dimensioned = new TimeOrdered<>();
+        instance.getFactsFor(revenues, List.of(segments), dimensioned);
+        Collection<DimensionedFact> fy2023 = dimensioned.get(instance.getContext("c-FY2023").getPeriod());
+        assertEquals(3, fy2023.size());
+        for (DimensionedFact fact : fy2023) {
+            if (fact.getFact().getContext().hasDimensions()) {
+                assertEquals(fact.getFact().getContext().getDimensions(), new HashSet<>(fact.getDimensions()));
+            }
+        }
+
+        /* Facts with a member on an axis the network does not have are left out */
+        TimeOrdered<DimensionedFact> other = new TimeOrdered<>();
+        instance.getFactsFor(revenues, List.of(new Axis(revenues)), other);
+        assertEquals(3, other.values().stream().mapToInt(Collection::size).sum());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.model.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class FactTableTest {
+    private static Concept concept(FactTable table, String name) {
+        for (int i = 0; i < table.nOfConcepts(); i++) {
+            if (table.getConcept(i).getName().equals(name))
+                return table.getConcept(i);
+        }
+        throw new AssertionError(name);
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testColumnsMatchFacts() throws Exception {
+        XbrlInstance instance = SampleFiling.sample(new XbrlReader().buildFactTables(true));
+        FactTable table = instance.getFactTable();
+        assertSame(table, instance.getFactTable());
+        assertEquals(instance.nOfFacts(), table.size());
+
+        Set<Fact> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int row = 0; row < table.size(); row++) {
+            Fact fact = table.getFact(row);
+            assertTrue(seen.add(fact));
+            assertSame(fact.getConcept(), table.getConcept(table.getConceptId(row)));
+            assertSame(fact.getContext(), table.getContext(table.getContextId(row)));
+            assertEquals(fact.getContext().getPeriod(), table.getPeriod(table.getPeriodId(row)));
+            assertEquals(fact.getContext().getDimensions(), table.getDimensions(table.getDimensionSetId(row)));
+            assertEquals(fact.getContext().hasDimensions(), table.getDimensionSetId(row) != FactTable.NO_DIMENSIONS);
+            assertEquals(fact.getDecimals(), table.getDecimals(row));
+            assertEquals(fact.getValue(), table.getString(row));
+            if (fact.getUnit() == null) {
+                assertEquals(FactTable.NONE, table.getUnitId(row));
+                assertTrue(Double.isNaN(table.getValue(row)));
+            } else {
+                assertEquals(fact.getUnit(), table.getUnit(table.getUnitId(row)));
+            }
+        }
+
+        /* The rows of each concept are contiguous */
+        int row = 0;
+        for (int conceptId = 0; conceptId < table.nOfConcepts(); conceptId++) {
+            assertEquals(row, table.conceptStart(conceptId));
+            for (; row < table.conceptEnd(conceptId); row++) {
+                assertEquals(conceptId, table.getConceptId(row));
+            }
+        }
+        assertEquals(table.size(), row);
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testSelect() throws Exception {
+        FactTable table = SampleFiling.sample(new XbrlReader().buildFactTables(true)).getFactTable();
+
+        int revenues = table.getConceptId(concept(table, "Revenues"));
+        int[] all = table.select(revenues, FactTable.ANY, FactTable.ANY, FactTable.ANY);
+        assertEquals(5, all.length);
+        int[] undimensioned = table.select(revenues, FactTable.ANY, FactTable.ANY, FactTable.NO_DIMENSIONS);
+        assertEquals(3, undimensioned.length);
+        assertEquals(5400000000.0 + 4900000000.0 + 1450000000.0, table.sum(undimensioned), 0.0);
+
+        /* The segments of FY2023 add up to the total */
+        int fy2023 = FactTable.NONE;
+        for (int row : undimensioned) {
+            if (table.getFact(row).getId().equals("f-20"))
+                fy2023 = table.getPeriodId(row);
+        }
+        assertNotEquals(FactTable.NONE, fy2023);
+        int[] segments = table.select(revenues, fy2023, FactTable.ANY, FactTable.ANY);
+        assertEquals(3, segments.length);
+        assertEquals(2 * 5400000000.0, table.sum(segments), 0.0);
+
+        /* The nil fact has no numeric value */
+        int netIncome = table.getConceptId(concept(table, "NetIncomeLoss"));
+        assertEquals(-120000000.0 + 80000000.0,
+                table.sum(table.select(netIncome, FactTable.ANY, FactTable.ANY, FactTable.ANY)), 0.0);
+
+        /* Text facts have no unit */
+        int[] text = table.select(FactTable.ANY, FactTable.ANY, FactTable.NONE, FactTable.ANY);
+        assertEquals(10, text.length);
+        for (int row : text) {
+            assertNull(table.getFact(row).getUnit());
+        }
+    }
+}
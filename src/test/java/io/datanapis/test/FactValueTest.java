@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.model.Fact;
+import io.datanapis.xbrl.utils.JsonUtils;
+import org.apache.commons.text.StringEscapeUtils;
+import org.jsoup.Jsoup;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FactValueTest {
+    private static final String TEXT_BLOCK = "<div><p><b>Basis of presentation</b> The financial statements are " +
+            "prepared in accordance with <i>GAAP</i>.</p><script>alert(1)</script></div>";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Fact fact(XbrlInstance instance, String id) {
+        return instance.getAllFacts().stream().filter(f -> id.equals(f.getId())).findFirst().orElseThrow();
+    }
+
+    private static String sanitized(String escaped) {
+        return Jsoup.clean(StringEscapeUtils.unescapeXml(escaped), JsonUtils.relaxed());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testTextBlockValues() throws Exception {
+        /* The sample, with a second copy of the text block long enough to be held compressed until it is read */
+        Path instancePath = SampleFiling.copy(folder).resolve(SampleFiling.INSTANCE);
+        String escaped = StringEscapeUtils.escapeXml10(TEXT_BLOCK);
+        String longEscaped = StringEscapeUtils.escapeXml10("<div>" + "<p>Policy text é€ &amp; more.</p>\n".repeat(500) + "</div>");
+        SampleFiling.rewrite(instancePath, content -> content.replace("  <link:footnoteLink",
+                "  <smpl:AccountingPoliciesTextBlock contextRef=\"c-FY2022\" id=\"f-31\">" + longEscaped + "</smpl:AccountingPoliciesTextBlock>\n" +
+                "  <link:footnoteLink"));
+
+        for (boolean stream : List.of(false, true)) {
+            XbrlInstance instance = new XbrlReader().streamInstances(stream).getInstance(instancePath.toString());
+            Fact policies = fact(instance, "f-30");
+            assertEquals(sanitized(escaped), policies.getValue());
+            assertFalse(policies.getValue().contains("script"));
+            /* Memoized */
+            assertSame(policies.getValue(), policies.getValue());
+            assertNull(policies.getLongValue());
+
+            Fact longPolicies = fact(instance, "f-31");
+            assertEquals(sanitized(longEscaped), longPolicies.getValue());
+
+            /* Plain values are the same with or without sanitizing */
+            assertEquals("Sample Corp", fact(instance, "f-09").getValue());
+            assertEquals("--12-31", fact(instance, "f-02").getValue());
+            assertEquals(Long.valueOf(1200000000L), fact(instance, "f-10").getLongValue());
+            assertEquals("1200000000", fact(instance, "f-10").getValue());
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testInlineTextValues() throws Exception {
+        String path = StreamingInlineXbrlTest.filing(folder).resolve("smpl-20231231.htm").toString();
+        XbrlInstance instance = new XbrlReader().getInstance(path);
+        String policies = fact(instance, "f-30").getValue();
+        assertTrue(policies, policies.startsWith("<p><b>Basis of presentation</b>"));
+        assertTrue(policies, policies.contains("Estimates are used where necessary."));
+        assertEquals("Sample Corp", fact(instance, "f-09").getValue());
+        assertEquals("10-K", fact(instance, "f-07").getValue());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testInvalidInlineValues() throws Exception {
+        /* The iXBRL sample, with the cash reported as 12a, which does not match ixt:num-dot-decimal */
+        Path documentPath = StreamingInlineXbrlTest.filing(folder).resolve("smpl-20231231.htm");
+        SampleFiling.rewrite(documentPath, content -> content.replace(">1,200</ix:nonFraction>", ">12a</ix:nonFraction>"));
+
+        XbrlInstance instance = new XbrlReader().getInstance(documentPath.toString());
+        Fact cash = fact(instance, "f-10");
+        assertTrue(cash.isInvalid());
+        assertEquals("12a", cash.getValue());
+        assertNull(cash.getLongValue());
+        assertNull(cash.getDoubleValue());
+
+        Fact priorCash = fact(instance, "f-11");
+        assertFalse(priorCash.isInvalid());
+        assertEquals(Long.valueOf(1_100_000_000L), priorCash.getLongValue());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testCompactValues() throws Exception {
+        /* The sample, with the id of the document type removed */
+        Path instancePath = SampleFiling.copy(folder).resolve(SampleFiling.INSTANCE);
+        SampleFiling.rewrite(instancePath, content -> content.replace(" id=\"f-07\"", ""));
+
+        XbrlInstance first = new XbrlReader().getInstance(instancePath.toString());
+        XbrlInstance second = new XbrlReader().streamInstances(true).getInstance(instancePath.toString());
+
+        /* Short values are shared by the facts of both instances */
+        assertSame(fact(first, "f-09").getValue(), fact(second, "f-09").getValue());
+        assertSame(fact(first, "f-02").getValue(), fact(second, "f-02").getValue());
+
+        /* Facts without an id get a short generated one that is unique across instances */
+        Fact documentType = first.getAllFacts().stream()
+                .filter(f -> f.getConcept().getName().equals("DocumentType")).findFirst().orElseThrow();
+        Fact otherDocumentType = second.getAllFacts().stream()
+                .filter(f -> f.getConcept().getName().equals("DocumentType")).findFirst().orElseThrow();
+        assertTrue(documentType.getId(), documentType.getId().startsWith("~"));
+        assertNotEquals(documentType.getId(), otherDocumentType.getId());
+        assertEquals("10-K", documentType.getValue());
+        assertEquals("10-K", first.getDei().getDocumentInformation().getDocumentType());
+
+        /* Unboxed values read back unchanged */
+        assertEquals(Long.valueOf(1200000000L), fact(second, "f-10").getLongValue());
+        assertNull(fact(second, "f-10").getDoubleValue());
+    }
+}
@@ -16,13 +16,156 @@
 package io.datanapis.test;
 
 import io.datanapis.xbrl.utils.IxtTransform;
+import io.datanapis.xbrl.utils.IxtTransform.Result;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.*;
 
 public class IxtTransformTest {
+    private static void assertTransform(String format, String value, String expected) {
+        StringBuilder out = new StringBuilder();
+        assertEquals(format + " [" + value + "]", Result.OK, IxtTransform.transform(format, value, out));
+        assertEquals(format + " [" + value + "]", expected, out.toString());
+        assertEquals(expected, IxtTransform.transformWithFormat(format, value));
+    }
+
+    private static void assertResult(String format, String value, Result expected) {
+        StringBuilder out = new StringBuilder("x");
+        assertEquals(format + " [" + value + "]", expected, IxtTransform.transform(format, value, out));
+        /* Nothing is written on failure */
+        assertEquals("x", out.toString());
+        assertEquals(value, IxtTransform.transformWithFormat(format, value));
+    }
 
     @Test
     public void testTransform() {
         String value = IxtTransform.parseDate("October 2026", "datemonthyearen");
-        System.out.println(value);
+        assertEquals("2026-10", value);
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testIxt1() {
+        assertTransform("ixt:numcommadot", "1,234,567.89", "1234567.89");
+        assertTransform("ixt:numspacedot", "1 234 567.89", "1234567.89");
+        assertTransform("ixt:numdotcomma", "1.234.567,89", "1234567.89");
+        assertTransform("ixt:numspacecomma", "1 234 567,89", "1234567.89");
+        assertTransform("ixt:numcomma", "1234,89", "1234.89");
+        assertTransform("ixt:numdash", "-", "0");
+        assertTransform("ixt:dateslashus", "12/31/2023", "2023-12-31");
+        assertTransform("ixt:datedotus", "12.31.23", "2023-12-31");
+        assertTransform("ixt:dateslasheu", "31/12/2023", "2023-12-31");
+        assertTransform("ixt:datedoteu", "31.12.2023", "2023-12-31");
+        assertTransform("ixt:datelongus", "December 31, 2023", "2023-12-31");
+        assertTransform("ixt:dateshortus", "Dec. 31, 23", "2023-12-31");
+        assertTransform("ixt:datelonguk", "31 December 2023", "2023-12-31");
+        assertTransform("ixt:dateshortuk", "31 Dec 23", "2023-12-31");
+        assertTransform("ixt:dateslashmonthdayus", "12/31", "--12-31");
+        assertTransform("ixt:dateslashdaymontheu", "31/12", "--12-31");
+        assertTransform("ixt:datelongmonthdayus", "December 31", "--12-31");
+        assertTransform("ixt:dateshortdaymonthuk", "31 Dec", "--12-31");
+        assertTransform("ixt:datelongmonthyear", "December 2023", "2023-12");
+        assertTransform("ixt:dateshortyearmonth", "2023 Dec", "2023-12");
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testIxt2() {
+        assertTransform("ixt:booleanfalse", "No", "false");
+        assertTransform("ixt:booleantrue", "Yes", "true");
+        assertTransform("ixt:nocontent", "anything", "");
+        assertTransform("ixt:zerodash", " — ", "0");
+        assertTransform("ixt:numdotdecimal", " 1,234.50 ", "1234.50");
+        assertTransform("ixt:numdotdecimal", "1 234", "1234");
+        assertTransform("ixt:numdotdecimal", ".5", ".5");
+        assertTransform("ixt:numdotdecimal", "12.", "12");
+        assertTransform("ixt:numcommadecimal", "1.234,50", "1234.50");
+        assertTransform("ixt:numunitdecimal", "5 dollars 25 cents", "5.25");
+        assertTransform("ixt:numunitdecimal", "1,234 Euro 5 Cent", "1234.05");
+        assertTransform("ixt:datedaymonth", "31.12", "--12-31");
+        assertTransform("ixt:datedaymonthen", "31st December", "--12-31");
+        assertTransform("ixt:datedaymonthyear", "31/12/2023", "2023-12-31");
+        assertTransform("ixt:datedaymonthyearen", "31 December 2023", "2023-12-31");
+        assertTransform("ixt:datemonthday", "12-31", "--12-31");
+        assertTransform("ixt:datemonthdayen", "March 1st", "--03-01");
+        assertTransform("ixt:datemonthdayyear", "2/29/2024", "2024-02-29");
+        assertTransform("ixt:datemonthdayyearen", "Sept. 30, 2023", "2023-09-30");
+        assertTransform("ixt:datemonthyearen", "October 2026", "2026-10");
+        assertTransform("ixt:dateyearmonthen", "2023 May", "2023-05");
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testIxt3() {
+        assertTransform("ixt:datemonthyear", "12/2023", "2023-12");
+        assertTransform("ixt:dateyearmonthday", "2023-12-31", "2023-12-31");
+        assertTransform("ixt:numdotdecimalin", "1,23,45,678.90", "12345678.90");
+        assertTransform("ixt:numunitdecimalin", "1,23,456 rupees 50 paise", "123456.50");
+        /* Formats that are not supported leave values unchanged */
+        assertTransform("ixt:datequarterend", "Q4 2023", "Q4 2023");
+        assertTransform("ixt:durmonth", "14", "14");
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testIxt4() {
+        assertTransform("ixt:fixed-empty", "None", "");
+        assertTransform("ixt:fixed-zero", "None", "0");
+        assertTransform("ixt:fixed-false", "☐", "false");
+        assertTransform("ixt:fixed-true", "☒", "true");
+        assertTransform("ixt:num-dot-decimal", "1,234,567.89", "1234567.89");
+        assertTransform("ixt:num-comma-decimal", "1 234 567,89", "1234567.89");
+        assertTransform("ixt:num-unit-decimal", "5 Dollars 5 Cents", "5.05");
+        assertTransform("ixt:num-dot-decimal-in", "12,34,567", "1234567");
+        assertTransform("ixt:num-unit-decimal-in", "12,34,567 Rupees 8 Paise", "1234567.08");
+        assertTransform("ixt:date-day-month", "31/12", "--12-31");
+        assertTransform("ixt:date-day-month-year", "31-12-2023", "2023-12-31");
+        assertTransform("ixt:date-day-monthname-en", "31 Dec", "--12-31");
+        assertTransform("ixt:date-day-monthname-year-en", "31 December, 2023", "2023-12-31");
+        assertTransform("ixt:date-month-day", "2/29", "--02-29");
+        assertTransform("ixt:date-month-day-year", "12/31/2023", "2023-12-31");
+        assertTransform("ixt:date-month-year", "12 2023", "2023-12");
+        assertTransform("ixt:date-monthname-day-en", "December 31", "--12-31");
+        assertTransform("ixt:date-monthname-day-year-en", "December 31, 2023", "2023-12-31");
+        assertTransform("ixt:date-monthname-year-en", "Dec 2023", "2023-12");
+        assertTransform("ixt:date-year-month", "2023/12", "2023-12");
+        assertTransform("ixt:date-year-month-day", "2023.12.31", "2023-12-31");
+        assertTransform("ixt:date-year-monthname-en", "2023 December", "2023-12");
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testIxt5() {
+        /* ixt-5 keeps the ixt-4 names; the registry prefix does not matter */
+        assertTransform("ixt5:num-dot-decimal", "1,234.5", "1234.5");
+        assertTransform("ixt5:num-dot-decimal-apos", "1'234'567.89", "1234567.89");
+        assertTransform("ixt5:num-comma-decimal-apos", "1.234,5", "1234.5");
+        assertTransform("ixt5:date-monthname-day-year-en", "JANUARY 1, 2024", "2024-01-01");
+        assertTransform("ixt5:fixed-zero", "-", "0");
+        assertSame(IxtTransform.resolve("ixt5:num-dot-decimal"), IxtTransform.resolve("ixt:num-dot-decimal"));
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testErrors() {
+        assertResult("ixt:num-dot-decimal", "1.234,5", Result.NO_MATCH);
+        assertResult("ixt:num-dot-decimal", "12a", Result.NO_MATCH);
+        assertResult("ixt:num-dot-decimal", " ", Result.NO_MATCH);
+        assertResult("ixt:num-comma-decimal", "1,2,3", Result.NO_MATCH);
+        assertResult("ixt:num-unit-decimal", "5 dollars", Result.NO_MATCH);
+        assertResult("ixt:num-unit-decimal", "5 dollars 125 cents", Result.NO_MATCH);
+        assertResult("ixt:zerodash", "--", Result.NO_MATCH);
+        assertResult("ixt:zerodash", "0", Result.NO_MATCH);
+        assertResult("ixt:date-month-day-year", "12/31", Result.NO_MATCH);
+        assertResult("ixt:date-month-day-year", "12/31/2023/1", Result.NO_MATCH);
+        assertResult("ixt:date-month-day-year", "12/31/202", Result.NO_MATCH);
+        assertResult("ixt:date-month-day-year", "123/1/2023", Result.NO_MATCH);
+        assertResult("ixt:date-monthname-day-year-en", "Octember 31, 2023", Result.NO_MATCH);
+        assertResult("ixt:date-monthname-day-year-en", "31 December 2023", Result.NO_MATCH);
+        assertResult("ixt:date-month-day-year", "2/29/2023", Result.INVALID_DATE);
+        assertResult("ixt:date-month-day-year", "13/1/2023", Result.INVALID_DATE);
+        assertResult("ixt:date-day-month", "31/4", Result.INVALID_DATE);
+        assertNull(IxtTransform.parseDate("13/2023", "datemonthyear"));
     }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.model.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PeriodIndexTest {
+    private static Set<String> ids(Collection<Context> contexts) {
+        Set<String> ids = new TreeSet<>();
+        for (Context context : contexts) {
+            ids.add(context.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testViews() throws Exception {
+        XbrlInstance instance = SampleFiling.sample();
+        PeriodIndex index = instance.getPeriodIndex();
+        Period fy2023 = instance.getContext("c-FY2023").getPeriod();
+        Period q4 = instance.getContext("c-Q4-2023").getPeriod();
+        Period i2023 = instance.getContext("c-I2023").getPeriod();
+
+        assertEquals(LocalDate.of(2023, 12, 31), index.getPeriodEndDate());
+        assertEquals(5, index.getPeriods().size());
+
+        /* A 10-K: the MRQ has the balance sheet date only, the YTD has the fiscal year */
+        assertEquals(Set.of("c-I2023"), ids(instance.getMRQContexts()));
+        assertEquals(Set.of("c-I2023", "c-FY2023", "c-FY2023-Product", "c-FY2023-Service"),
+                ids(instance.getYTDContexts()));
+
+        assertSame(i2023, index.getCurrentInstant());
+        assertEquals(List.of(fy2023, q4), index.getDurationsEndingAtPeriodEnd());
+        assertSame(instance.getContext("c-FY2022").getPeriod(), index.getPriorYearComparable(fy2023));
+        assertSame(instance.getContext("c-I2022").getPeriod(), index.getPriorYearComparable(i2023));
+        assertNull(index.getPriorYearComparable(q4));
+        assertNull(index.getPriorYearComparable(instance.getContext("c-FY2022").getPeriod()));
+
+        /* Views are computed once and are immutable */
+        assertSame(index, instance.getPeriodIndex());
+        assertSame(instance.getMRQContexts(), instance.getMRQContexts());
+        assertThrows(UnsupportedOperationException.class, () -> instance.getYTDContexts().clear());
+        assertThrows(UnsupportedOperationException.class, () -> index.getDurationsEndingAtPeriodEnd().clear());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testClear() throws Exception {
+        XbrlInstance instance = SampleFiling.sample();
+        PeriodIndex index = instance.getPeriodIndex();
+        instance.clear();
+        assertNotSame(index, instance.getPeriodIndex());
+        assertTrue(instance.getMRQContexts().isEmpty());
+        assertTrue(instance.getPeriodIndex().getPeriods().isEmpty());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.model.Concept;
+import io.datanapis.xbrl.model.ExplicitMember;
+import io.datanapis.xbrl.model.Fact;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * The sample filing (the smpl-20231231 instance, its taxonomy and the sample dei taxonomy), and copies of it for tests
+ * that change it, move it around or package it as a zip.
+ */
+final class SampleFiling {
+    static final String INSTANCE = "smpl-20231231.xml";
+
+    private SampleFiling() {
+    }
+
+    /* The path of a test resource, e.g. /sample/smpl-20231231.xsd */
+    static String samplePath(String resource) throws Exception {
+        return Paths.get(SampleFiling.class.getResource(resource).toURI()).toString();
+    }
+
+    /* The path of the sample instance */
+    static String samplePath() throws Exception {
+        return samplePath("/sample/" + INSTANCE);
+    }
+
+    /* The sample instance */
+    static XbrlInstance sample() throws Exception {
+        return sample(new XbrlReader());
+    }
+
+    /* The sample instance, read by reader */
+    static XbrlInstance sample(XbrlReader reader) throws Exception {
+        return reader.getInstance(samplePath());
+    }
+
+    /* The concept named name, without prefix, of a fact of instance */
+    static Concept concept(XbrlInstance instance, String name) {
+        return instance.getAllFacts().stream().map(Fact::getConcept)
+                .filter(concept -> concept.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    /* The first explicit member of the context with id contextId */
+    static ExplicitMember member(XbrlInstance instance, String contextId) {
+        return instance.getContext(contextId).getDimensions().iterator().next();
+    }
+
+    /* The folder holding the sample filing */
+    static Path folder() throws Exception {
+        return Paths.get(samplePath()).getParent();
+    }
+
+    /* The files of the sample filing, sorted by name */
+    static List<Path> files() throws Exception {
+        try (var stream = Files.list(folder())) {
+            return stream.sorted().toList();
+        }
+    }
+
+    /* A copy of the sample filing in a new folder called "filing" */
+    static Path copy(TemporaryFolder folder) throws Exception {
+        return copy(folder, "filing", path -> false);
+    }
+
+    /* A copy of the sample filing in a new folder called name, without the files that skip matches */
+    static Path copy(TemporaryFolder folder, String name, Predicate<Path> skip) throws Exception {
+        Path filing = folder.newFolder(name).toPath();
+        for (Path path : files()) {
+            if (!skip.test(path)) {
+                Files.copy(path, filing.resolve(path.getFileName()));
+            }
+        }
+        return filing;
+    }
+
+    /* Replaces the content of file with edit applied to it */
+    static void rewrite(Path file, UnaryOperator<String> edit) throws Exception {
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        Files.writeString(file, edit.apply(content), StandardCharsets.UTF_8);
+    }
+
+    /* The files in folder as zip entries named after the files, sorted by name */
+    static Map<String,byte[]> entries(Path folder) throws Exception {
+        Map<String,byte[]> entries = new LinkedHashMap<>();
+        try (var stream = Files.list(folder)) {
+            for (Path path : stream.sorted().toList()) {
+                entries.put(path.getFileName().toString(), Files.readAllBytes(path));
+            }
+        }
+        return entries;
+    }
+
+    static void writeZip(Path zip, Map<String,byte[]> entries) throws Exception {
+        try (OutputStream outputStream = Files.newOutputStream(zip);
+             ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            for (Map.Entry<String,byte[]> entry : entries.entrySet()) {
+                zipOutputStream.putNextEntry(new ZipEntry(entry.getKey()));
+                zipOutputStream.write(entry.getValue());
+                zipOutputStream.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.model.Fact;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class StreamingInlineXbrlTest {
+    private static final String IXBRL_DOCUMENT = "/ixbrl/smpl-20231231.htm";
+
+    /* The second document of a two document iXBRL filing. It has no header and uses the contexts and units of the first */
+    private static final String SECOND_DOCUMENT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <html xmlns="http://www.w3.org/1999/xhtml" xmlns:ix="http://www.xbrl.org/2013/inlineXBRL"
+                  xmlns:ixt="http://www.xbrl.org/inlineXBRL/transformation/2020-02-12" xmlns:smpl="http://www.example.com/20231231">
+            <body><table>
+              <tr><td>Revenues</td><td><ix:nonFraction name="smpl:Revenues" contextRef="c-FY2022" unitRef="usd" decimals="-6" scale="6" format="ixt:num-dot-decimal" id="f-21">4,900</ix:nonFraction></td></tr>
+              <tr><td>Net income</td><td><ix:nonFraction name="smpl:NetIncomeLoss" contextRef="c-FY2022" unitRef="usd" decimals="-6" scale="6" format="ixt:num-dot-decimal" id="f-26">80</ix:nonFraction></td></tr>
+              <tr><td>Earnings per share</td><td><ix:nonFraction name="smpl:EarningsPerShareBasic" contextRef="c-FY2022" unitRef="usdPerShare" decimals="2" id="f-29">0.83</ix:nonFraction></td></tr>
+            </table></body>
+            </html>
+            """;
+
+    private static final String EXHIBIT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <html xmlns="http://www.w3.org/1999/xhtml"><body><p>Exhibit 21</p></body></html>
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /* The sample taxonomy alongside the iXBRL document */
+    static Path filing(TemporaryFolder folder) throws Exception {
+        Path filing = SampleFiling.copy(folder, "filing", path -> path.getFileName().toString().equals(SampleFiling.INSTANCE));
+        Files.copy(Paths.get(SampleFiling.samplePath(IXBRL_DOCUMENT)), filing.resolve("smpl-20231231.htm"));
+        return filing;
+    }
+
+    /* The filing with the iXBRL document split in two, plus an exhibit that is not an iXBRL document */
+    static Path multiDocumentZip(TemporaryFolder folder) throws Exception {
+        Map<String,byte[]> entries = SampleFiling.entries(filing(folder));
+        entries.put("smpl-20231231-part2.htm", SECOND_DOCUMENT.strip().getBytes(StandardCharsets.UTF_8));
+        entries.put("ex21.htm", EXHIBIT.strip().getBytes(StandardCharsets.UTF_8));
+        Path zip = folder.getRoot().toPath().resolve("smpl-20231231-xbrl.zip");
+        SampleFiling.writeZip(zip, entries);
+        return zip;
+    }
+
+    private static Fact fact(XbrlInstance instance, String id) {
+        return instance.getAllFacts().stream().filter(f -> id.equals(f.getId())).findFirst().orElse(null);
+    }
+
+    private static void assertSameInstance(XbrlInstance expected, XbrlInstance actual) {
+        assertEquals(ConcurrentParsingTest.describe(expected), ConcurrentParsingTest.describe(actual));
+        assertEquals(expected.getAllContexts().size(), actual.getAllContexts().size());
+        assertEquals(expected.getAllUnits().size(), actual.getAllUnits().size());
+        assertEquals(expected.getDei().getDocumentInformation().getDocumentType(), actual.getDei().getDocumentInformation().getDocumentType());
+        for (Fact fact : expected.getAllFacts()) {
+            Fact other = fact(actual, fact.getId());
+            assertNotNull(fact.getId(), other);
+            assertEquals(fact.getId(), fact.getFootnote() != null ? fact.getFootnote().getValue() : null,
+                    other.getFootnote() != null ? other.getFootnote().getValue() : null);
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testStreamedMatchesTree() throws Exception {
+        String path = filing(folder).resolve("smpl-20231231.htm").toString();
+        XbrlInstance expected = new XbrlReader().getInstance(path);
+        XbrlInstance streamed = new XbrlReader().streamInstances(true).getInstance(path);
+        assertSameInstance(expected, streamed);
+
+        assertEquals(22, streamed.nOfFacts());
+        assertEquals("10-K", streamed.getDei().getDocumentInformation().getDocumentType());
+        Fact netIncome = fact(streamed, "f-25");
+        assertEquals(Long.valueOf(-120000000L), netIncome.getLongValue());
+        assertEquals("Includes a one-time impairment charge.", netIncome.getFootnote().getValue());
+        /* Resolved through the namespace declared on the enclosing table row */
+        assertEquals("Receivables", fact(streamed, "f-12").getConcept().getName());
+        /* The nested nonFraction inside the text block is a fact of its own, the continuation is part of the text block */
+        assertEquals(Long.valueOf(1450000000L), fact(streamed, "f-22").getLongValue());
+        String policies = fact(streamed, "f-30").getValue();
+        assertTrue(policies, policies.contains("Basis of presentation") && policies.contains("Estimates are used"));
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testStreamedFromZip() throws Exception {
+        Path zip = multiDocumentZip(folder);
+        XbrlInstance expected = new XbrlReader().getInstance(zip.toString());
+        assertEquals(25, expected.nOfFacts());
+        for (boolean lazy : List.of(false, true)) {
+            XbrlReader reader = new XbrlReader().streamInstances(true).readZipsLazily(lazy);
+            assertSameInstance(expected, reader.getInstance(zip.toString()));
+        }
+    }
+}
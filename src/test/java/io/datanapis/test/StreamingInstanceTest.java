@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.model.Context;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class StreamingInstanceTest {
+    private static final Pattern CONTEXT_OR_UNIT = Pattern.compile("\\s*<xbrli:(context|unit) .*?</xbrli:\\1>", Pattern.DOTALL);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertSameInstance(XbrlInstance expected, XbrlInstance actual) {
+        assertEquals(ConcurrentParsingTest.describe(expected), ConcurrentParsingTest.describe(actual));
+        assertEquals(expected.getAllContexts().size(), actual.getAllContexts().size());
+        for (Context context : expected.getAllContexts()) {
+            Context other = actual.getContext(context.getId());
+            assertNotNull(context.getId(), other);
+            assertEquals(context.getId(), context.getPeriod(), other.getPeriod());
+            assertEquals(context.getId(), context.getDimensions().size(), other.getDimensions().size());
+        }
+        assertEquals(expected.getAllUnits().size(), actual.getAllUnits().size());
+        assertEquals(expected.getDei().getDocumentInformation().getDocumentType(), actual.getDei().getDocumentInformation().getDocumentType());
+        assertEquals(expected.getDei().getPeriodEndDate(), actual.getDei().getPeriodEndDate());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testStreamedMatchesTree() throws Exception {
+        XbrlInstance expected = new XbrlReader().getInstance(SampleFiling.samplePath());
+        XbrlInstance streamed = new XbrlReader().streamInstances(true).getInstance(SampleFiling.samplePath());
+        assertSameInstance(expected, streamed);
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testContextsAndUnitsAfterFacts() throws Exception {
+        /* Move every context and unit to the end of the instance, so that every fact has to wait for its context */
+        Path instancePath = SampleFiling.copy(folder).resolve(SampleFiling.INSTANCE);
+        SampleFiling.rewrite(instancePath, content -> {
+            StringBuilder moved = new StringBuilder();
+            Matcher matcher = CONTEXT_OR_UNIT.matcher(content);
+            while (matcher.find()) {
+                moved.append(matcher.group());
+            }
+            assertTrue(moved.length() > 0);
+            return matcher.replaceAll("").replace("</xbrli:xbrl>", moved + "\n</xbrli:xbrl>");
+        });
+
+        XbrlInstance expected = new XbrlReader().getInstance(SampleFiling.samplePath());
+        assertSameInstance(expected, new XbrlReader().getInstance(instancePath.toString()));
+        assertSameInstance(expected, new XbrlReader().streamInstances(true).getInstance(instancePath.toString()));
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testStreamedFromZip() throws Exception {
+        Path zip = folder.getRoot().toPath().resolve("smpl-20231231-xbrl.zip");
+        SampleFiling.writeZip(zip, SampleFiling.entries(SampleFiling.folder()));
+
+        XbrlInstance expected = new XbrlReader().getInstance(SampleFiling.samplePath());
+        for (boolean lazy : List.of(false, true)) {
+            XbrlReader reader = new XbrlReader().streamInstances(true).readZipsLazily(lazy);
+            assertSameInstance(expected, reader.getInstance(zip.toString()));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlException;
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.reader.UrlMapping;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class UrlMappingTest {
+    private static final String DEI_URL = "https://xbrl.sec.gov/dei/2023/";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path filing;
+    private Path deiFolder;
+    private Path deiZip;
+
+    /* The sample filing referencing dei by its published url, and dei as a folder and as a zip */
+    private void setUp() throws Exception {
+        filing = folder.newFolder("filing").toPath();
+        deiFolder = folder.newFolder("dei-2023").toPath();
+        Map<String,byte[]> dei = new LinkedHashMap<>();
+        for (Path path : SampleFiling.files()) {
+            String name = path.getFileName().toString();
+            if (name.startsWith("dei-")) {
+                Files.copy(path, deiFolder.resolve(name));
+                dei.put("dei-2023/" + name, Files.readAllBytes(path));
+            } else {
+                String content = Files.readString(path, StandardCharsets.UTF_8);
+                Files.writeString(filing.resolve(name), content.replace("\"dei-2023.xsd", "\"" + DEI_URL + "dei-2023.xsd"));
+            }
+        }
+        deiZip = folder.getRoot().toPath().resolve("dei-2023.zip");
+        SampleFiling.writeZip(deiZip, dei);
+    }
+
+    private String instancePath() {
+        return filing.resolve("smpl-20231231.xml").toString();
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testMapToZip() throws Exception {
+        setUp();
+        int expected = new XbrlReader().getInstance(SampleFiling.samplePath()).nOfFacts();
+
+        /* Mapped over http, referenced over https */
+        try (UrlMapping mapping = new UrlMapping().mapToZip("http://xbrl.sec.gov/dei/2023", deiZip, "dei-2023")) {
+            assertTrue(mapping.isMapped(DEI_URL + "dei-2023.xsd"));
+            assertFalse(mapping.isMapped("https://xbrl.sec.gov/dei/2022/dei-2022.xsd"));
+            assertNull(mapping.getContents("https://xbrl.fasb.org/us-gaap/2023/elts/us-gaap-2023.xsd"));
+
+            XbrlInstance instance = new XbrlReader().resolveOffline(mapping).getInstance(instancePath());
+            assertEquals(expected, instance.nOfFacts());
+            assertEquals("10-K", instance.getDei().getDocumentInformation().getDocumentType());
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testLongestPrefix() throws Exception {
+        setUp();
+        Path empty = folder.newFolder("empty").toPath();
+        try (UrlMapping mapping = new UrlMapping()
+                .mapToFolder("https://xbrl.sec.gov/", empty)
+                .mapToFolder(DEI_URL, deiFolder)) {
+            assertArrayEquals(Files.readAllBytes(deiFolder.resolve("dei-2023.xsd")), mapping.getContents(DEI_URL + "dei-2023.xsd"));
+
+            try {
+                mapping.getContents("https://xbrl.sec.gov/ecd/2023/ecd-2023.xsd");
+                fail("Expected a mapped url without a document to fail");
+            } catch (FileNotFoundException e) {
+                /* expected */
+            }
+            try {
+                mapping.getContents(DEI_URL + "../../../dei-2023/dei-2023.xsd");
+                fail("Expected a url outside the mapped folder to fail");
+            } catch (FileNotFoundException e) {
+                /* expected */
+            }
+
+            XbrlInstance instance = new XbrlReader().resolveOffline(mapping).getInstance(instancePath());
+            assertEquals("10-K", instance.getDei().getDocumentInformation().getDocumentType());
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testUnmappedUrlsFail() throws Exception {
+        setUp();
+        try (UrlMapping mapping = new UrlMapping().mapToFolder("https://xbrl.fasb.org/us-gaap/2023/", deiFolder)) {
+            XbrlReader reader = new XbrlReader().resolveOffline(mapping);
+            try {
+                reader.getInstance(instancePath());
+                fail("Expected an unmapped url to fail offline");
+            } catch (RuntimeException e) {
+                /* expected */
+            }
+            try {
+                reader.getInstance("https://www.sec.gov/Archives/edgar/data/0000000000/smpl-20231231.xml");
+                fail("Expected reading an instance from a url to fail offline");
+            } catch (XbrlException e) {
+                /* expected */
+            }
+        }
+    }
+}
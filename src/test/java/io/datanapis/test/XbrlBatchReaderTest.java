@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlBatchReader;
+import io.datanapis.xbrl.XbrlException;
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.reader.DocumentCache;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class XbrlBatchReaderTest {
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testBatch() throws Exception {
+        int expected = new XbrlReader().getInstance(SampleFiling.samplePath()).nOfFacts();
+
+        XbrlReader reader = new XbrlReader()
+                .shareBaseTaxonomies(BaseTaxonomyCacheTest.sampleCache())
+                .shareDocuments(new DocumentCache());
+        List<XbrlBatchReader.Filing> filings = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            filings.add(XbrlBatchReader.Filing.of(SampleFiling.samplePath()));
+        }
+        filings.add(XbrlBatchReader.Filing.of(SampleFiling.samplePath().replace("smpl-", "missing-")));
+
+        try (XbrlBatchReader batchReader = new XbrlBatchReader(reader, 3)) {
+            List<CompletableFuture<XbrlInstance>> futures = batchReader.submitAll(filings.subList(0, 8));
+            for (CompletableFuture<XbrlInstance> future : futures) {
+                assertEquals(expected, future.get(60, TimeUnit.SECONDS).nOfFacts());
+            }
+
+            List<XbrlBatchReader.Result> results;
+            try (Stream<XbrlBatchReader.Result> stream = batchReader.stream(filings)) {
+                results = stream.collect(Collectors.toList());
+            }
+            assertEquals(filings.size(), results.size());
+            assertEquals(8, results.stream().filter(XbrlBatchReader.Result::isSuccess).count());
+            for (XbrlBatchReader.Result result : results) {
+                if (result.isSuccess()) {
+                    assertEquals(expected, result.instance.nOfFacts());
+                } else {
+                    assertTrue(result.filing.path.contains("missing-"));
+                }
+            }
+            assertEquals(0, batchReader.nOfRunning());
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testParallelismLimit() throws Exception {
+        /* An executor that only runs commands when asked to */
+        List<Runnable> commands = new ArrayList<>();
+        Executor executor = commands::add;
+
+        try (XbrlBatchReader batchReader = new XbrlBatchReader(new XbrlReader(), 2, executor)) {
+            List<CompletableFuture<XbrlInstance>> futures = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                futures.add(batchReader.submit(SampleFiling.samplePath()));
+            }
+            assertEquals(2, commands.size());
+            assertEquals(2, batchReader.nOfRunning());
+            assertEquals(3, batchReader.nOfPending());
+
+            /* A cancelled filing gives up its slot without being read */
+            futures.get(2).cancel(true);
+            commands.get(0).run();
+            assertTrue(futures.get(0).isDone());
+            assertEquals(3, commands.size());
+            commands.get(2).run();
+            assertEquals(4, commands.size());
+
+            commands.get(1).run();
+            commands.get(3).run();
+            commands.get(4).run();
+            assertEquals(0, batchReader.nOfRunning());
+            assertEquals(0, batchReader.nOfPending());
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i != 2, futures.get(i).isDone() && !futures.get(i).isCompletedExceptionally());
+            }
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testTimeout() throws Exception {
+        try (XbrlBatchReader batchReader = new XbrlBatchReader(new XbrlReader(), 1).withTimeout(Duration.ofMillis(1))) {
+            CompletableFuture<XbrlInstance> future = batchReader.submit(SampleFiling.samplePath());
+            try {
+                future.get(60, TimeUnit.SECONDS);
+                fail("Expected the filing to time out");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof TimeoutException);
+            }
+
+            /* The slot is released once the interrupted read returns */
+            batchReader.withTimeout(null);
+            assertNotNull(batchReader.submit(SampleFiling.samplePath()).get(60, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testInterruptStopsRead() throws Exception {
+        /* Timeouts and cancellation interrupt the reading thread, the read gives up rather than running to the end */
+        Thread.currentThread().interrupt();
+        try {
+            new XbrlReader().getInstance(SampleFiling.samplePath());
+            fail("Expected the interrupted read to stop");
+        } catch (Exception e) {
+            Throwable cause = e;
+            while (!(cause instanceof XbrlException) && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            assertTrue(e.toString(), cause instanceof XbrlException);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
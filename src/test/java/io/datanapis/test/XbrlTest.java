@@ -126,7 +126,7 @@ public class XbrlTest {
 
         Collection<Concept> concepts = dts.getMatchingConcepts(Pattern.compile("AdditionsToNoncurrentAssets"));
 
-        RoleType deprecated = RoleType.DEPRECATED;
+        RoleType deprecated = dts.getRoleType(RoleType.DEPRECATED_URI);
         System.out.printf("RoleType deprecated has presentation: %b, calculation: %b, definition: %b\n",
                 deprecated.getPresentationLink() != null, deprecated.getCalculationLink() != null, deprecated.getDefinitionLink() != null);
 
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.analysis.data.XbrlInstancePath;
+import io.datanapis.xbrl.reader.XmlParser;
+import org.dom4j.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.*;
+
+public class XmlParserTest {
+    private static final Logger log = LoggerFactory.getLogger(XmlParserTest.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /* Elements, namespaces, attributes and text of the tree rooted at element */
+    private static void describe(Element element, List<String> lines) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(element.getNamespaceURI()).append('|').append(element.getQualifiedName());
+        List<String> attributes = new ArrayList<>();
+        for (Attribute attribute : element.attributes()) {
+            attributes.add(attribute.getNamespaceURI() + "|" + attribute.getQualifiedName() + "=" + attribute.getValue());
+        }
+        Collections.sort(attributes);
+        builder.append(attributes);
+        List<String> namespaces = new ArrayList<>();
+        for (Namespace namespace : element.declaredNamespaces()) {
+            namespaces.add(namespace.getPrefix() + "=" + namespace.getURI());
+        }
+        Collections.sort(namespaces);
+        builder.append(namespaces).append('|').append(element.getText());
+        lines.add(builder.toString());
+
+        for (Element child : element.elements()) {
+            describe(child, lines);
+        }
+    }
+
+    private static List<String> describe(Document document) {
+        List<String> lines = new ArrayList<>();
+        describe(document.getRootElement(), lines);
+        return lines;
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testSameTree() throws Exception {
+        for (Path path : SampleFiling.files()) {
+            byte[] bytes = Files.readAllBytes(path);
+            List<String> expected = describe(XmlParser.JDK_SAX.read(new ByteArrayInputStream(bytes)));
+            for (XmlParser parser : XmlParser.values()) {
+                assertEquals(parser + ": " + path, expected, describe(parser.read(new ByteArrayInputStream(bytes))));
+                assertEquals(parser + ": " + path, expected,
+                        describe(parser.read(new StringReader(new String(bytes, StandardCharsets.UTF_8)))));
+            }
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testSameInstance() throws Exception {
+        String path = SampleFiling.samplePath();
+        List<String> expected = ConcurrentParsingTest.describe(new XbrlReader().getInstance(path));
+        for (XmlParser parser : XmlParser.values()) {
+            assertEquals(parser.toString(), expected, ConcurrentParsingTest.describe(new XbrlReader().useParser(parser).getInstance(path)));
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testExternalEntitiesAreNotResolved() throws Exception {
+        Path secret = folder.newFile("secret.txt").toPath();
+        Files.writeString(secret, "SECRET");
+        String xml = "<?xml version=\"1.0\"?>\n" +
+                "<!DOCTYPE root [<!ENTITY xxe SYSTEM \"" + secret.toUri() + "\">]>\n" +
+                "<root>&xxe;</root>";
+
+        for (XmlParser parser : XmlParser.values()) {
+            try {
+                Document document = parser.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+                assertFalse(parser.toString(), document.getRootElement().getText().contains("SECRET"));
+            } catch (DocumentException e) {
+                /* Refusing the document is fine too */
+            }
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.SlowTest.class)
+    public void testBenchmark() throws Exception {
+        /* The xml documents (instance, schema and linkbases) of the XbrlInstancePath filings available locally */
+        List<byte[]> documents = new ArrayList<>();
+        long nOfBytes = 0;
+        for (XbrlInstancePath instancePath : XbrlInstancePath.values()) {
+            String localPath = (instancePath.getLocalPath() != null) ? instancePath.getLocalPath() : instancePath.getPath();
+            if (!new File(localPath).isFile()) {
+                continue;
+            }
+
+            try (ZipFile zipFile = new ZipFile(localPath)) {
+                for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                    String name = entry.getName().toLowerCase();
+                    if (entry.isDirectory() || !(name.endsWith(".xml") || name.endsWith(".xsd"))) {
+                        continue;
+                    }
+                    try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                        byte[] bytes = inputStream.readAllBytes();
+                        documents.add(bytes);
+                        nOfBytes += bytes.length;
+                    }
+                }
+            }
+        }
+        assertFalse("No local XbrlInstancePath fixtures found", documents.isEmpty());
+
+        final int warmup = 1, rounds = 3;
+        for (XmlParser parser : XmlParser.values()) {
+            for (int i = 0; i < warmup; i++) {
+                for (byte[] bytes : documents) {
+                    parser.read(new ByteArrayInputStream(bytes));
+                }
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                for (byte[] bytes : documents) {
+                    parser.read(new ByteArrayInputStream(bytes));
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            log.info("[{}]: [{}] documents in [{}] ms, [{}] MB/s", parser, rounds * documents.size(), elapsed / 1_000_000,
+                    String.format("%.1f", (double)nOfBytes * rounds / (elapsed / 1e9) / (1024 * 1024)));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2020 Jayakumar Muthukumarasamy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.datanapis.test;
+
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.reader.ZipContentCache;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class ZipContentCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] bytesOf(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Path taxonomies() throws Exception {
+        Path zips = folder.newFolder("taxonomies").toPath();
+
+        Map<String,byte[]> first = new LinkedHashMap<>();
+        first.put("us-gaap-2022/META-INF/catalog.xml", bytesOf("<catalog/>"));
+        first.put("us-gaap-2022/elts/a.xsd", bytesOf("a".repeat(100)));
+        first.put("us-gaap-2022/elts/b.xsd", bytesOf("b".repeat(100)));
+        first.put("us-gaap-2022/elts/common.xsd", bytesOf("common"));
+        first.put("us-gaap-2022/elts/changed.xsd", bytesOf("2022"));
+        SampleFiling.writeZip(zips.resolve("us-gaap-2022.zip"), first);
+
+        Map<String,byte[]> second = new LinkedHashMap<>();
+        second.put("us-gaap-2023/elts/c.xsd", bytesOf("c".repeat(100)));
+        second.put("us-gaap-2023/elts/common.xsd", bytesOf("common"));
+        second.put("us-gaap-2023/elts/changed.xsd", bytesOf("2023"));
+        SampleFiling.writeZip(zips.resolve("us-gaap-2023.zip"), second);
+
+        return zips;
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testIndex() throws Exception {
+        try (ZipContentCache cache = new ZipContentCache(taxonomies())) {
+            assertEquals(Set.of("a.xsd", "b.xsd", "c.xsd", "common.xsd"), cache.keySet());
+            assertNull(cache.getContents("changed.xsd"));
+            assertNull(cache.getContents("catalog.xml"));
+            assertNull(cache.getContents("missing.xsd"));
+
+            assertArrayEquals(bytesOf("common"), cache.getContents("common.xsd"));
+            assertArrayEquals(bytesOf("c".repeat(100)), cache.getContents("c.xsd"));
+            assertArrayEquals(bytesOf("c".repeat(100)), cache.getContents("c.xsd"));
+
+            ZipContentCache.Statistics statistics = cache.getStatistics();
+            assertEquals(1, statistics.hits);
+            assertEquals(2, statistics.misses);
+            assertEquals(2, statistics.nOfEntries);
+            assertEquals(106, statistics.nOfBytes);
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testEviction() throws Exception {
+        try (ZipContentCache cache = new ZipContentCache(taxonomies(), 250)) {
+            cache.getContents("a.xsd");
+            cache.getContents("b.xsd");
+            cache.getContents("a.xsd");
+            /* b.xsd is the least recently used and makes way for c.xsd */
+            cache.getContents("c.xsd");
+
+            ZipContentCache.Statistics statistics = cache.getStatistics();
+            assertEquals(1, statistics.evictions);
+            assertEquals(200, statistics.nOfBytes);
+
+            cache.getContents("a.xsd");
+            cache.getContents("b.xsd");
+            statistics = cache.getStatistics();
+            assertEquals(2, statistics.hits);
+            assertEquals(4, statistics.misses);
+            assertTrue(statistics.nOfBytes <= 250);
+
+            cache.clear();
+            assertEquals(0, cache.getStatistics().nOfBytes);
+            assertNotNull(cache.getContents("a.xsd"));
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testConcurrentAccess() throws Exception {
+        try (ZipContentCache cache = new ZipContentCache(taxonomies(), 250)) {
+            List<String> keys = List.of("a.xsd", "b.xsd", "c.xsd", "common.xsd");
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Boolean>> futures = new ArrayList<>();
+                for (int i = 0; i < 64; i++) {
+                    String key = keys.get(i % keys.size());
+                    futures.add(executor.submit(() -> {
+                        for (int j = 0; j < 100; j++) {
+                            byte[] bytes = cache.getContents(key);
+                            if (bytes == null || bytes[0] != key.charAt(0))
+                                return false;
+                        }
+                        return true;
+                    }));
+                }
+                for (Future<Boolean> future : futures) {
+                    assertTrue(future.get());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            ZipContentCache.Statistics statistics = cache.getStatistics();
+            assertEquals(6400, statistics.hits + statistics.misses);
+            assertTrue(statistics.nOfBytes <= 250);
+        }
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testReaderUsesTaxonomyCache() throws Exception {
+        /* A copy of the sample filing without the dei schema, which is only available in a taxonomy zip */
+        Path filing = SampleFiling.copy(folder, "filing", path -> path.getFileName().toString().startsWith("dei-"));
+        Map<String,byte[]> dei = new LinkedHashMap<>();
+        for (Map.Entry<String,byte[]> entry : SampleFiling.entries(SampleFiling.folder()).entrySet()) {
+            if (entry.getKey().startsWith("dei-")) {
+                dei.put("dei-2023/" + entry.getKey(), entry.getValue());
+            }
+        }
+        Path zip = folder.getRoot().toPath().resolve("dei-2023.zip");
+        SampleFiling.writeZip(zip, dei);
+
+        try (ZipContentCache cache = new ZipContentCache(zip)) {
+            XbrlReader reader = new XbrlReader().useTaxonomyCache(cache);
+            XbrlInstance instance = reader.getInstance(filing.resolve("smpl-20231231.xml").toString());
+            assertEquals("10-K", instance.getDei().getDocumentInformation().getDocumentType());
+            assertEquals(3, cache.getStatistics().misses);
+        }
+    }
+}
@@ -15,20 +15,78 @@
  */
 package io.datanapis.test;
 
+import io.datanapis.xbrl.XbrlInstance;
+import io.datanapis.xbrl.XbrlReader;
+import io.datanapis.xbrl.model.Fact;
 import okhttp3.*;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import static org.junit.Assert.assertEquals;
+
 public class ZipTest {
     private static final String ZIP_URL = "https://www.sec.gov/Archives/edgar/data/320193/000119312512444068/0001193125-12-444068-xbrl.zip";
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /* The sample filing packaged as an EDGAR zip, together with entries that are not part of the XBRL instance */
+    private Path sampleZip() throws Exception {
+        Map<String,byte[]> entries = SampleFiling.entries(SampleFiling.folder());
+        entries.put("Financial_Report.xlsx", new byte[64 * 1024]);
+        entries.put("ex-101.pdf", new byte[64 * 1024]);
+        entries.put("logo.jpg", new byte[16 * 1024]);
+
+        Path zip = folder.getRoot().toPath().resolve("0000000000-23-000001-xbrl.zip");
+        SampleFiling.writeZip(zip, entries);
+        return zip;
+    }
+
+    private static List<String> factsOf(XbrlInstance instance) {
+        List<String> facts = new ArrayList<>();
+        for (Fact fact : instance.getAllFacts()) {
+            facts.add(fact.getConcept().getKey() + "|" + fact.getContext().getId() + "|" + fact.getValue());
+        }
+        Collections.sort(facts);
+        return facts;
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testLazyZip() throws Exception {
+        Path zip = sampleZip();
+
+        XbrlInstance eager = new XbrlReader().getInstance(zip.toString());
+        XbrlInstance lazy = new XbrlReader().readZipsLazily(true).getInstance(zip.toString());
+        assertEquals(factsOf(eager), factsOf(lazy));
+        assertEquals(eager.getTaxonomy().getAllConcepts().size(), lazy.getTaxonomy().getAllConcepts().size());
+        assertEquals("10-K", lazy.getDei().getDocumentInformation().getDocumentType());
+    }
+
+    @Test
+    @Category(io.datanapis.test.FastTest.class)
+    public void testLazyZipStream() throws Exception {
+        Path zip = sampleZip();
+        String url = "https://www.sec.gov/Archives/edgar/data/0000000000/000000000023000001/" + zip.getFileName();
+
+        XbrlInstance eager = new XbrlReader().getInstance(zip.toString());
+        XbrlInstance lazy;
+        try (InputStream inputStream = Files.newInputStream(zip)) {
+            lazy = new XbrlReader().readZipsLazily(true).getInstanceFromZipStream(null, url, inputStream);
+        }
+        assertEquals(factsOf(eager), factsOf(lazy));
+    }
+
     @Test
     @Category(io.datanapis.test.SlowTest.class)
     public void testXbrlZip() throws Exception {